@@ -5,7 +5,14 @@
 package ataxx;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static ataxx.PieceColor.*;
 import static java.lang.Math.min;
@@ -16,20 +23,58 @@ import static java.lang.Math.max;
  */
 class AI extends Player {
 
-    /** Maximum minimax search depth before going to static evaluation. */
-    private static final int MAX_DEPTH = 4;
+    /** Maximum minimax search depth before going to static evaluation,
+     *  when there is no time limit. */
+    static final int MAX_DEPTH = 4;
+    /** Maximum search depth when searching against the clock. */
+    private static final int MAX_TIMED_DEPTH = 60;
+    /** Number of nodes searched between checks of the clock. */
+    private static final int CLOCK_CHECK_INTERVAL = 128;
+    /** Minimum number of my moves assumed to remain in the game when
+     *  dividing up the game time. */
+    private static final int MIN_MOVES_TO_GO = 8;
+
+    /* Move-ordering scores (see orderMoves).  Each class of move is
+     * ordered before all those of a lower class. */
+
+    /** Score of the transposition-table or previous-iteration move. */
+    private static final int HASH_SCORE = 1 << 30;
+    /** Base score of moves that capture; the number captured, and then
+     *  whether the move is an extend, are added in above bit 8. */
+    private static final int CAPTURE_SCORE = 1 << 24;
+    /** Scores of the first and second killer moves at a ply. */
+    private static final int KILLER_SCORE = 1 << 23;
+    /** Base score of non-capturing extends.  The history score is added
+     *  to this (for extends) or to 0 (for jumps). */
+    private static final int QUIET_EXTEND_SCORE = 1 << 22;
+    /** Bound on history scores, which are halved when one reaches it. */
+    private static final int MAX_HISTORY = QUIET_EXTEND_SCORE - 1;
     /** A position magnitude indicating a win (for red if positive, blue
-     *  if negative). */
-    private static final int WINNING_VALUE = Integer.MAX_VALUE - 20;
+     *  if negative).  Wins are scored as this plus the remaining depth,
+     *  so it leaves room for the deepest search. */
+    private static final int WINNING_VALUE =
+        Integer.MAX_VALUE - 1 - MAX_TIMED_DEPTH;
     /** A magnitude greater than a normal value. */
     private static final int INFTY = Integer.MAX_VALUE;
 
     /** A new AI for GAME that will play MYCOLOR. SEED is used to initialize
      *  a random-number generator for use in move computations.  Identical
-     *  seeds produce identical behaviour. */
+     *  seeds produce identical behaviour.  GAME may be null for an AI that
+     *  is used only to analyze positions with findMove(Board). */
     AI(Game game, PieceColor myColor, long seed) {
         super(game, myColor);
         _random = new Random(seed);
+        _table = new TranspositionTable(Main.hashSize());
+        _main = new Searcher();
+        _maxDepth = MAX_DEPTH;
+        _ordering = true;
+        _symmetry = false;
+        _evaluator = Main.evaluator();
+        setThreads(Main.threads());
+        setLazy(Main.lazy());
+        _stats = Main.stats();
+        _book = Main.book();
+        _endgame = Main.endgame();
     }
 
     @Override
@@ -45,115 +90,840 @@ class AI extends Player {
         }
 
         Main.startTiming();
-        Move move = findMove();
+        Move move = findMove(getBoard());
         Main.endTiming();
         game().reportMove(move, myColor());
         return move.toString();
     }
 
-    /** Return a move for me from the current position, assuming there
-     *  is a move. */
-    private Move findMove() {
-        Board b = new Board(getBoard());
-        _lastFoundMove = null;
-        if (myColor() == RED) {
-            minMax(b, MAX_DEPTH, true, 1, -INFTY, INFTY);
-        } else {
-            minMax(b, MAX_DEPTH, true, -1, -INFTY, INFTY);
+    /** Return a move for the player to move in BOARD, assuming there
+     *  is a move.  Searches to depth 1, 2, ..., either up to the maximum
+     *  depth (initially MAX_DEPTH) or,
+     *  if there is a time limit, until time runs out, and returns the best
+     *  move of the deepest search completed.  A new iteration is not
+     *  started once the soft time limit has passed, and an iteration in
+     *  progress is abandoned at the hard limit.  Likewise for the node
+     *  limit and the stop signal, if set (except that the first iteration
+     *  is always completed).  If the opening book (if any) has a move
+     *  for BOARD, returns that without searching, with a lastDepth of
+     *  0, and likewise if BOARD is an endgame that the solver can settle
+     *  (see setEndgame and lastSolution).  Either way, the time taken
+     *  counts against --gametime and is recorded in the statistics (see
+     *  setStats). */
+    Move findMove(Board board) {
+        long start = System.nanoTime();
+        _main._nodes = 0;
+        _helperNodes.set(0);
+        Arrays.fill(_counts, 0);
+        _solution = null;
+        Move move = null;
+        if (_book != null) {
+            move = _book.lookup(board);
+            if (move != null) {
+                _root = new Board(board);
+                _main._pvMove = move;
+                _lastScore = _lastDepth = 0;
+            }
+        }
+        if (move == null) {
+            move = search(new Board(board), start);
+        }
+        long time = System.nanoTime() - start;
+        _timeUsed += time;
+        if (_stats != null) {
+            _main.flushCounts();
+            _counts[SearchStats.NODES] = nodes();
+            _stats.add(time, _counts, _iterationNodes, _lastDepth);
+        }
+        return move;
+    }
+
+    /** Return a move for the player to move in B, which I may modify,
+     *  found by the endgame solver or by search (see findMove) begun at
+     *  time START (in nanoseconds). */
+    private Move search(Board b, long start) {
+        Events.Search event = _searchEvent;
+        event.begin();
+        _root = b;
+        setDeadlines(b, start);
+        _table.newSearch();
+        _main.ageHistory();
+        _aborted = false;
+        _main._pvMove = null;
+        if (_endgame > 0 && EndgameSolver.empties(b) <= _endgame) {
+            Move solved = solveEndgame(b);
+            if (solved != null) {
+                return solved;
+            }
+        }
+        int sense = b.whoseMove() == RED ? 1 : -1;
+        int maxDepth = _timed && _moveTime < 0 ? MAX_TIMED_DEPTH : _maxDepth;
+        ArrayList<ForkJoinTask<?>> helpers = startHelpers(b, maxDepth);
+        _lastDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth += 1) {
+            _main._lastFoundMove = null;
+            _canAbort = depth > 1;
+            long nodes0 = nodes();
+            int score;
+            if (_pool != null && !_lazy && depth >= MIN_SPLIT_DEPTH) {
+                score = splitRoot(b, depth, sense);
+            } else {
+                score = _main.search(b, depth, true, sense, -INFTY, INFTY);
+            }
+            if (_aborted) {
+                break;
+            }
+            _iterationNodes[depth] = nodes() - nodes0;
+            _main._pvMove = _main._lastFoundMove;
+            _lastScore = score;
+            _lastDepth = depth;
+            if (_listener != null) {
+                _listener.run();
+            }
+            if ((_timed && System.nanoTime() >= _softDeadline)
+                || stopRequested()) {
+                break;
+            }
+        }
+        stopHelpers(helpers);
+        if (event.isEnabled()) {
+            _searchEvent = new Events.Search();
+            if (event.shouldCommit()) {
+                event.depth = _lastDepth;
+                event.nodes = nodes();
+                event.score = _lastScore;
+                event.move = String.valueOf(_main._pvMove);
+                event.threads = _threads;
+                event.commit();
+            }
+        }
+        return _main._pvMove;
+    }
+
+    /** Set the soft and hard deadlines for a search of BOARD starting at
+     *  time START (in nanoseconds), according to the --movetime and
+     *  --gametime limits.  With a time per move, we stop deepening after
+     *  half of it, and abandon the search at all of it.  With a time per
+     *  game, we divide the remaining time evenly among an estimate of the
+     *  moves we have left, and allow an iteration to overrun that by up to
+     *  a factor of 3 (but never by more than half the remaining time). */
+    private void setDeadlines(Board board, long start) {
+        long moveTime = Main.moveTime() * 1000000L,
+            gameTime = Main.gameTime() * 1000000L;
+        if (_moveTime >= 0) {
+            moveTime = _moveTime * 1000000L;
+            gameTime = 0;
+        }
+        if (board.numMoves() < _lastMoveNumber) {
+            _timeUsed = 0;
+        }
+        _lastMoveNumber = board.numMoves();
+        _timed = moveTime > 0 || gameTime > 0;
+        long soft, hard;
+        soft = hard = Long.MAX_VALUE / 2;
+        if (moveTime > 0) {
+            soft = moveTime / 2;
+            hard = moveTime;
         }
-        return _lastFoundMove;
+        if (gameTime > 0) {
+            long remaining = max(0, gameTime - _timeUsed);
+            long movesToGo = max(MIN_MOVES_TO_GO, board.numPieces(EMPTY) / 2);
+            long share = remaining / movesToGo;
+            soft = min(soft, share);
+            hard = min(hard, min(3 * share, remaining / 2));
+        }
+        _softDeadline = start + soft;
+        _hardDeadline = start + hard;
     }
 
-    /** The move found by the last call to the findMove method
-     *  above. */
-    private Move _lastFoundMove;
+    /** Limit each search to MILLIS milliseconds (none if 0), in place of
+     *  --movetime and --gametime, and to the depth set by setMaxDepth
+     *  even if timed.  If MILLIS is negative, use --movetime and
+     *  --gametime again, with no depth limit if either is set. */
+    void setMoveTime(long millis) {
+        _moveTime = millis;
+    }
 
+    /** Return the time (in nanoseconds) my searches have used in the
+     *  current game, as counted against --gametime. */
+    long timeUsed() {
+        return _timeUsed;
+    }
 
-    /** CURRTURN and CURRBOARD used for finding all legal moves.
-     * @return ALLMOVES contains all legal moves found. */
-    private ArrayList<Move> legalID(PieceColor currTurn, Board currBoard) {
-        ArrayList<Move> allmoves = new ArrayList<>();
-        for (char row = '1'; row <= '7'; row++) {
-            for (char col = 'a'; col <= 'g'; col++) {
-                if (currBoard.get(col, row) == currTurn) {
-                    for (int vert = -2; vert <= 2; vert++) {
-                        for (int horiz = -2; horiz <= 2; horiz++) {
+    /** Count NANOS nanoseconds as used in the current game, in which my
+     *  last search was of a board with MOVENUMBER moves (see
+     *  Board.numMoves), in place of my own count.  This lets one AI
+     *  search for several games, each keeping its own count. */
+    void setTimeUsed(long nanos, int moveNumber) {
+        _timeUsed = nanos;
+        _lastMoveNumber = moveNumber;
+    }
 
-                            char vertCalc = (char) (col + vert);
-                            char horizCalc = (char) (row + horiz);
+    /** Stop each search once it has visited about NODES nodes (see
+     *  nodes()), or never if NODES is 0. */
+    void setNodeLimit(long nodes) {
+        _nodeLimit = nodes;
+    }
 
-                            if (currBoard.legalMove(Move.move(col, row,
-                                    vertCalc, horizCalc))) {
-                                allmoves.add(Move.move(col, row,
-                                        vertCalc, horizCalc));
-                            }
-                        }
+    /** Record statistics of each search in STATS, or in none if STATS
+     *  is null.  Initially, Main.stats(). */
+    void setStats(SearchStats stats) {
+        _stats = stats;
+    }
+
+    /** Solve positions with at most EMPTIES empty squares exactly, when
+     *  the endgame solver can do so within its node limit (and the soft
+     *  time limit, if any), or never if EMPTIES is 0.  Initially,
+     *  Main.endgame(). */
+    void setEndgame(int empties) {
+        _endgame = empties;
+    }
+
+    /** Return the endgame solver's solution of the position given to the
+     *  last call to findMove, if its move was the solver's, and
+     *  otherwise null. */
+    EndgameSolver.Solution lastSolution() {
+        return _solution;
+    }
+
+    /** Play moves from BOOK, when it has them, rather than searching, or
+     *  never if BOOK is null.  Initially, Main.book(). */
+    void setBook(OpeningBook book) {
+        _book = book;
+    }
+
+    /** Stop searches once STOP (if not null) is true.  Another thread
+     *  may set STOP to end a search in progress early. */
+    void setStopSignal(AtomicBoolean stop) {
+        _stop = stop;
+    }
+
+    /** Call LISTENER (if not null), on the thread calling findMove,
+     *  after each iteration of a search completes.  LISTENER may use
+     *  lastScore, lastDepth, nodes, and principalVariation to report
+     *  progress. */
+    void setIterationListener(Runnable listener) {
+        _listener = listener;
+    }
+
+    /** Return true iff the node limit has been reached or the stop
+     *  signal given. */
+    private boolean stopRequested() {
+        return (_nodeLimit > 0 && nodes() >= _nodeLimit)
+            || (_stop != null && _stop.get());
+    }
+
+    /** Set the search depth used when there is no time limit to
+     *  DEPTH. */
+    void setMaxDepth(int depth) {
+        _maxDepth = min(depth, MAX_TIMED_DEPTH);
+    }
+
+    /** Use the move-ordering heuristics (captures, killers, and history)
+     *  iff ON.  When off, only the transposition-table move is moved to
+     *  the front.  For measurement. */
+    void setOrdering(boolean on) {
+        _ordering = on;
+    }
+
+    /** Store and look up results in the transposition table under the
+     *  canonical keys of positions (see Symmetry), so that positions
+     *  equivalent under symmetry share entries, iff ON.  Initially off:
+     *  canonicalizing the position at every node slows searches more
+     *  than the shared entries speed them, except when searching
+     *  positions along with their images.  For measurement. */
+    void setSymmetry(boolean on) {
+        _symmetry = on;
+    }
+
+    /** Use EVALUATOR to score positions at the leaves of the search. */
+    void setEvaluator(Evaluator evaluator) {
+        _evaluator = evaluator;
+    }
+
+    /** Search with THREADS threads (at least 1).  With one thread, the
+     *  search is sequential and deterministic; with more, the moves at
+     *  the root are divided among them (see splitRoot), or, if
+     *  setLazy(true), they all search the whole tree (see
+     *  startHelpers). */
+    void setThreads(int threads) {
+        threads = max(1, threads);
+        if (threads == _threads) {
+            return;
+        }
+        if (_pool != null) {
+            _pool.shutdown();
+        }
+        _threads = threads;
+        _pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        _helpers = ThreadLocal.withInitial(Searcher::new);
+        _solver = null;
+    }
+
+    /** Use Lazy SMP rather than root splitting when searching with
+     *  several threads iff ON. */
+    void setLazy(boolean on) {
+        _lazy = on;
+    }
+
+    /** Discard everything learned by previous searches (transposition
+     *  table entries, killers, history, and the endgame solver's table),
+     *  so that the next search does not depend on them. */
+    void forget() {
+        _table.clear();
+        if (_solver != null) {
+            _solver.clear();
+        }
+        Arrays.fill(_main._killers, 0);
+        Arrays.fill(_main._history, 0);
+        _helpers = ThreadLocal.withInitial(Searcher::new);
+    }
+
+    /** Return the number of interior nodes visited by the last call to
+     *  findMove. */
+    long nodes() {
+        return _main._nodes + _helperNodes.get();
+    }
+
+    /** Return the value for red found by the deepest iteration completed
+     *  by the last call to findMove (see winningPlies). */
+    int lastScore() {
+        return _lastScore;
+    }
+
+    /** Return the depth of the deepest iteration completed by the last
+     *  call to findMove (0 if none was). */
+    int lastDepth() {
+        return _lastDepth;
+    }
+
+    /** Return the principal variation found by the deepest iteration
+     *  completed by the last call to findMove: its best move, followed by
+     *  the best replies recorded in the transposition table, up to that
+     *  iteration's depth. */
+    List<Move> principalVariation() {
+        ArrayList<Move> pv = new ArrayList<>();
+        if (_root == null || _main._pvMove == null) {
+            return pv;
+        }
+        Board board = new Board(_root);
+        Move move = _main._pvMove;
+        while (move != null && pv.size() < _lastDepth
+               && board.getWinner() == null && board.legalMove(move)) {
+            pv.add(move);
+            board.makeMove(move);
+            int t = tableTransform(board);
+            move = tableMove(board, _table.probe(tableKey(board, t)), t);
+        }
+        return pv;
+    }
+
+    /** Try to solve BOARD with the endgame solver, within the soft time
+     *  limit if there is one.  If it proves a win or draw, or proves the
+     *  exact margin of a loss, record the solution and return its move,
+     *  setting lastScore to the margin for red.  Otherwise, return null,
+     *  leaving the position to the search (which, in a loss, may at
+     *  least find the line hardest for the opponent to win). */
+    private Move solveEndgame(Board board) {
+        if (_solver == null) {
+            _solver = new EndgameSolver(Main.hashSize());
+        }
+        _solver.setStopSignal(_stop);
+        long start = System.nanoTime();
+        EndgameSolver.Solution solution =
+            _solver.solve(board, _timed ? _softDeadline : 0);
+        if (_stats != null) {
+            _stats.addSolve(EndgameSolver.empties(board),
+                            System.nanoTime() - start, solution != null);
+        }
+        if (solution == null
+            || (!solution.exact() && solution.margin() < 0)) {
+            return null;
+        }
+        _solution = solution;
+        _main._pvMove = solution.move();
+        _lastScore = (board.whoseMove() == RED ? 1 : -1) * solution.margin();
+        _lastDepth = 0;
+        return solution.move();
+    }
+
+    /** Return the number of plies until the end of the game if SCORE, the
+     *  value of a search to DEPTH plies, indicates a forced win for red
+     *  (or minus that number for blue), and otherwise 0. */
+    static int winningPlies(int score, int depth) {
+        if (Math.abs(score) < WINNING_VALUE) {
+            return 0;
+        }
+        int plies = max(1, depth - (Math.abs(score) - WINNING_VALUE));
+        return score > 0 ? plies : -plies;
+    }
+
+    /** Return the number of interior nodes visited by the iteration at
+     *  DEPTH in the last call to findMove, or 0 if there was none. */
+    long iterationNodes(int depth) {
+        return _iterationNodes[depth];
+    }
+
+    /** Search depth limit when there is no time limit. */
+    private int _maxDepth;
+
+    /** Time limit per search in milliseconds (0 for none), or -1 to use
+     *  --movetime and --gametime. */
+    private long _moveTime = -1;
+
+    /** Limit on nodes per search, or 0 for none. */
+    private long _nodeLimit;
+
+    /** When set, stops searches (see setStopSignal), or null. */
+    private AtomicBoolean _stop;
+
+    /** Called after each iteration (see setIterationListener), or
+     *  null. */
+    private Runnable _listener;
+
+    /** The position searched by the last call to findMove. */
+    private Board _root;
+
+    /** Value and depth of the last completed iteration of the last
+     *  search. */
+    private int _lastScore, _lastDepth;
+
+    /** Nodes visited by each iteration of the last search, indexed by
+     *  depth. */
+    private final long[] _iterationNodes = new long[MAX_TIMED_DEPTH + 1];
+
+    /** Where to record statistics of each search, or null. */
+    private SearchStats _stats;
+
+    /** The event for the next search, reused while events are disabled
+     *  so that searches allocate none. */
+    private Events.Search _searchEvent = new Events.Search();
+
+    /** Opening book consulted before searching, or null. */
+    private OpeningBook _book;
+
+    /** Largest number of empty squares at which to use the endgame
+     *  solver, or 0. */
+    private int _endgame;
+
+    /** The endgame solver, created when first needed. */
+    private EndgameSolver _solver;
+
+    /** The endgame solver's solution used by the last findMove, or
+     *  null. */
+    private EndgameSolver.Solution _solution;
+
+    /** Counts for the current search, indexed by SearchStats.LEAVES,
+     *  etc., gathered from the Searchers by flushCounts. */
+    private final long[] _counts = new long[SearchStats.COUNTERS];
+
+    /** True iff the current search has a time limit. */
+    private boolean _timed;
+
+    /** Times (from System.nanoTime) at which the current search should
+     *  stop deepening, and at which it must stop. */
+    private long _softDeadline, _hardDeadline;
+
+    /** True iff the current iteration may be abandoned when out of
+     *  time. */
+    private boolean _canAbort;
+
+    /** True iff the current iteration ran out of time.  Set by whichever
+     *  thread notices first. */
+    private volatile boolean _aborted;
+
+
+    /** Total search time (nanoseconds) used so far in this game. */
+    private long _timeUsed;
+
+    /** Value of numMoves() for the board at my last search; used to
+     *  detect the start of a new game. */
+    private int _lastMoveNumber;
+
+
+    /** Start splitting the root among threads at this depth. */
+    private static final int MIN_SPLIT_DEPTH = 3;
+
+    /** Search BOARD to DEPTH, as for minMax at the root, dividing the
+     *  work among the threads of _pool.  The first move (the best of the
+     *  previous iteration) is searched by this thread with a full window,
+     *  to establish a bound (the "eldest brother" of Young Brothers Wait);
+     *  then each remaining root move is searched by a task on _pool, on a
+     *  copy of BOARD.  The best score found so far is shared among the
+     *  tasks, so that each starts with the tightest bound known to any,
+     *  and narrows its window as better bounds are found while it runs
+     *  (see Searcher._sharedBound).  Returns the value of BOARD, which
+     *  is meaningless if the search is aborted. */
+    private int splitRoot(Board board, int depth, int sense) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(board, moves, 0);
+        if (n <= 1) {
+            return _main.search(board, depth, true, sense, -INFTY, INFTY);
+        }
+        int t = tableTransform(board);
+        long key = tableKey(board, t);
+        Move hashMove = _main._pvMove;
+        if (hashMove == null) {
+            hashMove = tableMove(board, _table.probe(key), t);
+        }
+        _main._iterationDepth = depth;
+        _main.orderMoves(board, moves, new int[n], n, hashMove, 0);
+
+        Move first = Move.fromCode(moves[0]);
+        board.makeMove(first);
+        int score = _main.search(board, depth - 1, depth, false, -sense,
+                                 -INFTY, INFTY);
+        board.undo();
+        if (_aborted) {
+            return 0;
+        }
+        _rootBound = sense * score;
+        _rootBest = first;
+
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for (int code : Arrays.copyOfRange(moves, 1, n)) {
+            tasks.add(() -> {
+                searchRootMove(board, Move.fromCode(code), depth, sense);
+                return null;
+            });
+        }
+        _pool.invokeAll(tasks);
+        if (_aborted) {
+            return 0;
+        }
+        _main._lastFoundMove = _rootBest;
+        store(key, t, depth, TranspositionTable.EXACT, sense * _rootBound,
+              _rootBest);
+        return sense * _rootBound;
+    }
+
+    /** Search MOVE at the root of ROOT, whose value for the player to
+     *  move is SENSE times the value for red, to DEPTH, using the
+     *  calling thread's Searcher and a copy of ROOT.  Record the result in
+     *  _rootBound and _rootBest if it is the best so far. */
+    private void searchRootMove(Board root, Move move, int depth,
+                                int sense) {
+        if (_aborted) {
+            return;
+        }
+        Searcher searcher = _helpers.get();
+        Board board = new Board(root);
+        board.makeMove(move);
+        int bound = rootBound();
+        long nodes0 = searcher._nodes;
+        searcher._splitSense = sense;
+        searcher._sharedBound = bound;
+        int score = sense == 1
+            ? searcher.search(board, depth - 1, depth, false, -1,
+                              bound, INFTY)
+            : searcher.search(board, depth - 1, depth, false, 1,
+                              -INFTY, -bound);
+        searcher._splitSense = 0;
+        _helperNodes.addAndGet(searcher._nodes - nodes0);
+        searcher.flushCounts();
+        if (!searcher._stopped) {
+            offerRootMove(move, sense * score);
+        }
+    }
+
+    /** If searching with several threads in Lazy SMP mode, start the
+     *  helper threads searching BOARD by iterative deepening to at most
+     *  MAXDEPTH, and return their tasks (otherwise an empty list).  Each
+     *  helper has its own copy of BOARD and its own Searcher.  The helpers'
+     *  results are not used directly: they help by filling the shared
+     *  transposition table, whose entries then guide and cut off the main
+     *  search.  To keep the helpers from all searching the same nodes in
+     *  the same order, every other one starts a ply deeper. */
+    private ArrayList<ForkJoinTask<?>> startHelpers(Board board,
+                                                     int maxDepth) {
+        ArrayList<ForkJoinTask<?>> result = new ArrayList<>();
+        _helpersDone = false;
+        if (_pool == null || !_lazy) {
+            return result;
+        }
+        int sense = board.whoseMove() == RED ? 1 : -1;
+        for (int id = 1; id < _threads; id += 1) {
+            int firstDepth = 1 + id % 2;
+            result.add(_pool.submit(() -> {
+                Searcher searcher = _helpers.get();
+                Board b = new Board(board);
+                searcher._helper = true;
+                searcher._pvMove = null;
+                searcher._nodes = 0;
+                searcher.ageHistory();
+                for (int depth = firstDepth; depth <= maxDepth;
+                     depth += 1) {
+                    searcher.search(b, depth, true, sense, -INFTY, INFTY);
+                    if (searcher._stopped) {
+                        break;
                     }
+                    searcher._pvMove = searcher._lastFoundMove;
                 }
-            }
+                searcher._helper = false;
+                _helperNodes.addAndGet(searcher._nodes);
+                searcher.flushCounts();
+            }));
         }
+        return result;
+    }
+
+    /** Stop the helper threads running HELPERS (from startHelpers) and
+     *  wait for them to finish. */
+    private void stopHelpers(ArrayList<ForkJoinTask<?>> helpers) {
+        _helpersDone = true;
+        for (ForkJoinTask<?> helper : helpers) {
+            helper.join();
+        }
+    }
 
-        return allmoves;
+    /** Return _rootBound. */
+    private synchronized int rootBound() {
+        return _rootBound;
+    }
+
+    /** Record that MOVE has value SCORE for the player to move at the
+     *  root, if that is better than any found so far. */
+    private synchronized void offerRootMove(Move move, int score) {
+        if (score > _rootBound) {
+            _rootBound = score;
+            _rootBest = move;
+        }
     }
 
-    /** Find a move from position BOARD and return its value, recording
-     *  the move found in _foundMove iff SAVEMOVE. The move
-     *  should have maximal value or have value > BETA if SENSE==1,
-     *  and minimal value or value < ALPHA if SENSE==-1. Searches up to
-     *  DEPTH levels.  Searching at level 0 simply returns a static estimate
-     *  of the board value and does not set _foundMove. If the game is over
-     *  on BOARD, does not set _foundMove. */
-    private int minMax(Board board, int depth, boolean saveMove, int sense,
-                       int alpha, int beta) {
-        if (depth == 0 || board.getWinner() != null) {
-            return staticScore(board, WINNING_VALUE + depth);
+    /** The state of one thread's search: its move buffers, move-ordering
+     *  heuristics, node count, and current iteration.  The transposition
+     *  table, deadlines, and abort flag are shared by all threads. */
+    private class Searcher {
+
+        /** Search BOARD as for minMax(BOARD, DEPTH, SAVEMOVE, SENSE,
+         *  ALPHA, BETA), in an iteration of depth DEPTH.  If the search
+         *  is stopped (see shouldStop), sets _stopped and returns a
+         *  meaningless value. */
+        int search(Board board, int depth, boolean saveMove, int sense,
+                   int alpha, int beta) {
+            return search(board, depth, depth, saveMove, sense,
+                          alpha, beta);
+        }
+
+        /** Search BOARD as for minMax(BOARD, DEPTH, SAVEMOVE, SENSE,
+         *  ALPHA, BETA), where BOARD is ITERATIONDEPTH - DEPTH plies from
+         *  the root of an iteration of depth ITERATIONDEPTH.  If the search
+         *  is stopped (see shouldStop), sets _stopped and returns a
+         *  meaningless value. */
+        int search(Board board, int depth, int iterationDepth,
+                   boolean saveMove, int sense, int alpha, int beta) {
+            _iterationDepth = iterationDepth;
+            _stopped = false;
+            return minMax(board, depth, saveMove, sense, alpha, beta);
         }
-        Move best;
-        best = null;
-        int bestScore = (sense == 1) ? -INFTY : INFTY;
-        if (sense == 1) {
-            ArrayList<Move> legalMovesTotal = legalID(board.whoseMove(), board);
-            if (legalMovesTotal.size() == 0) {
-                best = Move.PASS;
-                Move passMade = Move.PASS;
-                legalMovesTotal.add(passMade);
+
+        /** Return true iff this search should stop: because another
+         *  thread has aborted the search, because the hard deadline has
+         *  passed, the node limit been reached, or the stop signal given
+         *  (in which case set _aborted), or, for a Lazy SMP helper,
+         *  because the main search has finished. */
+        private boolean shouldStop() {
+            if (_aborted || (_helper && _helpersDone)) {
+                return true;
+            } else if (!_helper && _canAbort
+                       && (System.nanoTime() >= _hardDeadline
+                           || stopRequested())) {
+                _aborted = true;
+                return true;
             }
-            for (Move currMove: legalMovesTotal) {
-                board.makeMove(currMove);
-                int response = minMax(board, depth - 1, false,
-                        -1 * sense, alpha, beta);
-                board.undo();
-                if (response > bestScore) {
-                    best = currMove;
-                    bestScore = response;
-                    alpha = max(alpha, bestScore);
-                    if (alpha >= beta) {
+            return false;
+        }
+
+        /** Order the N move codes in MOVES, which are the legal moves
+         *  in BOARD at PLY plies from the root, from most to least
+         *  promising.  HASHMOVE (if not null) comes first, then moves that
+         *  capture, most captures first and extends before jumps, then the
+         *  killer moves for PLY, then non-capturing extends and then
+         *  jumps, each ordered by their history scores.  SCORES is
+         *  scratch space for N values. */
+        private void orderMoves(Board board, int[] moves, int[] scores,
+                                int n, Move hashMove, int ply) {
+            int hashCode = hashMove == null ? -1 : hashMove.code();
+            for (int i = 0; i < n; i += 1) {
+                int code = moves[i];
+                int score;
+                if (code == hashCode) {
+                    score = HASH_SCORE;
+                } else if (!_ordering) {
+                    score = 0;
+                } else {
+                    int extend = Move.fromCode(code).isExtend() ? 1 : 0;
+                    int captures = MoveGenerator.captures(board, code);
+                    if (captures > 0) {
+                        score = CAPTURE_SCORE
+                            + ((2 * captures + extend) << 8);
+                    } else if (code == _killers[2 * ply]) {
+                        score = KILLER_SCORE;
+                    } else if (code == _killers[2 * ply + 1]) {
+                        score = KILLER_SCORE - 1;
+                    } else {
+                        score = extend * QUIET_EXTEND_SCORE
+                            + _history[code];
+                    }
+                }
+                int j;
+                for (j = i; j > 0 && scores[j - 1] < score; j -= 1) {
+                    scores[j] = scores[j - 1];
+                    moves[j] = moves[j - 1];
+                }
+                scores[j] = score;
+                moves[j] = code;
+            }
+        }
+
+        /** Record that MOVE caused a cutoff on BOARD in a search to
+         *  DEPTH at PLY plies from the root.  Non-capturing moves become
+         *  killers for PLY and gain history score. */
+        private void recordCutoff(Board board, Move move, int depth,
+                                  int ply) {
+            if (move.isPass()
+                || MoveGenerator.captures(board, move.code()) > 0) {
+                return;
+            }
+            int code = move.code();
+            if (_killers[2 * ply] != code) {
+                _killers[2 * ply + 1] = _killers[2 * ply];
+                _killers[2 * ply] = code;
+            }
+            _history[code] += depth * depth;
+            if (_history[code] >= MAX_HISTORY) {
+                ageHistory();
+            }
+        }
+
+        /** Add my search statistics since the last call to the
+         *  counts for the current search, and clear them. */
+        private void flushCounts() {
+            synchronized (_counts) {
+                _counts[SearchStats.LEAVES] += _leaves;
+                _counts[SearchStats.CUTOFFS] += _cutoffs;
+                _counts[SearchStats.FIRST_CUTOFFS] += _firstCutoffs;
+                _counts[SearchStats.PROBES] += _probes;
+                _counts[SearchStats.HITS] += _hits;
+            }
+            _leaves = _cutoffs = _firstCutoffs = _probes = _hits = 0;
+        }
+
+        /** Halve all history scores, so that recent searches count
+         *  most. */
+        private void ageHistory() {
+            for (int i = 0; i < _history.length; i += 1) {
+                _history[i] >>= 1;
+            }
+        }
+
+        /** Find a move from position BOARD and return its value,
+         *  recording the move found in _lastFoundMove iff SAVEMOVE. The
+         *  move should have maximal value or have value > BETA if
+         *  SENSE==1, and minimal value or value < ALPHA if SENSE==-1.
+         *  Searches up to DEPTH levels.  Searching at level 0 simply
+         *  returns a static estimate of the board value and does not set
+         *  _lastFoundMove. If the game is over on BOARD, does not set
+         *  _lastFoundMove.
+         *
+         *  Results are recorded in and retrieved from the transposition
+         *  table.  A stored result for a search at least DEPTH deep
+         *  narrows the window, or settles the value outright, except at
+         *  the root (when SAVEMOVE), where we must still find a move.  A
+         *  stored best move is always searched first; at the root, the
+         *  best move of the previous iteration is.
+         *
+         *  If the search is to stop (see shouldStop), sets _stopped and
+         *  returns immediately, leaving the value returned and
+         *  _lastFoundMove meaningless. */
+        private int minMax(Board board, int depth, boolean saveMove,
+                           int sense, int alpha, int beta) {
+            if (depth == 0 || board.getWinner() != null) {
+                _leaves += 1;
+                return staticScore(board, WINNING_VALUE + depth);
+            }
+            _nodes += 1;
+            if (_nodes % CLOCK_CHECK_INTERVAL == 0) {
+                if (shouldStop()) {
+                    _stopped = true;
+                    return 0;
+                }
+                if (_splitSense != 0) {
+                    _sharedBound = rootBound();
+                }
+            }
+            int t = tableTransform(board);
+            long key = tableKey(board, t);
+            long entry = _table.probe(key);
+            Move hashMove = saveMove ? _pvMove : null;
+            _probes += 1;
+            if (entry != TranspositionTable.NONE) {
+                _hits += 1;
+                if (hashMove == null) {
+                    hashMove = tableMove(board, entry, t);
+                }
+                if (!saveMove && TranspositionTable.depth(entry) >= depth) {
+                    int score = tableScore(entry, t);
+                    switch (tableBound(entry, t)) {
+                    case TranspositionTable.EXACT:
+                        return score;
+                    case TranspositionTable.LOWER:
+                        alpha = max(alpha, score);
                         break;
+                    default:
+                        beta = min(beta, score);
+                        break;
+                    }
+                    if (alpha >= beta) {
+                        return score;
                     }
                 }
             }
-            if (saveMove) {
-                _lastFoundMove = best;
+            int alpha0 = alpha, beta0 = beta;
+            int ply = _iterationDepth - depth;
+
+            int[] moves = _moves[ply];
+            int n = MoveGenerator.generate(board, moves, 0);
+            if (n == 0) {
+                moves[0] = Move.PASS.code();
+                n = 1;
+            } else {
+                orderMoves(board, moves, _scores[ply], n, hashMove, ply);
             }
-            return bestScore;
-        } else {
-            ArrayList<Move> legalMovesTotalOpp = legalID(board.whoseMove(),
-                    board);
-            if (legalMovesTotalOpp.size() == 0) {
-                best = Move.PASS;
-                Move passMade = Move.PASS;
-                legalMovesTotalOpp.add(passMade);
-            }
-            for (Move move: legalMovesTotalOpp) {
-                board.makeMove(move);
-                int responseAlt = minMax(board, depth - 1, false,
+            Move best = null;
+            int bestScore = (sense == 1) ? -INFTY : INFTY;
+            for (int i = 0; i < n; i += 1) {
+                if (_splitSense == 1) {
+                    int floor = min(_sharedBound, beta - 1);
+                    alpha = max(alpha, floor);
+                    alpha0 = max(alpha0, floor);
+                } else if (_splitSense == -1) {
+                    int ceiling = max(-_sharedBound, alpha + 1);
+                    beta = min(beta, ceiling);
+                    beta0 = min(beta0, ceiling);
+                }
+                Move currMove = Move.fromCode(moves[i]);
+                board.makeMove(currMove);
+                int response = minMax(board, depth - 1, false,
                         -1 * sense, alpha, beta);
                 board.undo();
-                if (responseAlt < bestScore) {
-                    best = move;
-                    bestScore = responseAlt;
-                    beta = min(beta, bestScore);
+                if (_stopped) {
+                    return 0;
+                }
+                if (sense * response > sense * bestScore) {
+                    best = currMove;
+                    bestScore = response;
+                    if (sense == 1) {
+                        alpha = max(alpha, bestScore);
+                    } else {
+                        beta = min(beta, bestScore);
+                    }
                     if (alpha >= beta) {
+                        _cutoffs += 1;
+                        if (i == 0) {
+                            _firstCutoffs += 1;
+                        }
+                        recordCutoff(board, best, depth, ply);
                         break;
                     }
                 }
@@ -161,13 +931,76 @@ class AI extends Player {
             if (saveMove) {
                 _lastFoundMove = best;
             }
+
+            int bound = bestScore <= alpha0 ? TranspositionTable.UPPER
+                : bestScore >= beta0 ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+            store(key, t, depth, bound, bestScore, best);
             return bestScore;
         }
-    }
 
+        /** Number of nodes visited by this Searcher in the current
+         *  search. */
+        private long _nodes;
+
+        /** Positions statically evaluated, nodes at which there was a
+         *  beta cutoff (on the first move searched), and transposition
+         *  table probes (that found an entry), since the last call to
+         *  flushCounts. */
+        private long _leaves, _cutoffs, _firstCutoffs, _probes, _hits;
+
+        /** Depth of the current iteration. */
+        private int _iterationDepth;
+
+        /** The best move found at the root by the last completed
+         *  iteration, or null. */
+        private Move _pvMove;
+
+        /** The move found at the root by the current iteration. */
+        private Move _lastFoundMove;
+
+        /** True iff the current search was stopped before finishing. */
+        private boolean _stopped;
+
+        /** True iff this Searcher is a Lazy SMP helper. */
+        private boolean _helper;
+
+        /** While this Searcher is searching a root move for splitRoot,
+         *  the sense of the root (1 if red is to move there, -1 if blue),
+         *  and otherwise 0. */
+        private int _splitSense;
+
+        /** While _splitSense is not 0, the value of rootBound() when last
+         *  read.  It is read again each time the abort flag and clock are
+         *  checked, and narrows the window of each node before each of
+         *  its moves is searched, so that a better root move found by
+         *  another thread prunes searches already under way.  The window
+         *  is never narrowed to nothing, and the bound of the node's own
+         *  window (ALPHA0 or BETA0 in minMax) is narrowed with it, so that
+         *  results stored in the transposition table remain correct. */
+        private int _sharedBound;
+
+        /** Codes of the two most recent non-capturing moves to cause a
+         *  cutoff at each ply: _killers[2 * PLY] and
+         *  _killers[2 * PLY + 1]. */
+        private final int[] _killers = new int[2 * (MAX_TIMED_DEPTH + 1)];
+
+        /** History scores, indexed by move code: the sum of the squared
+         *  depths of the searches in which each move caused a cutoff. */
+        private final int[] _history = new int[Move.MAX_CODE];
+
+        /** Move buffers for each ply of the search: the codes of the
+         *  moves being searched at ply K are in _moves[K]. */
+        private final int[][] _moves =
+            new int[MAX_TIMED_DEPTH + 1][MoveGenerator.MAX_MOVES];
+
+        /** Move-ordering scores corresponding to _moves. */
+        private final int[][] _scores =
+            new int[MAX_TIMED_DEPTH + 1][MoveGenerator.MAX_MOVES];
+    }
 
     /** Return a heuristic value for BOARD.  This value is +- WINNINGVALUE in
-     *  won positions, and 0 for ties. */
+     *  won positions, 0 for ties, and otherwise given by _evaluator. */
     private int staticScore(Board board, int winningValue) {
         PieceColor winner = board.getWinner();
         if (winner != null) {
@@ -178,10 +1011,130 @@ class AI extends Player {
             };
         }
 
-        return board.redPieces() - board.bluePieces();
+        return _evaluator.score(board);
+
+    }
 
+    /** Return the transform (see Symmetry) taking BOARD to the image
+     *  under whose key its results are kept in the transposition table:
+     *  its canonical image if _symmetry, and otherwise BOARD itself. */
+    private int tableTransform(Board board) {
+        return _symmetry ? Symmetry.transform(board) : Symmetry.IDENTITY;
+    }
+
+    /** Return the transposition-table key of BOARD, whose
+     *  tableTransform is T. */
+    private static long tableKey(Board board, int t) {
+        return t == Symmetry.IDENTITY ? board.zobristKey()
+            : Symmetry.key(board, t);
+    }
+
+    /** Return the best move of the transposition-table entry ENTRY for
+     *  BOARD, whose tableTransform is T, or null if there is none.  The
+     *  stored move, made in the image of BOARD, is mapped back to BOARD;
+     *  an extend is replaced by the one MoveGenerator produces for the
+     *  same square, so that it is recognized when ordering moves. */
+    private static Move tableMove(Board board, long entry, int t) {
+        if (entry == TranspositionTable.NONE
+            || TranspositionTable.move(entry) == TranspositionTable.NO_MOVE) {
+            return null;
+        }
+        Move move = Move.fromCode(Symmetry.move(Symmetry.inverse(t),
+                                                TranspositionTable
+                                                .move(entry)));
+        if (move == null || !move.isExtend()) {
+            return move;
+        }
+        for (int from : MoveGenerator.ADJACENT[move.toIndex()]) {
+            if (board.get(from) == board.whoseMove()) {
+                return Move.fromCode(MoveGenerator.code(from,
+                                                        move.toIndex()));
+            }
+        }
+        return move;
+    }
+
+    /** Return the score of the transposition-table entry ENTRY for a
+     *  position whose tableTransform is T, for red in that position.
+     *  Scores are stored for red in the image, which is blue in the
+     *  position if T swaps colors. */
+    private static int tableScore(long entry, int t) {
+        int score = TranspositionTable.score(entry);
+        return (t & Symmetry.SWAP_COLORS) != 0 ? -score : score;
+    }
+
+    /** Return the kind of bound of the score of the transposition-table
+     *  entry ENTRY for a position whose tableTransform is T (see
+     *  tableScore). */
+    private static int tableBound(long entry, int t) {
+        return swapBound(TranspositionTable.bound(entry), t);
+    }
+
+    /** Return the kind of bound BOUND becomes when scores are negated,
+     *  if transform T swaps colors, and otherwise BOUND. */
+    private static int swapBound(int bound, int t) {
+        if ((t & Symmetry.SWAP_COLORS) == 0) {
+            return bound;
+        }
+        return bound == TranspositionTable.LOWER ? TranspositionTable.UPPER
+            : bound == TranspositionTable.UPPER ? TranspositionTable.LOWER
+            : bound;
+    }
+
+    /** Record in the transposition table under KEY that a search to
+     *  DEPTH of a position whose tableTransform is T found BEST, with
+     *  SCORE for red, a bound of kind BOUND. */
+    private void store(long key, int t, int depth, int bound, int score,
+                       Move best) {
+        boolean swap = (t & Symmetry.SWAP_COLORS) != 0;
+        _table.store(key, depth, swapBound(bound, t), swap ? -score : score,
+                     Symmetry.move(t, best.code()));
     }
 
     /** Pseudo-random number generator for move computation. */
     private Random _random = new Random();
+
+    /** Results of previous searches, retained across moves. */
+    private final TranspositionTable _table;
+
+    /** True iff the move-ordering heuristics are in use. */
+    private boolean _ordering;
+
+    /** True iff transposition-table results are shared among positions
+     *  equivalent under symmetry. */
+    private boolean _symmetry;
+
+    /** Static evaluation function for unfinished positions. */
+    private Evaluator _evaluator;
+
+    /** Searcher used by the thread calling findMove. */
+    private final Searcher _main;
+
+    /** Number of search threads. */
+    private int _threads;
+
+    /** Pool of threads for the parallel search, or null if there is
+     *  only one thread. */
+    private ForkJoinPool _pool;
+
+    /** True iff several threads search in Lazy SMP mode rather than by
+     *  root splitting. */
+    private boolean _lazy;
+
+    /** Searchers used by the threads of _pool, one per thread. */
+    private ThreadLocal<Searcher> _helpers;
+
+    /** True when the main search has finished and Lazy SMP helpers
+     *  should stop. */
+    private volatile boolean _helpersDone;
+
+    /** Nodes visited in the current search by _helpers. */
+    private final AtomicLong _helperNodes = new AtomicLong();
+
+    /** While splitRoot is searching, the best value found so far for the
+     *  player to move at the root. */
+    private int _rootBound;
+
+    /** While splitRoot is searching, the move with value _rootBound. */
+    private Move _rootBest;
 }
@@ -0,0 +1,241 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import static ataxx.GameException.error;
+import static ataxx.PieceColor.*;
+
+/** Batch analysis of positions read from a file (Main's --analyze mode).
+ *  Each position is searched by an AI on one of a pool of worker
+ *  threads, and a result is written for each, in input order, as one
+ *  line of JSON.
+ *
+ *  Positions may be given in any of three forms:
+ *  <ul>
+ *  <li> a board string, as produced by Board.boardString and accepted by
+ *       Board.setup, on one line;
+ *  <li> a board as printed by Board.toString (with or without legend):
+ *       seven lines of squares, from row 7 down to row 1, red to move.
+ *       Lines of "===" (as printed by the dump command) are ignored;
+ *  <li> a line of squares at which to place blocks followed by moves from
+ *       the initial position, separated by blanks, such as
+ *       "c3 a7-b6 g7-f5 -", where "-" is a pass.
+ *  </ul>
+ *  Blank lines and lines starting with "#" are ignored.
+ *
+ *  Each search starts afresh, so that the results do not depend on
+ *  which worker analyzed which positions.
+ *
+ *  Input is read only as fast as results are written: at most a fixed
+ *  number of positions are read but not yet reported, so that memory use
+ *  does not depend on the size of the input.
+ *  @author Katrina Sharonin
+ */
+class Analyzer {
+
+    /** An Analyzer that uses WORKERS threads, searching each position to
+     *  DEPTH plies (or, if DEPTH is 0, as long as the AI's time limits
+     *  allow), and that keeps at most WINDOW positions in progress. */
+    Analyzer(int workers, int depth, int window) {
+        _workers = Math.max(1, workers);
+        _depth = depth;
+        _window = Math.max(_workers, window);
+        _players = ThreadLocal.withInitial(() -> {
+            AI ai = new AI(null, RED, 0);
+            ai.setBook(null);
+            if (_depth > 0) {
+                ai.setMaxDepth(_depth);
+            }
+            return ai;
+        });
+    }
+
+    /** Analyze each position from INPUT, writing the results to OUTPUT.
+     *  Results of unreadable or illegal positions report the error. */
+    void analyze(BufferedReader input, PrintWriter output)
+        throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(_workers);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        try {
+            List<String> rows = new ArrayList<>();
+            int id, lineNum, startLine;
+            id = lineNum = startLine = 0;
+            for (String line = input.readLine(); line != null;
+                 line = input.readLine()) {
+                lineNum += 1;
+                String text = line.trim();
+                if (text.isEmpty() || text.startsWith("#")
+                    || text.startsWith("===")
+                    || LEGEND.matcher(text).matches()) {
+                    continue;
+                }
+                String record;
+                if (ROW.matcher(text).matches()) {
+                    if (rows.isEmpty()) {
+                        startLine = lineNum;
+                    }
+                    rows.add(text.replaceFirst("^[1-7]\\s", "")
+                             .replaceAll("\\s", ""));
+                    if (rows.size() < Board.SIDE) {
+                        continue;
+                    }
+                    record = String.join("/", rows);
+                    rows.clear();
+                } else {
+                    startLine = lineNum;
+                    record = text;
+                }
+                int recordId = id, recordLine = startLine;
+                pending.add(pool.submit(() -> analyze(recordId, recordLine,
+                                                      record)));
+                id += 1;
+                while (pending.size() >= _window) {
+                    output.println(result(pending.remove()));
+                    output.flush();
+                }
+            }
+            if (!rows.isEmpty()) {
+                int recordId = id, recordLine = startLine;
+                pending.add(pool.submit(
+                    () -> errorRecord(recordId, recordLine,
+                                      "incomplete board")));
+            }
+            while (!pending.isEmpty()) {
+                output.println(result(pending.remove()));
+            }
+            output.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Return the result computed by RESULT, waiting for it if
+     *  needed. */
+    private static String result(Future<String> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException | ExecutionException excp) {
+            throw new Error("analysis failed", excp);
+        }
+    }
+
+    /** Return the result for position number ID, starting on line LINE
+     *  of the input, described by RECORD. */
+    private String analyze(int id, int line, String record) {
+        Board board;
+        try {
+            board = parse(record);
+        } catch (GameException excp) {
+            return errorRecord(id, line, excp.getMessage());
+        }
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("{\"id\":%d,\"line\":%d,\"position\":%s",
+                                 id, line, quote(board.boardString())));
+        PieceColor winner = board.getWinner();
+        if (winner != null) {
+            out.append(String.format(",\"result\":\"%s\"}",
+                                     winner == EMPTY ? "draw"
+                                     : winner.toString().toLowerCase()));
+        } else if (!board.canMove(board.whoseMove())) {
+            out.append(",\"bestmove\":\"-\"}");
+        } else {
+            AI ai = _players.get();
+            ai.forget();
+            long start = System.nanoTime();
+            Move move = ai.findMove(board);
+            int sense = board.whoseMove() == RED ? 1 : -1;
+            int score = sense * ai.lastScore();
+            int win = AI.winningPlies(score, ai.lastDepth());
+            out.append(String.format(",\"bestmove\":\"%s\",%s,\"depth\":%d,"
+                                     + "\"nodes\":%d,\"msec\":%d}", move,
+                                     win != 0 ? "\"win\":" + win
+                                     : "\"score\":" + score,
+                                     ai.lastDepth(), ai.nodes(),
+                                     (System.nanoTime() - start) / 1000000));
+        }
+        return out.toString();
+    }
+
+    /** Return a result for position number ID, starting on line LINE,
+     *  reporting the error MESSAGE. */
+    private static String errorRecord(int id, int line, String message) {
+        return String.format("{\"id\":%d,\"line\":%d,\"error\":%s}", id,
+                             line, quote(message));
+    }
+
+    /** Return the position described by RECORD, a board string or a
+     *  sequence of blocks and moves.  Throws a GameException if it is
+     *  malformed or contains illegal moves. */
+    static Board parse(String record) {
+        Board board = new Board();
+        if (record.contains("/")) {
+            board.setup(record);
+            return board;
+        }
+        for (String token : record.split("\\s+")) {
+            if (token.matches("[a-g][1-7]")) {
+                if (!board.legalBlock(token)) {
+                    throw error("illegal block: %s", token);
+                }
+                board.setBlock(token);
+            } else if (token.matches("-|[a-g][1-7]-[a-g][1-7]")) {
+                Move move = Move.move(token);
+                if (board.getWinner() != null || !board.legalMove(move)) {
+                    throw error("illegal move: %s", token);
+                }
+                board.makeMove(move);
+            } else {
+                throw error("unrecognized position: %s", record);
+            }
+        }
+        return board;
+    }
+
+    /** Return S as a JSON string literal. */
+    static String quote(String s) {
+        StringBuilder out = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < ' ') {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    /** A line of a board as printed by Board.toString. */
+    private static final Pattern ROW =
+        Pattern.compile("([1-7]\\s+)?[rbxX-](\\s+[rbxX-]){6}");
+
+    /** The column legend printed by Board.toString(true). */
+    private static final Pattern LEGEND = Pattern.compile("a b c d e f g");
+
+    /** Number of worker threads. */
+    private final int _workers;
+
+    /** Search depth, or 0 to use the AI's time limits. */
+    private final int _depth;
+
+    /** Maximum number of positions read but not yet reported. */
+    private final int _window;
+
+    /** The AI used by each worker thread. */
+    private final ThreadLocal<AI> _players;
+}
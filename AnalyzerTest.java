@@ -0,0 +1,125 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of the Analyzer class.
+ *  @author Katrina Sharonin
+ */
+public class AnalyzerTest {
+
+    /** Return the lines output by an Analyzer with WORKERS workers
+     *  searching DEPTH plies on INPUT. */
+    private static String[] analyze(int workers, int depth, String input)
+        throws IOException {
+        StringWriter output = new StringWriter();
+        new Analyzer(workers, depth, 2 * workers)
+            .analyze(new BufferedReader(new StringReader(input)),
+                     new PrintWriter(output));
+        return output.toString().split("\n");
+    }
+
+    @Test
+    public void testFormats() throws IOException {
+        String[] results =
+            analyze(1, 2, String.join("\n",
+                                      "# Comment",
+                                      "r5b/7/7/7/7/7/b5r b",
+                                      "",
+                                      "  7  r - - - - - b",
+                                      "  6  - - - - - - -",
+                                      "  5  - - X - X - -",
+                                      "  4  - - - - - - -",
+                                      "  3  - - X - X - -",
+                                      "  2  - - - - - - -",
+                                      "  1  b - - - - - r",
+                                      "     a b c d e f g",
+                                      "c3 a7-b6 g7-f5",
+                                      "r6/7/7/7/7/5b1/6r r",
+                                      "rrrrrrr/rrrrrrr/rrrrrrr/rrrrrrr/"
+                                      + "rrrrrrr/rrrrrrr/rrrrrrb b",
+                                      "a7-b6 a7-a5",
+                                      "7/7"));
+        assertEquals("wrong number of results", 7, results.length);
+        assertTrue(results[0].startsWith("{\"id\":0,\"line\":2,"
+                                         + "\"position\":"
+                                         + "\"r5b/7/7/7/7/7/b5r b\","
+                                         + "\"bestmove\":"));
+        assertTrue(results[1].startsWith("{\"id\":1,\"line\":4,"
+                                         + "\"position\":"
+                                         + "\"r5b/7/2X1X2/7/2X1X2/7/b5r r\""));
+        assertTrue(results[2].startsWith("{\"id\":2,\"line\":12,"
+                                         + "\"position\":"
+                                         + "\"r6/1r5/2X1Xb1/7/2X1X2/7/"
+                                         + "b5r r\""));
+        assertTrue("missed win", results[3].contains("\"bestmove\":\"g1-f1\","
+                                                     + "\"win\":1,"));
+        assertTrue("wrong result", results[4].endsWith("\"result\":\"red\"}"));
+        assertEquals("{\"id\":5,\"line\":15,"
+                     + "\"error\":\"illegal move: a7-a5\"}", results[5]);
+        assertTrue("no error", results[6].contains("\"error\":"));
+    }
+
+    @Test
+    public void testPass() throws IOException {
+        String[] results = analyze(1, 2, "brr4/rrr4/rrr4/7/7/7/7 r\n"
+                                   + "brr4/rrr4/rrr4/7/7/7/7 b\n");
+        assertTrue("no move", results[0].matches(".*\"bestmove\":\"[a-g]"
+                                                 + "[1-7]-.*"));
+        assertTrue("no pass", results[1].endsWith("\"bestmove\":\"-\"}"));
+    }
+
+    @Test
+    public void testOrderAndWindow() throws IOException {
+        StringBuilder input = new StringBuilder();
+        String[] moves = { "a7-b7", "a7-b6", "a7-c5", "a7-c7", "g1-f1",
+                           "g1-f2", "g1-e3", "g1-e1" };
+        for (int i = 0; i < 40; i += 1) {
+            input.append(moves[i % moves.length]).append("\n");
+        }
+        String[] serial = analyze(1, 2, input.toString());
+        final int workers = 3, window = 5;
+        StringWriter output = new StringWriter();
+        int[] written = new int[1];
+        PrintWriter out = new PrintWriter(output) {
+            @Override
+            public void println(String s) {
+                super.println(s);
+                written[0] += 1;
+            }
+        };
+        BufferedReader in =
+            new BufferedReader(new StringReader(input.toString())) {
+                private int _read;
+                @Override
+                public String readLine() throws IOException {
+                    assertTrue("read too far ahead",
+                               _read - written[0] <= window);
+                    _read += 1;
+                    return super.readLine();
+                }
+            };
+        new Analyzer(workers, 2, window).analyze(in, out);
+        String[] parallel = output.toString().split("\n");
+        assertEquals("wrong number of results", 40, parallel.length);
+        for (int i = 0; i < 40; i += 1) {
+            assertTrue("out of order",
+                       parallel[i].startsWith("{\"id\":" + i + ","));
+            assertEquals("results differ",
+                         serial[i].replaceAll(",\"msec\":\\d+", ""),
+                         parallel[i].replaceAll(",\"msec\":\\d+", ""));
+        }
+    }
+
+}
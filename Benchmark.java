@@ -0,0 +1,730 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/** Informal throughput measurements for the Ataxx engine.  These are not
+ *  tests: they print their results for a human to compare.  Usage:
+ *      java ataxx.Benchmark [ NAME ... ]
+ *  where each NAME selects one of the reports below (all by default).
+ *  @author Katrina Sharonin
+ */
+public class Benchmark {
+
+    /** Names of all benchmarks. */
+    private static final String[] NAMES =
+        { "boards", "movegen", "dedupe", "ordering", "threads",
+          "mcts", "eval", "stats", "endgame", "symmetry" };
+
+    /** Number of random games used as the workload for board benchmarks. */
+    private static final int GAMES = 200;
+
+    /** Number of times the workload is replayed per measurement. */
+    private static final int ROUNDS = 20;
+
+    /** Run the benchmarks named in ARGS, or all of them. */
+    public static void main(String[] args) {
+        boolean all = args.length == 0;
+        for (String name : all ? NAMES : args) {
+            switch (name) {
+            case "boards":
+                boards();
+                break;
+            case "movegen":
+                movegen();
+                break;
+            case "dedupe":
+                dedupe();
+                break;
+            case "ordering":
+                ordering();
+                break;
+            case "threads":
+                threads();
+                break;
+            case "mcts":
+                mcts();
+                break;
+            case "eval":
+                eval();
+                break;
+            case "stats":
+                stats();
+                break;
+            case "endgame":
+                endgame();
+                break;
+            case "symmetry":
+                symmetry();
+                break;
+            default:
+                System.err.printf("Unknown benchmark: %s%n", name);
+                System.exit(1);
+            }
+        }
+    }
+
+    /** Return COUNT random games from the initial position, played to
+     *  completion, using SEED to make the choices.  Each game is the list
+     *  of moves played. */
+    static ArrayList<ArrayList<Move>> randomGames(int count, long seed) {
+        Random random = new Random(seed);
+        ArrayList<ArrayList<Move>> games = new ArrayList<>();
+        for (int i = 0; i < count; i += 1) {
+            Board b = new Board();
+            ArrayList<Move> game = new ArrayList<>();
+            while (b.getWinner() == null) {
+                ArrayList<Move> legal = MoveGenerator.legalMoves(b);
+                Move m = legal.get(random.nextInt(legal.size()));
+                b.makeMove(m);
+                game.add(m);
+            }
+            games.add(game);
+        }
+        return games;
+    }
+
+    /** Return a fixed suite of positions for search benchmarks: those
+     *  after 8, 16, and 24 plies of some random games. */
+    static ArrayList<Board> positions() {
+        ArrayList<Board> result = new ArrayList<>();
+        for (ArrayList<Move> game : randomGames(SUITE_GAMES, 2)) {
+            Board b = new Board();
+            for (int k = 0; k < game.size() && k < 24; k += 1) {
+                b.makeMove(game.get(k));
+                if (k % 8 == 7 && b.getWinner() == null) {
+                    result.add(new Board(b));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Number of random games from which positions() is taken. */
+    private static final int SUITE_GAMES = 8;
+
+    /** Depth of the searches in the ordering benchmark. */
+    private static final int ORDERING_DEPTH = 4;
+
+    /** Print the rate, in operations per second, of OPS operations that
+     *  took NANOS nanoseconds, labeled with LABEL. */
+    static void report(String label, long ops, long nanos) {
+        System.out.printf("  %-28s %12.0f ops/sec  (%d ops, %d msec)%n",
+                          label, ops * 1e9 / nanos, ops, nanos / 1000000);
+    }
+
+    /** Compare the nodes searched, effective branching factor (ratio of
+     *  nodes searched in the last two iterations), and time of fixed-depth
+     *  AI searches with and without the move-ordering heuristics, on the
+     *  positions() suite. */
+    static void ordering() {
+        System.out.printf("ordering: depth-%d searches of %d positions%n",
+                          ORDERING_DEPTH, positions().size());
+        for (boolean on : new boolean[] { false, true }) {
+            long nodes, time;
+            double ebf;
+            nodes = time = 0;
+            ebf = 0;
+            ArrayList<Board> suite = positions();
+            for (Board b : suite) {
+                AI ai = new AI(null, b.whoseMove(), 0);
+                ai.setMaxDepth(ORDERING_DEPTH);
+                ai.setOrdering(on);
+                long start = System.nanoTime();
+                ai.findMove(b);
+                time += System.nanoTime() - start;
+                nodes += ai.nodes();
+                ebf += (double) ai.iterationNodes(ORDERING_DEPTH)
+                    / Math.max(1, ai.iterationNodes(ORDERING_DEPTH - 1));
+            }
+            System.out.printf("  ordering %-3s  %9d nodes  EBF %5.2f  "
+                              + "%6d msec%n", on ? "on" : "off", nodes,
+                              ebf / suite.size(), time / 1000000);
+        }
+    }
+
+    /** Depth of the searches in the stats benchmark. */
+    private static final int STATS_DEPTH = 5;
+
+    /** Number of times the stats benchmark searches the suite with and
+     *  without statistics. */
+    private static final int STATS_ROUNDS = 4;
+
+    /** Report the time taken by fixed-depth AI searches of the
+     *  positions() suite with and without a SearchStats (alternately,
+     *  after an untimed warm-up round, to even out noise), and the
+     *  statistics gathered. */
+    static void stats() {
+        ArrayList<Board> suite = positions();
+        System.out.printf("stats: depth-%d searches of %d positions%n",
+                          STATS_DEPTH, suite.size());
+        SearchStats stats = null;
+        long[] times = new long[2];
+        for (int round = 0; round <= STATS_ROUNDS; round += 1) {
+            for (int k = 0; k < 2; k += 1) {
+                int on = (round + k) % 2;
+                stats = on == 1 ? new SearchStats() : null;
+                for (Board b : suite) {
+                    AI ai = new AI(null, b.whoseMove(), 0);
+                    ai.setMaxDepth(STATS_DEPTH);
+                    ai.setStats(stats);
+                    long start = System.nanoTime();
+                    ai.findMove(b);
+                    if (round > 0) {
+                        times[on] += System.nanoTime() - start;
+                    }
+                }
+            }
+        }
+        System.out.printf("  stats off  %6d msec%n  stats on   %6d msec"
+                          + "  (%+.1f%%)%n",
+                          times[0] / 1000000, times[1] / 1000000,
+                          100.0 * (times[1] - times[0]) / times[0]);
+        System.out.printf("  %s%n", stats.toJson());
+    }
+
+    /** Largest number of empty squares in the endgame benchmark. */
+    private static final int ENDGAME_EMPTIES = 6;
+
+    /** Number of random games from whose ends the endgame benchmark's
+     *  positions are taken. */
+    private static final int ENDGAME_GAMES = 40;
+
+    /** Report, for each number of empty squares up to ENDGAME_EMPTIES,
+     *  how many positions (the first with that many in each of some
+     *  random games) EndgameSolver settles within its default node limit,
+     *  proving the outcome and the exact margin, and the times taken and
+     *  nodes visited.  An untimed warm-up round comes first. */
+    static void endgame() {
+        ArrayList<ArrayList<Board>> suite = new ArrayList<>();
+        for (int e = 0; e <= ENDGAME_EMPTIES; e += 1) {
+            suite.add(new ArrayList<>());
+        }
+        for (ArrayList<Move> game : randomGames(ENDGAME_GAMES, 3)) {
+            Board b = new Board();
+            boolean[] seen = new boolean[ENDGAME_EMPTIES + 1];
+            for (Move move : game) {
+                b.makeMove(move);
+                int e = EndgameSolver.empties(b);
+                if (b.getWinner() == null && e <= ENDGAME_EMPTIES
+                    && !seen[e]) {
+                    seen[e] = true;
+                    suite.get(e).add(new Board(b));
+                }
+            }
+        }
+        System.out.printf("endgame: solves of positions from %d random "
+                          + "games (limit %d nodes)%n", ENDGAME_GAMES,
+                          EndgameSolver.DEFAULT_NODE_LIMIT);
+        System.out.printf("  %7s %9s %6s %6s %10s %10s %11s%n", "empties",
+                          "positions", "proven", "exact", "mean usec",
+                          "max usec", "mean nodes");
+        for (int round = 0; round < 2; round += 1) {
+            for (int e = 1; e <= ENDGAME_EMPTIES; e += 1) {
+                ArrayList<Board> boards = suite.get(e);
+                int proven, exact;
+                long time, maxTime, nodes;
+                proven = exact = 0;
+                time = maxTime = nodes = 0;
+                for (Board b : boards) {
+                    EndgameSolver solver =
+                        new EndgameSolver(Main.hashSize());
+                    long start = System.nanoTime();
+                    EndgameSolver.Solution solution = solver.solve(b, 0);
+                    long t = System.nanoTime() - start;
+                    time += t;
+                    maxTime = Math.max(maxTime, t);
+                    if (solution != null) {
+                        proven += 1;
+                        exact += solution.exact() ? 1 : 0;
+                        nodes += solution.nodes();
+                    }
+                }
+                if (round == 1 && !boards.isEmpty()) {
+                    System.out.printf("  %7d %9d %6d %6d %10d %10d %11d%n",
+                                      e, boards.size(), proven, exact,
+                                      time / boards.size() / 1000,
+                                      maxTime / 1000,
+                                      nodes / Math.max(1, proven));
+                }
+            }
+        }
+    }
+
+    /** Depth of the searches in the symmetry benchmark. */
+    private static final int SYMMETRY_DEPTH = 4;
+
+    /** Transforms applied to the positions of the symmetry benchmark:
+     *  a reflection, and a rotation with the colors exchanged. */
+    private static final int[] SYMMETRY_TRANSFORMS = {
+        Symmetry.FLIP_COLUMNS,
+        Symmetry.TRANSPOSE | Symmetry.FLIP_ROWS | Symmetry.SWAP_COLORS
+    };
+
+    /** Report the rate at which Symmetry canonicalizes positions, and
+     *  compare the nodes searched and time taken with and without
+     *  canonical transposition-table keys when one AI searches each
+     *  position of the positions() suite to a fixed depth and then its
+     *  images under SYMMETRY_TRANSFORMS, as when analyzing positions or
+     *  playing games that are reflections of each other, and the rate
+     *  at which the searches visit nodes.  Untimed warm-up rounds come
+     *  first. */
+    static void symmetry() {
+        ArrayList<Board> suite = positions();
+        System.out.printf("symmetry: canonical keys and depth-%d searches "
+                          + "of %d positions and %d images of each%n",
+                          SYMMETRY_DEPTH, suite.size(),
+                          SYMMETRY_TRANSFORMS.length);
+        for (int round = 0; round < 2; round += 1) {
+            long keys = 0, sum = 0;
+            long start = System.nanoTime();
+            for (int k = 0; k < ROUNDS * ROUNDS * 10; k += 1) {
+                for (Board b : suite) {
+                    sum += Symmetry.key(b);
+                    keys += 1;
+                }
+            }
+            if (round == 1) {
+                report("Symmetry.key", keys, System.nanoTime() - start);
+                System.out.printf("  (checksum %d)%n", sum);
+            }
+        }
+        for (int round = 0; round < 2; round += 1) {
+            for (boolean on : new boolean[] { false, true }) {
+                long nodes, imageNodes, time;
+                nodes = imageNodes = time = 0;
+                for (Board b : suite) {
+                    AI ai = new AI(null, b.whoseMove(), 0);
+                    ai.setMaxDepth(SYMMETRY_DEPTH);
+                    ai.setSymmetry(on);
+                    long start = System.nanoTime();
+                    ai.findMove(b);
+                    nodes += ai.nodes();
+                    for (int t : SYMMETRY_TRANSFORMS) {
+                        Board image = Symmetry.image(b, t);
+                        ai.findMove(image);
+                        imageNodes += ai.nodes();
+                    }
+                    time += System.nanoTime() - start;
+                }
+                if (round == 1) {
+                    System.out.printf("  symmetry %-3s  %9d nodes  %9d "
+                                      + "image nodes  %6d msec  %7d "
+                                      + "nodes/sec%n", on ? "on" : "off",
+                                      nodes, imageNodes, time / 1000000,
+                                      (nodes + imageNodes) * 1000000000L
+                                      / Math.max(1, time));
+                }
+            }
+        }
+    }
+
+    /** Depth of the searches in the threads benchmark. */
+    private static final int THREADS_DEPTH = 5;
+
+    /** Thread counts compared by the threads benchmark. */
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16 };
+
+    /** Report the time, nodes, and speedup over one thread of fixed-depth
+     *  AI searches of the positions() suite with various numbers of
+     *  threads, using root splitting and Lazy SMP, and how many of the
+     *  moves chosen differ from the single-threaded ones.  Also checks
+     *  that single-threaded searches are repeatable. */
+    static void threads() {
+        ArrayList<Board> suite = positions();
+        System.out.printf("threads: depth-%d searches of %d positions "
+                          + "(%d processors)%n", THREADS_DEPTH,
+                          suite.size(),
+                          Runtime.getRuntime().availableProcessors());
+        for (Board b : suite) {
+            AI warmup = new AI(null, b.whoseMove(), 0);
+            warmup.setMaxDepth(THREADS_DEPTH);
+            warmup.findMove(b);
+        }
+        ArrayList<Move> serial = null;
+        long serialTime = 0;
+        for (int k = 0; k < 2 * THREAD_COUNTS.length; k += 1) {
+            int threads = THREAD_COUNTS[k % THREAD_COUNTS.length];
+            boolean lazy = k >= THREAD_COUNTS.length;
+            if (threads == 1 && lazy) {
+                continue;
+            }
+            AI[] ais = new AI[suite.size()];
+            for (int i = 0; i < ais.length; i += 1) {
+                ais[i] = new AI(null, suite.get(i).whoseMove(), 0);
+                ais[i].setMaxDepth(THREADS_DEPTH);
+                ais[i].setThreads(threads);
+                ais[i].setLazy(lazy);
+            }
+            ArrayList<Move> moves = new ArrayList<>();
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < ais.length; i += 1) {
+                moves.add(ais[i].findMove(suite.get(i)));
+                nodes += ais[i].nodes();
+            }
+            long time = System.nanoTime() - start;
+            for (AI ai : ais) {
+                ai.setThreads(1);
+            }
+            int differ = 0;
+            if (serial == null) {
+                serial = moves;
+                serialTime = time;
+                for (int i = 0; i < ais.length; i += 1) {
+                    AI again = new AI(null, suite.get(i).whoseMove(), 0);
+                    again.setMaxDepth(THREADS_DEPTH);
+                    if (again.findMove(suite.get(i)) != moves.get(i)) {
+                        throw new Error("single-threaded search is not "
+                                        + "repeatable");
+                    }
+                }
+            } else {
+                for (int i = 0; i < moves.size(); i += 1) {
+                    differ += moves.get(i) == serial.get(i) ? 0 : 1;
+                }
+            }
+            System.out.printf("  %2d threads %-5s %9d nodes  %6d msec  "
+                              + "speedup %5.2f  %2d moves differ%n",
+                              threads, lazy ? "lazy" : "split", nodes,
+                              time / 1000000, (double) serialTime / time,
+                              differ);
+        }
+    }
+
+    /** Thread counts compared by the mcts benchmark. */
+    private static final int[] MCTS_THREADS = { 1, 4, 16 };
+
+    /** Number of playouts per search in the mcts speed measurement. */
+    private static final int MCTS_PLAYOUTS = 4000;
+
+    /** Time per move (msec) in the mcts games. */
+    private static final int MCTS_MOVE_TIME = 50;
+
+    /** Number of positions from positions() used as openings in the mcts
+     *  games.  Each is played twice, once with each player moving
+     *  first. */
+    private static final int MCTS_OPENINGS = 4;
+
+    /** Report the playouts per second of MCTS searches of the positions()
+     *  suite with various numbers of threads, and the results of games at
+     *  a fixed time per move between each multi-threaded player and a
+     *  single-threaded one.  The games are played on a Board, so the
+     *  rules are those of the game itself. */
+    static void mcts() {
+        ArrayList<Board> suite = positions();
+        System.out.printf("mcts: %d-playout searches of %d positions; "
+                          + "%d games at %d msec/move (%d processors)%n",
+                          MCTS_PLAYOUTS, suite.size(), 2 * MCTS_OPENINGS,
+                          MCTS_MOVE_TIME,
+                          Runtime.getRuntime().availableProcessors());
+        for (int pass = 0; pass < 2; pass += 1) {
+            for (int threads : MCTS_THREADS) {
+                long playouts, start;
+                playouts = 0;
+                start = System.nanoTime();
+                for (Board b : suite) {
+                    MCTS player = new MCTS(null, b.whoseMove(), 0, 1 << 20);
+                    player.setThreads(threads);
+                    player.setPlayouts(MCTS_PLAYOUTS);
+                    player.findMove(b);
+                    playouts += player.playouts();
+                    player.setThreads(1);
+                }
+                if (pass == 1) {
+                    report(String.format("%2d threads (playouts)", threads),
+                           playouts, System.nanoTime() - start);
+                }
+            }
+        }
+        for (int threads : MCTS_THREADS) {
+            if (threads == 1) {
+                continue;
+            }
+            int[] results = new int[3];
+            for (int k = 0; k < 2 * MCTS_OPENINGS; k += 1) {
+                Board b = new Board(suite.get(k / 2));
+                PieceColor many = k % 2 == 0 ? b.whoseMove()
+                    : b.whoseMove().opposite();
+                PieceColor winner = mctsGame(b, many, threads);
+                results[winner == many ? 0 : winner == PieceColor.EMPTY
+                        ? 1 : 2] += 1;
+            }
+            System.out.printf("  %2d threads vs. 1: +%d =%d -%d%n", threads,
+                              results[0], results[1], results[2]);
+        }
+    }
+
+    /** Play out the game on BOARD between an MCTS player using THREADS
+     *  threads, playing MANY, and a single-threaded one, and return the
+     *  winner (EMPTY for a draw). */
+    private static PieceColor mctsGame(Board board, PieceColor many,
+                                       int threads) {
+        MCTS[] players = new MCTS[2];
+        for (PieceColor color : new PieceColor[] { many, many.opposite() }) {
+            MCTS player = new MCTS(null, color, color.ordinal(), 1 << 20);
+            player.setMoveTime(MCTS_MOVE_TIME);
+            player.setThreads(color == many ? threads : 1);
+            players[color == many ? 0 : 1] = player;
+        }
+        while (board.getWinner() == null) {
+            Move m = board.canMove(board.whoseMove())
+                ? players[board.whoseMove() == many ? 0 : 1].findMove(board)
+                : Move.pass();
+            if (!board.legalMove(m)) {
+                throw new Error("MCTS chose illegal move " + m);
+            }
+            board.makeMove(m);
+        }
+        for (MCTS player : players) {
+            player.setThreads(1);
+        }
+        return board.getWinner();
+    }
+
+    /** Compare the speed of the material and feature evaluators on every
+     *  position of some random games, the latter both with features
+     *  maintained incrementally and recounted for each evaluation, and the
+     *  cost of maintaining the features during make and undo. */
+    static void eval() {
+        System.out.println("eval: Evaluator.MATERIAL vs. FeatureEvaluator");
+        ArrayList<ArrayList<Move>> games = randomGames(GAMES, 4);
+        ArrayList<Board> boards = new ArrayList<>();
+        long plies = 0;
+        for (ArrayList<Move> game : games) {
+            Board b = new Board();
+            for (Move m : game) {
+                boards.add(new Board(b));
+                b.makeMove(m);
+            }
+            plies += game.size();
+        }
+        Evaluator features = new FeatureEvaluator();
+        for (int pass = 0; pass < 2; pass += 1) {
+            long total = 0;
+            long start = System.nanoTime();
+            for (int k = 0; k < ROUNDS; k += 1) {
+                for (Board b : boards) {
+                    total += Evaluator.MATERIAL.score(b);
+                }
+            }
+            long materialTime = System.nanoTime() - start;
+            for (Board b : boards) {
+                b.features();
+            }
+            start = System.nanoTime();
+            for (int k = 0; k < ROUNDS; k += 1) {
+                for (Board b : boards) {
+                    total += features.score(b);
+                }
+            }
+            long incrementalTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int k = 0; k < ROUNDS; k += 1) {
+                for (Board b : boards) {
+                    total += new BoardFeatures(b).reach(PieceColor.RED);
+                }
+            }
+            long recountTime = System.nanoTime() - start;
+            long[] replayTimes = new long[2];
+            for (int f = 0; f < 2; f += 1) {
+                start = System.nanoTime();
+                for (int k = 0; k < ROUNDS; k += 1) {
+                    for (ArrayList<Move> game : games) {
+                        Board b = new Board();
+                        if (f == 1) {
+                            total += features.score(b);
+                        }
+                        for (Move m : game) {
+                            b.makeMove(m);
+                        }
+                        for (int i = game.size(); i > 0; i -= 1) {
+                            b.undo();
+                        }
+                    }
+                }
+                replayTimes[f] = System.nanoTime() - start;
+            }
+            if (pass == 1) {
+                long n = (long) boards.size() * ROUNDS;
+                report("material (evals)", n, materialTime);
+                report("features (evals)", n, incrementalTime);
+                report("features recounted (evals)", n, recountTime);
+                report("make+undo (plies)", plies * ROUNDS,
+                       replayTimes[0]);
+                report("make+undo+features (plies)", plies * ROUNDS,
+                       replayTimes[1]);
+                System.out.printf("  (checksum %d)%n", total);
+            }
+        }
+    }
+
+    /** Compare move generation by testing every move with
+     *  Board.legalMove against MoveGenerator.generate, on every position
+     *  of some random games. */
+    static void movegen() {
+        System.out.println("movegen: legalMove scan vs. MoveGenerator");
+        ArrayList<Board> boards = new ArrayList<>();
+        for (ArrayList<Move> game : randomGames(GAMES / 4, 3)) {
+            Board b = new Board();
+            for (Move m : game) {
+                boards.add(new Board(b));
+                b.makeMove(m);
+            }
+        }
+        int[] codes = new int[MoveGenerator.MAX_MOVES];
+        for (int pass = 0; pass < 2; pass += 1) {
+            long start = System.nanoTime();
+            long scanned = 0;
+            for (Board b : boards) {
+                scanned += MoveGenerator.legalMoves(b).size();
+            }
+            long scanTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            long generated = 0;
+            for (int k = 0; k < ROUNDS; k += 1) {
+                for (Board b : boards) {
+                    generated += MoveGenerator.generate(b, codes, 0);
+                }
+            }
+            long genTime = System.nanoTime() - start;
+            if (pass == 1) {
+                report("legalMove scan (positions)", boards.size(),
+                       scanTime);
+                report("generate (positions)", boards.size() * ROUNDS,
+                       genTime);
+                System.out.printf("  moves/position: %.1f scanned, "
+                                  + "%.1f generated%n",
+                                  (double) scanned / boards.size(),
+                                  (double) generated / boards.size()
+                                  / ROUNDS);
+            }
+        }
+    }
+
+    /** Depth of the perft counts in the dedupe benchmark. */
+    private static final int DEDUPE_DEPTH = 4;
+
+    /** Return the number of leaf positions DEPTH plies below B, where
+     *  finished games are leaves and a player with no moves passes.
+     *  Generate moves with MoveGenerator.generateAll if ALL, and otherwise
+     *  with MoveGenerator.generate.  BUFFERS[K] is scratch space for
+     *  moves K plies down. */
+    static long leaves(Board b, int depth, boolean all, int[][] buffers) {
+        if (depth == 0 || b.getWinner() != null) {
+            return 1;
+        }
+        int[] moves = buffers[depth];
+        int n = all ? MoveGenerator.generateAll(b, moves, 0)
+            : MoveGenerator.generate(b, moves, 0);
+        if (n == 0) {
+            moves[0] = Move.PASS.code();
+            n = 1;
+        }
+        long total = 0;
+        for (int i = 0; i < n; i += 1) {
+            b.makeMove(Move.fromCode(moves[i]));
+            total += leaves(b, depth - 1, all, buffers);
+            b.undo();
+        }
+        return total;
+    }
+
+    /** Compare perft-style leaf counts and times with every extend
+     *  generated and with extends deduplicated by destination, from the
+     *  initial position and the positions() suite. */
+    static void dedupe() {
+        System.out.println("dedupe: leaf counts with all extends vs. one "
+                           + "per destination");
+        int[][] buffers = new int[DEDUPE_DEPTH + 1][MoveGenerator.MAX_MOVES];
+        ArrayList<Board> suite = positions();
+        for (int depth = 1; depth <= DEDUPE_DEPTH; depth += 1) {
+            long[] counts = new long[2], times = new long[2];
+            for (int k = 0; k < 2; k += 1) {
+                long start = System.nanoTime();
+                counts[k] = leaves(new Board(), depth, k == 0, buffers);
+                times[k] = System.nanoTime() - start;
+            }
+            System.out.printf("  start depth %d  %12d raw %12d deduped "
+                              + "(%5.1f%%)  %6d / %6d msec%n", depth,
+                              counts[0], counts[1],
+                              100.0 * counts[1] / counts[0],
+                              times[0] / 1000000, times[1] / 1000000);
+        }
+        for (int depth = 1; depth <= DEDUPE_DEPTH - 1; depth += 1) {
+            long[] counts = new long[2], times = new long[2];
+            for (int k = 0; k < 2; k += 1) {
+                long start = System.nanoTime();
+                for (Board b : suite) {
+                    counts[k] += leaves(b, depth, k == 0, buffers);
+                }
+                times[k] = System.nanoTime() - start;
+            }
+            System.out.printf("  suite depth %d  %12d raw %12d deduped "
+                              + "(%5.1f%%)  %6d / %6d msec%n", depth,
+                              counts[0], counts[1],
+                              100.0 * counts[1] / counts[0],
+                              times[0] / 1000000, times[1] / 1000000);
+        }
+    }
+
+    /** Compare make/undo and move-availability checks on Board and
+     *  BitBoard, replaying the same random games on each. */
+    static void boards() {
+        System.out.println("boards: Board vs. BitBoard");
+        ArrayList<ArrayList<Move>> games = randomGames(GAMES, 1);
+        long plies = 0;
+        for (ArrayList<Move> game : games) {
+            plies += game.size();
+        }
+        plies *= ROUNDS;
+
+        for (int pass = 0; pass < 2; pass += 1) {
+            boolean warmup = pass == 0;
+            long start = System.nanoTime();
+            long checks = 0;
+            for (int k = 0; k < ROUNDS; k += 1) {
+                for (ArrayList<Move> game : games) {
+                    Board b = new Board();
+                    for (Move m : game) {
+                        b.makeMove(m);
+                        checks += b.canMove(b.whoseMove()) ? 1 : 0;
+                    }
+                    for (int i = game.size(); i > 0; i -= 1) {
+                        b.undo();
+                    }
+                }
+            }
+            long boardTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int k = 0; k < ROUNDS; k += 1) {
+                for (ArrayList<Move> game : games) {
+                    BitBoard b = new BitBoard();
+                    for (Move m : game) {
+                        b.makeMove(m);
+                        checks -= b.canMove(b.whoseMove()) ? 1 : 0;
+                    }
+                    for (int i = game.size(); i > 0; i -= 1) {
+                        b.undo();
+                    }
+                }
+            }
+            long bitTime = System.nanoTime() - start;
+            if (checks != 0) {
+                throw new Error("Board and BitBoard disagree");
+            }
+            if (!warmup) {
+                report("Board make+canMove+undo", plies, boardTime);
+                report("BitBoard make+canMove+undo", plies, bitTime);
+                System.out.printf("  speedup: %.1fx%n",
+                                  (double) boardTime / bitTime);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,475 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.Arrays;
+import java.util.Formatter;
+
+import static ataxx.PieceColor.*;
+import static ataxx.GameException.error;
+
+/** An Ataxx board that keeps its position as bit masks.  It follows the
+ *  same rules, and offers the same interface for squares, moves, undo,
+ *  and piece counts, as Board, but it is intended for engines that
+ *  make and unmake very large numbers of moves.
+ *
+ *  The 49 playable squares are numbered in row-major order from a1 (bit
+ *  0) to g7 (bit 48), so that a square's bit number is 7 * row + column,
+ *  counting rows and columns from 0.  Red pieces, blue pieces, and
+ *  blocks each occupy one long mask, and a square is empty iff its bit
+ *  is clear in all three.  Squares are still addressed from outside by
+ *  the linearized indices of Board, so that Moves can be used unchanged;
+ *  indices in the border region read as BLOCKED.
+ *
+ *  Because a capture changes exactly the opponent's pieces adjacent to
+ *  the destination, each move is a handful of mask operations, using
+ *  the precomputed NEIGHBORS1 (adjacent) and NEIGHBORS2 (two away)
+ *  tables below.
+ *  @author Katrina Sharonin
+ */
+class BitBoard {
+
+    /** Number of squares on a side of the board. */
+    static final int SIDE = Board.SIDE;
+
+    /** Number of playable squares. */
+    static final int SQUARES = SIDE * SIDE;
+
+    /** Number of consecutive non-extending moves before game ends. */
+    static final int JUMP_LIMIT = Board.JUMP_LIMIT;
+
+    /** Mask of all playable squares. */
+    static final long ALL = (1L << SQUARES) - 1;
+
+    /** Mask of the squares in column a. */
+    static final long FILE_A;
+
+    /** Mask of the squares in column g. */
+    static final long FILE_G;
+
+    /** NEIGHBORS1[B] is the mask of squares adjacent to the square with
+     *  bit number B. */
+    static final long[] NEIGHBORS1 = new long[SQUARES];
+
+    /** NEIGHBORS2[B] is the mask of squares exactly two rows or columns
+     *  away from the square with bit number B (i.e., its jump targets). */
+    static final long[] NEIGHBORS2 = new long[SQUARES];
+
+    /** BIT_TO_INDEX[B] is the Board linearized index of bit number B. */
+    static final int[] BIT_TO_INDEX = new int[SQUARES];
+
+    /** INDEX_TO_BIT[SQ] is the bit number of the square with linearized
+     *  index SQ, or -1 if SQ is in the border. */
+    static final int[] INDEX_TO_BIT =
+        new int[Board.EXTENDED_SIDE * Board.EXTENDED_SIDE];
+
+    static {
+        long fileA, fileG;
+        fileA = fileG = 0;
+        Arrays.fill(INDEX_TO_BIT, -1);
+        for (int r = 0; r < SIDE; r += 1) {
+            fileA |= 1L << (r * SIDE);
+            fileG |= 1L << (r * SIDE + SIDE - 1);
+            for (int c = 0; c < SIDE; c += 1) {
+                int b = r * SIDE + c;
+                int sq = Board.index((char) ('a' + c), (char) ('1' + r));
+                BIT_TO_INDEX[b] = sq;
+                INDEX_TO_BIT[sq] = b;
+                for (int dr = -2; dr <= 2; dr += 1) {
+                    for (int dc = -2; dc <= 2; dc += 1) {
+                        int r1 = r + dr, c1 = c + dc;
+                        if ((dr == 0 && dc == 0) || r1 < 0 || r1 >= SIDE
+                            || c1 < 0 || c1 >= SIDE) {
+                            continue;
+                        }
+                        long bit = 1L << (r1 * SIDE + c1);
+                        if (Math.abs(dr) <= 1 && Math.abs(dc) <= 1) {
+                            NEIGHBORS1[b] |= bit;
+                        } else {
+                            NEIGHBORS2[b] |= bit;
+                        }
+                    }
+                }
+            }
+        }
+        FILE_A = fileA;
+        FILE_G = fileG;
+    }
+
+    /** A new, cleared board in the initial configuration. */
+    BitBoard() {
+        clear();
+    }
+
+    /** A board whose contents are copied from BOARD0, but whose undo
+     *  history is clear. */
+    BitBoard(BitBoard board0) {
+        _red = board0._red;
+        _blue = board0._blue;
+        _blocked = board0._blocked;
+        _whoseMove = board0._whoseMove;
+        _numJumps = board0._numJumps;
+        _winner = board0._winner;
+    }
+
+    /** A board whose contents are copied from the Board BOARD0, but whose
+     *  undo history is clear. */
+    BitBoard(Board board0) {
+        for (int b = 0; b < SQUARES; b += 1) {
+            switch (board0.get(BIT_TO_INDEX[b])) {
+            case RED:
+                _red |= 1L << b;
+                break;
+            case BLUE:
+                _blue |= 1L << b;
+                break;
+            case BLOCKED:
+                _blocked |= 1L << b;
+                break;
+            default:
+                break;
+            }
+        }
+        _whoseMove = board0.whoseMove();
+        _numJumps = board0.numJumps();
+        _winner = board0.getWinner();
+    }
+
+    /** Clear me to my starting state, with pieces in their initial
+     *  positions and no blocks. */
+    void clear() {
+        _red = bit('a', '7') | bit('g', '1');
+        _blue = bit('a', '1') | bit('g', '7');
+        _blocked = 0;
+        _whoseMove = RED;
+        _numJumps = 0;
+        _winner = null;
+        _numMoves = 0;
+    }
+
+    /** Return the mask with only the bit for square C R set. */
+    private static long bit(char c, char r) {
+        return 1L << INDEX_TO_BIT[Board.index(c, r)];
+    }
+
+    /** Return the mask of squares within one row and column of a square
+     *  in MASK, including the squares of MASK itself. */
+    static long grow(long mask) {
+        long row = (mask | ((mask << 1) & ~FILE_A) | ((mask >>> 1) & ~FILE_G))
+            & ALL;
+        return (row | (row << SIDE) | (row >>> SIDE)) & ALL;
+    }
+
+    /** Return the mask of empty squares. */
+    long emptyMask() {
+        return ALL & ~(_red | _blue | _blocked);
+    }
+
+    /** Return the mask of squares holding pieces of color WHO. */
+    long mask(PieceColor who) {
+        return who == RED ? _red : who == BLUE ? _blue : 0;
+    }
+
+    /** Return the winner, if there is one yet, and otherwise null.  Returns
+     *  EMPTY in the case of a draw. */
+    PieceColor getWinner() {
+        return _winner;
+    }
+
+    /** Return number of red pieces on the board. */
+    int redPieces() {
+        return Long.bitCount(_red);
+    }
+
+    /** Return number of blue pieces on the board. */
+    int bluePieces() {
+        return Long.bitCount(_blue);
+    }
+
+    /** Return number of COLOR pieces on the board.  As for Board, the
+     *  count of BLOCKED squares includes the border. */
+    int numPieces(PieceColor color) {
+        switch (color) {
+        case RED:
+            return redPieces();
+        case BLUE:
+            return bluePieces();
+        case EMPTY:
+            return Long.bitCount(emptyMask());
+        default:
+            return Long.bitCount(_blocked) + INDEX_TO_BIT.length - SQUARES;
+        }
+    }
+
+    /** Return the contents of square CR, where 'a'-2 <= C <= 'g'+2, and
+     *  '1'-2 <= R <= '7'+2.  Squares outside the range a1-g7 are all
+     *  BLOCKED. */
+    PieceColor get(char c, char r) {
+        return get(Board.index(c, r));
+    }
+
+    /** Return the contents of the square with linearized index SQ. */
+    PieceColor get(int sq) {
+        int b = INDEX_TO_BIT[sq];
+        if (b < 0) {
+            return BLOCKED;
+        }
+        long m = 1L << b;
+        if ((_red & m) != 0) {
+            return RED;
+        } else if ((_blue & m) != 0) {
+            return BLUE;
+        } else if ((_blocked & m) != 0) {
+            return BLOCKED;
+        }
+        return EMPTY;
+    }
+
+    /** Return true iff MOVE is legal on the current board. */
+    boolean legalMove(Move move) {
+        if (move == null) {
+            return false;
+        }
+        if (move.isPass()) {
+            return !canMove(_whoseMove);
+        }
+        int from = INDEX_TO_BIT[move.fromIndex()],
+            to = INDEX_TO_BIT[move.toIndex()];
+        return _winner == null && from >= 0 && to >= 0
+            && (mask(_whoseMove) & (1L << from)) != 0
+            && (emptyMask() & (1L << to)) != 0;
+    }
+
+    /** Return true iff C0 R0 - C1 R1 is legal on the current board. */
+    boolean legalMove(char c0, char r0, char c1, char r1) {
+        return legalMove(Move.move(c0, r0, c1, r1));
+    }
+
+    /** Return true iff player WHO can move, ignoring whether it is that
+     *  player's move and whether the game is over. */
+    boolean canMove(PieceColor who) {
+        return (grow(grow(mask(who))) & emptyMask()) != 0;
+    }
+
+    /** Return the color of the player who has the next move. */
+    PieceColor whoseMove() {
+        return _whoseMove;
+    }
+
+    /** Return total number of moves and passes since the last clear or
+     *  the creation or copying of the board. */
+    int numMoves() {
+        return _numMoves;
+    }
+
+    /** Return number of consecutive non-pass jumps since the last
+     *  extend. */
+    int numJumps() {
+        return _numJumps;
+    }
+
+    /** Assuming MOVE has the format "-" or "C0R0-C1R1", make the denoted
+     *  move ("-" means "pass"). */
+    void makeMove(String move) {
+        makeMove(Move.move(move));
+    }
+
+    /** Perform the move C0R0-C1R1, or pass if C0 is '-'. */
+    void makeMove(char c0, char r0, char c1, char r1) {
+        if (c0 == '-') {
+            makeMove(Move.pass());
+        } else {
+            makeMove(Move.move(c0, r0, c1, r1));
+        }
+    }
+
+    /** Make the MOVE on this BitBoard, assuming it is legal. */
+    void makeMove(Move move) {
+        if (!legalMove(move)) {
+            throw error("Illegal move: %s", move);
+        }
+        if (move.isPass()) {
+            pass();
+            return;
+        }
+        pushUndo();
+        long to = 1L << INDEX_TO_BIT[move.toIndex()];
+        long mine = mask(_whoseMove), theirs = mask(_whoseMove.opposite());
+        if (move.isExtend()) {
+            _numJumps = 0;
+        } else {
+            mine &= ~(1L << INDEX_TO_BIT[move.fromIndex()]);
+            _numJumps += 1;
+        }
+        long captured = NEIGHBORS1[INDEX_TO_BIT[move.toIndex()]] & theirs;
+        mine |= to | captured;
+        theirs ^= captured;
+        if (_whoseMove == RED) {
+            _red = mine;
+            _blue = theirs;
+        } else {
+            _blue = mine;
+            _red = theirs;
+        }
+
+        int us = Long.bitCount(mine), them = Long.bitCount(theirs);
+        long reach = grow(grow(_red | _blue));
+        if ((reach & emptyMask()) == 0 || _numJumps == JUMP_LIMIT
+            || us == 0 || them == 0) {
+            _winner = us > them ? _whoseMove
+                : us < them ? _whoseMove.opposite() : EMPTY;
+        }
+        _whoseMove = _whoseMove.opposite();
+    }
+
+    /** Update to indicate that the current player passes, assuming it
+     *  is legal to do so. Passing is undoable. */
+    void pass() {
+        if (!canMove(RED) && !canMove(BLUE)) {
+            int us = Long.bitCount(mask(_whoseMove)),
+                them = Long.bitCount(mask(_whoseMove.opposite()));
+            _winner = us > them ? _whoseMove
+                : us < them ? _whoseMove.opposite() : EMPTY;
+        }
+        pushUndo();
+        _whoseMove = _whoseMove.opposite();
+    }
+
+    /** Undo the last move. */
+    void undo() {
+        _numMoves -= 1;
+        int k = _numMoves;
+        _red = _undoRed[k];
+        _blue = _undoBlue[k];
+        _numJumps = _undoJumps[k];
+        _winner = _undoWinner[k];
+        _whoseMove = _whoseMove.opposite();
+    }
+
+    /** Record the current position on the undo stack, prior to making a
+     *  move or pass.  Blocks and the side to move need not be saved,
+     *  since the former cannot change once play starts and the latter
+     *  simply alternates. */
+    private void pushUndo() {
+        int k = _numMoves;
+        if (k == _undoRed.length) {
+            _undoRed = Arrays.copyOf(_undoRed, 2 * k);
+            _undoBlue = Arrays.copyOf(_undoBlue, 2 * k);
+            _undoJumps = Arrays.copyOf(_undoJumps, 2 * k);
+            _undoWinner = Arrays.copyOf(_undoWinner, 2 * k);
+        }
+        _undoRed[k] = _red;
+        _undoBlue[k] = _blue;
+        _undoJumps[k] = _numJumps;
+        _undoWinner[k] = _winner;
+        _numMoves = k + 1;
+    }
+
+    /** Return true iff it is legal to place a block at C R. */
+    boolean legalBlock(char c, char r) {
+        return _numMoves == 0 && get(c, r) == EMPTY;
+    }
+
+    /** Set a block on the square C R and its reflections across the middle
+     *  row and/or column, exactly as for Board.setBlock. */
+    void setBlock(char c, char r) {
+        if (!legalBlock(c, r)) {
+            throw error("illegal block placement");
+        }
+        char c1 = (char) ('a' + 'g' - c), r1 = (char) ('1' + '7' - r);
+        _blocked |= bit(c, r) | bit(c1, r) | bit(c, r1) | bit(c1, r1);
+    }
+
+    /** Place a block at CR. */
+    void setBlock(String cr) {
+        setBlock(cr.charAt(0), cr.charAt(1));
+    }
+
+    /** Return total number of unblocked squares. */
+    int totalOpen() {
+        return SQUARES - Long.bitCount(_blocked);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof BitBoard)) {
+            return false;
+        }
+        BitBoard other = (BitBoard) obj;
+        return _red == other._red && _blue == other._blue
+            && _blocked == other._blocked;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(_red * 31 + _blue * 17 + _blocked);
+    }
+
+    @Override
+    public String toString() {
+        return toString(false);
+    }
+
+    /** Return a text depiction of the board in the same format as
+     *  Board.toString(LEGEND). */
+    String toString(boolean legend) {
+        Formatter out = new Formatter();
+        for (char r = '7'; r >= '1'; r -= 1) {
+            if (legend) {
+                out.format("%c", r);
+            }
+            out.format(" ");
+            for (char c = 'a'; c <= 'g'; c += 1) {
+                switch (get(c, r)) {
+                case RED:
+                    out.format(" r");
+                    break;
+                case BLUE:
+                    out.format(" b");
+                    break;
+                case BLOCKED:
+                    out.format(" X");
+                    break;
+                default:
+                    out.format(" -");
+                    break;
+                }
+            }
+            out.format("%n");
+        }
+        if (legend) {
+            out.format("   a b c d e f g");
+        }
+        return out.toString();
+    }
+
+    /** Masks of red pieces, blue pieces, and blocks. */
+    private long _red, _blue, _blocked;
+
+    /** Player that is next to move. */
+    private PieceColor _whoseMove;
+
+    /** Number of consecutive non-extending moves. */
+    private int _numJumps;
+
+    /** Set to winner when game ends (EMPTY if tie).  Otherwise is null. */
+    private PieceColor _winner;
+
+    /** Number of moves made and not undone; also the size of the undo
+     *  stack. */
+    private int _numMoves;
+
+    /* The undo stack holds the complete state before each move, which
+     * for this representation is only a few words. */
+
+    /** Red and blue masks before each move. */
+    private long[] _undoRed = new long[64], _undoBlue = new long[64];
+
+    /** Values of _numJumps before each move. */
+    private int[] _undoJumps = new int[64];
+
+    /** Values of _winner before each move. */
+    private PieceColor[] _undoWinner = new PieceColor[64];
+}
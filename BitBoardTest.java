@@ -0,0 +1,124 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static ataxx.PieceColor.*;
+import static org.junit.Assert.*;
+
+/** Tests of the BitBoard class, mostly by comparison with Board.
+ *  @author Katrina Sharonin
+ */
+public class BitBoardTest {
+
+    /** Check that B0 and B1 hold the same position. */
+    private static void checkSame(Board b0, BitBoard b1) {
+        for (char r = '1'; r <= '7'; r += 1) {
+            for (char c = 'a'; c <= 'g'; c += 1) {
+                assertEquals("wrong contents at " + c + r,
+                             b0.get(c, r), b1.get(c, r));
+            }
+        }
+        for (PieceColor color : PieceColor.values()) {
+            assertEquals("wrong count of " + color,
+                         b0.numPieces(color), b1.numPieces(color));
+        }
+        assertEquals("wrong player", b0.whoseMove(), b1.whoseMove());
+    }
+
+    @Test
+    public void testInitial() {
+        BitBoard b = new BitBoard();
+        checkSame(new Board(), b);
+        assertEquals("wrong string", new Board().toString(), b.toString());
+        assertEquals("wrong open squares", 49, b.totalOpen());
+        assertTrue("a7-c5 should be legal", b.legalMove('a', '7', 'c', '5'));
+        assertFalse("a7-a4 should not be legal",
+                    b.legalMove('a', '7', 'a', '4'));
+        assertFalse("moving into the border should not be legal",
+                    b.legalMove('a', '7', (char) ('a' - 1), '7'));
+        assertFalse("blue moving should not be legal",
+                    b.legalMove('a', '1', 'a', '2'));
+    }
+
+    @Test
+    public void testCapturesAndUndo() {
+        BitBoard b = new BitBoard();
+        b.makeMove("g1-g2");
+        b.makeMove("g7-g6");
+        b.makeMove("g2-g3");
+        b.makeMove("g6-g5");
+        b.makeMove("g3-g4");
+        assertEquals("g5 not captured", RED, b.get('g', '5'));
+        assertEquals("wrong red count", 6, b.redPieces());
+        assertEquals("wrong blue count", 3, b.bluePieces());
+        b.makeMove("g6-f4");
+        assertEquals("wrong red count", 3, b.redPieces());
+        assertEquals("wrong blue count", 6, b.bluePieces());
+        assertEquals("wrong numJumps", 1, b.numJumps());
+        b.undo();
+        b.undo();
+        assertEquals("g5 not restored", BLUE, b.get('g', '5'));
+        assertEquals("g4 not restored", EMPTY, b.get('g', '4'));
+        assertEquals("wrong numMoves", 4, b.numMoves());
+        assertEquals("wrong player", RED, b.whoseMove());
+    }
+
+    @Test
+    public void testBlocks() {
+        BitBoard b = new BitBoard();
+        Board b0 = new Board();
+        b.setBlock('a', '2');
+        b0.setBlock('a', '2');
+        b.setBlock('d', '4');
+        b0.setBlock('d', '4');
+        checkSame(b0, b);
+        assertEquals("wrong open squares", 44, b.totalOpen());
+        assertFalse("blocks not placeable on pieces", b.legalBlock('a', '1'));
+        b.makeMove("a7-b7");
+        assertFalse("blocks not placeable once game starts",
+                    b.legalBlock('d', '5'));
+    }
+
+    @Test
+    public void testAgreesWithBoard() {
+        Random random = new Random(61);
+        for (int game = 0; game < 40; game += 1) {
+            Board b0 = new Board();
+            BitBoard b1 = new BitBoard();
+            if (game % 2 == 1) {
+                b0.setBlock('c', '3');
+                b1.setBlock('c', '3');
+                b0.setBlock('d', '1');
+                b1.setBlock('d', '1');
+            }
+            int moves;
+            for (moves = 0; b0.getWinner() == null; moves += 1) {
+                ArrayList<Move> legal = MoveGenerator.legalMoves(b0);
+                for (Move m : legal) {
+                    assertTrue("BitBoard rejects " + m, b1.legalMove(m));
+                }
+                Move m = legal.get(random.nextInt(legal.size()));
+                b0.makeMove(m);
+                b1.makeMove(m);
+                checkSame(b0, b1);
+                assertEquals("wrong numJumps", b0.numJumps(), b1.numJumps());
+                assertEquals("wrong winner", b0.getWinner(), b1.getWinner());
+            }
+            for (; moves > 0; moves -= 1) {
+                b0.undo();
+                b1.undo();
+                checkSame(b0, b1);
+            }
+            assertNull("winner not cleared", b1.getWinner());
+            assertEquals("not back at start", 0, b1.numMoves());
+        }
+    }
+
+}
@@ -7,8 +7,8 @@ package ataxx;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Stack;
 import java.util.Formatter;
+import java.util.Random;
 
 import java.util.function.Consumer;
 
@@ -74,9 +74,6 @@ class Board {
     /** 25 int form.*/
     static final int TWENTYFIVE = 25;
 
-    /** 1000 int form. */
-    static final int ONETHOUSAND = 10000;
-
     /** A new, cleared board in the initial configuration. */
     Board() {
         _board = new PieceColor[EXTENDED_SIDE * EXTENDED_SIDE];
@@ -86,8 +83,13 @@ class Board {
         _numJumps = 0;
         _winner = null;
         _allMoves = new ArrayList<>();
-        _undoPieces = new Stack<>();
-        _undoSquares = new Stack<>();
+        _undoSquares = new int[INITIAL_UNDO_SIZE];
+        _undoPieces = new byte[INITIAL_UNDO_SIZE];
+        _frameStart = new int[INITIAL_FRAMES];
+        _frameJumps = new int[INITIAL_FRAMES];
+        _frameWinner = new byte[INITIAL_FRAMES];
+        _frameCounts = new int[INITIAL_FRAMES * _numPieces.length];
+        _frameKeys = new long[INITIAL_FRAMES];
 
         setNotifier(NOP);
         clear();
@@ -104,14 +106,21 @@ class Board {
 
         _numPieces = board0._numPieces.clone();
         _numJumps = board0._numJumps;
+        _key = board0._key;
 
         _totalOpen = board0._totalOpen;
 
         _winner = board0._winner;
 
-        _undoPieces = (Stack<PieceColor>) board0._undoPieces.clone();
-        _undoSquares = (Stack<Integer>) board0._undoSquares.clone();
-        _allMoves = (ArrayList<Move>) board0._allMoves.clone();
+        _undoSquares = board0._undoSquares.clone();
+        _undoPieces = board0._undoPieces.clone();
+        _undoTop = board0._undoTop;
+        _frameStart = board0._frameStart.clone();
+        _frameJumps = board0._frameJumps.clone();
+        _frameWinner = board0._frameWinner.clone();
+        _frameCounts = board0._frameCounts.clone();
+        _frameKeys = board0._frameKeys.clone();
+        _allMoves = new ArrayList<>(board0._allMoves);
 
         setNotifier(NOP);
     }
@@ -130,9 +139,9 @@ class Board {
     /** Clear me to my starting state, with pieces in their initial
      *  positions and no blocks. */
     void clear() {
-        _undoSquares.clear();
-        _undoPieces.clear();
+        _undoTop = 0;
         _allMoves.clear();
+        _features = null;
 
         _winner = null;
 
@@ -147,37 +156,69 @@ class Board {
         }
 
 
-        unrecordedSet(NINTY, RED);
-        unrecordedSet(THIRTY, RED);
-        unrecordedSet(TWENTYFOUR, BLUE);
-        unrecordedSet(NINTYSIX, BLUE);
+        _board[NINTY] = RED;
+        _board[THIRTY] = RED;
+        _board[TWENTYFOUR] = BLUE;
+        _board[NINTYSIX] = BLUE;
 
         countyCounter();
+        _key = computeZobristKey();
 
         announce();
     }
 
-    /** Counting of pieces helper function which updates numpieces.*/
+    /** Counting of pieces helper function which updates numpieces.
+     *  This rescans the whole board, and so is used only when the
+     *  board is reset; moves keep the counts up to date as they go. */
     private void countyCounter() {
+        int[] counts = countPieces();
+        System.arraycopy(counts, 0, _numPieces, 0, counts.length);
+    }
 
-        _numPieces[EMPTY.ordinal()] = 0;
-        _numPieces[BLOCKED.ordinal()] = 0;
-        _numPieces[RED.ordinal()] = 0;
-        _numPieces[BLUE.ordinal()] = 0;
+    /** Return the number of squares of each color on the board, counted
+     *  from scratch and indexed by ordinal. */
+    private int[] countPieces() {
+        int[] counts = new int[_numPieces.length];
+        for (PieceColor p : _board) {
+            counts[p.ordinal()]++;
+        }
+        return counts;
+    }
 
-        for (int index = 0; index < _board.length; index++) {
-            if (_board[index] == BLOCKED) {
-                _numPieces[BLOCKED.ordinal()]++;
+    /** Cause all boards to check their incrementally maintained piece
+     *  counts against a full recount after each move and undo iff ON.
+     *  This is expensive, and intended for testing. */
+    static void setCheckCounts(boolean on) {
+        _checkCounts = on;
+    }
 
-            } else if (_board[index] == EMPTY) {
-                _numPieces[EMPTY.ordinal()]++;
+    /** If checking is enabled, verify that the piece counts and
+     *  features (if any) are consistent with the board contents. */
+    private void checkCounts() {
+        if (_checkCounts
+            && !Arrays.equals(countPieces(), _numPieces)) {
+            throw new Error(String.format("Internal failure: piece counts "
+                                          + "%s should be %s",
+                                          Arrays.toString(_numPieces),
+                                          Arrays.toString(countPieces())));
+        }
+        if (_checkCounts && _features != null
+            && !_features.equals(new BoardFeatures(this))) {
+            throw new Error(String.format("Internal failure: features "
+                                          + "%s should be %s", _features,
+                                          new BoardFeatures(this)));
+        }
+    }
 
-            } else if (_board[index] == BLUE) {
-                _numPieces[BLUE.ordinal()]++;
-            } else {
-                _numPieces[RED.ordinal()]++;
-            }
+    /** Return the positional features of my pieces.  They are counted
+     *  when first requested (and again after a clear or setup), and from
+     *  then on kept up to date incrementally by moves and undos, which
+     *  makes those somewhat slower.  Copies of me count their own. */
+    BoardFeatures features() {
+        if (_features == null) {
+            _features = new BoardFeatures(this);
         }
+        return _features;
     }
 
     /** Return the winner, if there is one yet, and otherwise null.  Returns
@@ -231,36 +272,63 @@ class Board {
      *  undoable. */
     private void set(int sq, PieceColor v) {
         addUndo(sq);
-        _board[sq] = v;
+        unrecordedSet(sq, v);
     }
 
     /** Set square at C R to V (not undoable). This is used for changing
      * contents of the board without updating the undo stacks. */
     private void unrecordedSet(char c, char r, PieceColor v) {
-        _board[index(c, r)] = v;
+        unrecordedSet(index(c, r), v);
     }
 
     /** Set square at linearized index SQ to V (not undoable). This is used
-     * for changing contents of the board without updating the undo stacks. */
+     * for changing contents of the board without updating the undo stacks.
+     * Piece counts and features are adjusted for the change. */
     private void unrecordedSet(int sq, PieceColor v) {
+        if (_features != null) {
+            _features.change(sq, _board[sq], v);
+        }
+        incrPieces(_board[sq], -1);
+        incrPieces(v, 1);
+        _key ^= ZOBRIST[_board[sq].ordinal()][sq] ^ ZOBRIST[v.ordinal()][sq];
         _board[sq] = v;
     }
 
-    /** Return true iff MOVE is legal on the current board. */
-    boolean legalMove(Move move) {
+    /** Return a 64-bit Zobrist hash of the current position: the
+     *  contents of all squares and the side to move.  Equal positions
+     *  have equal keys, and unequal positions almost certainly have
+     *  different ones.  The key is maintained incrementally as squares
+     *  change, so this is constant time. */
+    long zobristKey() {
+        return _key;
+    }
 
+    /** Return the part of the Zobrist key contributed by P on the square
+     *  with linearized index SQ (0 if P is EMPTY). */
+    static long zobrist(PieceColor p, int sq) {
+        return ZOBRIST[p.ordinal()][sq];
+    }
 
-        if (move == null) {
-            return false;
+    /** Return the Zobrist key of the current position computed from
+     *  scratch.  Always equal to zobristKey(). */
+    long computeZobristKey() {
+        long key = _whoseMove == BLUE ? BLUE_TO_MOVE : 0;
+        for (int sq = 0; sq < _board.length; sq += 1) {
+            key ^= ZOBRIST[_board[sq].ordinal()][sq];
         }
+        return key;
+    }
+
+    /** Return true iff MOVE is legal on the current board. */
+    boolean legalMove(Move move) {
 
 
-        if (canMove(_whoseMove) && move.equals(Move.PASS)) {
+        if (move == null) {
             return false;
         }
 
-        if (move.equals(Move.PASS)) {
-            return true;
+        if (move.isPass()) {
+            return !canMove(_whoseMove);
         }
 
         if (get(move.toIndex()) == _whoseMove.opposite()
@@ -373,7 +441,6 @@ class Board {
 
     /** Separated from result, uses PASSEDMOVE to complete.*/
     void helper(Move passedmove) {
-        PieceColor opponent = _whoseMove.opposite();
         int linearTo = passedmove.toIndex();
         PieceColor oppositeColor = _whoseMove.opposite();
         for (int vert = -1; vert <= 1; vert++) {
@@ -381,8 +448,6 @@ class Board {
                 int totalIndex = linearTo + (vert * 11) + horiz;
                 if (get(totalIndex).equals(oppositeColor)) {
                     set(totalIndex, _whoseMove);
-                    _undoPieces.add(opponent);
-
                 }
             }
         }
@@ -393,12 +458,13 @@ class Board {
         if (!legalMove(move)) {
             throw error("Illegal move: %s", move);
         }
+        countCall();
         if (move.isPass()) {
             pass();
             return;
         }
-        _allMoves.add(move);
         startUndo();
+        _allMoves.add(move);
         PieceColor opponent = _whoseMove.opposite();
         if (move.isExtend()) {
             _numJumps = 0;
@@ -407,13 +473,10 @@ class Board {
         }
         if (move.isJump()) {
             set(move.fromIndex(), EMPTY);
-            _undoPieces.add(_whoseMove);
             set(move.toIndex(), _whoseMove);
             _numJumps++;
         }
-        _undoPieces.add(EMPTY);
         helper(move);
-        countyCounter();
         int us = _numPieces[_whoseMove.ordinal()];
         int them = _numPieces[opponent.ordinal()];
         if (!canMove(RED) && !canMove(BLUE)) {
@@ -439,6 +502,8 @@ class Board {
             }
         }
         _whoseMove = _whoseMove.opposite();
+        _key ^= BLUE_TO_MOVE;
+        checkCounts();
         announce();
     }
 
@@ -447,6 +512,7 @@ class Board {
     void pass() {
         assert !canMove(_whoseMove);
 
+        startUndo();
         int us = _numPieces[_whoseMove.ordinal()];
         int them = _numPieces[_whoseMove.opposite().ordinal()];
 
@@ -464,55 +530,71 @@ class Board {
             }
         }
 
-        startUndo();
         _allMoves.add(Move.pass());
-        _undoPieces.add(null);
-        _undoSquares.add(ONETHOUSAND);
         _whoseMove = _whoseMove.opposite();
+        _key ^= BLUE_TO_MOVE;
         announce();
     }
 
-    /** Undo the last move. */
+    /** Undo the last move.  The squares, counts, jump count, and winner
+     *  are all restored exactly from the undo journal. */
     void undo() {
-
-        int realIndex = _allMoves.size() - 1;
-
-        if (_allMoves.get(realIndex).isJump()) {
-            _numJumps--;
-        }
-
-        if (_allMoves.get(realIndex).isPass()) {
-            _undoSquares.pop();
-            _undoPieces.pop();
-        }
-        while (_undoSquares.peek() != null) {
-            int restoreSpot = _undoSquares.pop();
-            PieceColor restoreColor = _undoPieces.pop();
-            _board[restoreSpot] = restoreColor;
+        countCall();
+        int frame = _allMoves.size() - 1;
+        int start = _frameStart[frame];
+        while (_undoTop > start) {
+            _undoTop -= 1;
+            int sq = _undoSquares[_undoTop];
+            PieceColor old = PIECES[_undoPieces[_undoTop]];
+            if (_features != null) {
+                _features.change(sq, _board[sq], old);
+            }
+            _board[sq] = old;
         }
-
-        _undoSquares.pop();
-        _undoPieces.pop();
-
-        countyCounter();
+        System.arraycopy(_frameCounts, frame * _numPieces.length,
+                         _numPieces, 0, _numPieces.length);
+        _numJumps = _frameJumps[frame];
+        _winner = _frameWinner[frame] == 0
+            ? null : PIECES[_frameWinner[frame] - 1];
+        _key = _frameKeys[frame];
+        checkCounts();
 
         _whoseMove = _whoseMove.opposite();
-        _allMoves.remove(_allMoves.size() - 1);
-        _winner = null;
+        _allMoves.remove(frame);
         announce();
     }
 
-    /** Indicate beginning of a move in the undo stack. See the
-     * _undoSquares and _undoPieces instance variable comments for
-     * details on how the beginning of moves are marked. */
+    /** Indicate beginning of a move in the undo journal, recording the
+     *  state that is not restored square by square.  Must be called
+     *  before the move is added to _allMoves. */
     private void startUndo() {
-        _undoSquares.add(null);
-        _undoPieces.add(null);
+        int frame = _allMoves.size();
+        if (frame == _frameStart.length) {
+            _frameStart = Arrays.copyOf(_frameStart, 2 * frame);
+            _frameJumps = Arrays.copyOf(_frameJumps, 2 * frame);
+            _frameWinner = Arrays.copyOf(_frameWinner, 2 * frame);
+            _frameCounts =
+                Arrays.copyOf(_frameCounts, 2 * _frameCounts.length);
+            _frameKeys = Arrays.copyOf(_frameKeys, 2 * frame);
+        }
+        _frameStart[frame] = _undoTop;
+        _frameJumps[frame] = _numJumps;
+        _frameWinner[frame] =
+            (byte) (_winner == null ? 0 : _winner.ordinal() + 1);
+        System.arraycopy(_numPieces, 0, _frameCounts,
+                         frame * _numPieces.length, _numPieces.length);
+        _frameKeys[frame] = _key;
     }
 
     /** Add an undo action for changing SQ on current board. */
     private void addUndo(int sq) {
-        _undoSquares.add(sq);
+        if (_undoTop == _undoSquares.length) {
+            _undoSquares = Arrays.copyOf(_undoSquares, 2 * _undoTop);
+            _undoPieces = Arrays.copyOf(_undoPieces, 2 * _undoTop);
+        }
+        _undoSquares[_undoTop] = sq;
+        _undoPieces[_undoTop] = (byte) _board[sq].ordinal();
+        _undoTop += 1;
     }
 
     /** Return true iff it is legal to place a block at C R. */
@@ -580,7 +662,7 @@ class Board {
     /** Return a list of all moves made since the last clear (or start of
      *  game). */
     List<Move> allMoves() {
-        return new ArrayList<Move>();
+        return new ArrayList<Move>(_allMoves);
     }
 
     @Override
@@ -594,12 +676,19 @@ class Board {
             return false;
         }
         Board other = (Board) obj;
-        return Arrays.equals(_board, other._board);
+        return squaresKey() == other.squaresKey()
+            && Arrays.equals(_board, other._board);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(_board);
+        return Long.hashCode(squaresKey());
+    }
+
+    /** Return the part of the Zobrist key that depends only on the
+     *  contents of the squares, which is all that equals compares. */
+    private long squaresKey() {
+        return _whoseMove == BLUE ? _key ^ BLUE_TO_MOVE : _key;
     }
 
     /** Return a text depiction of the board.  If LEGEND, supply row and
@@ -637,6 +726,99 @@ class Board {
         return out.toString();
     }
 
+    /** Return my position as a board string: the seven rows from 7 down
+     *  to 1, separated by '/', each giving the contents of columns a-g as
+     *  'r' (red), 'b' (blue), 'X' (block), or a digit denoting that many
+     *  consecutive empty squares, followed by a blank and the color
+     *  ('r' or 'b') of the player to move.  For example, the initial
+     *  position is "r5b/7/7/7/7/7/b5r r".  See setup. */
+    String boardString() {
+        StringBuilder out = new StringBuilder();
+        for (char r = '7'; r >= '1'; r -= 1) {
+            int empty = 0;
+            for (char c = 'a'; c <= 'g'; c += 1) {
+                PieceColor p = get(c, r);
+                if (p == EMPTY) {
+                    empty += 1;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append(empty);
+                    empty = 0;
+                }
+                out.append(p == RED ? 'r' : p == BLUE ? 'b' : 'X');
+            }
+            if (empty > 0) {
+                out.append(empty);
+            }
+            out.append(r == '1' ? ' ' : '/');
+        }
+        out.append(_whoseMove == RED ? 'r' : 'b');
+        return out.toString();
+    }
+
+    /** Clear me and set my contents from POSITION, a board string as
+     *  produced by boardString.  The letters are not case-sensitive, and
+     *  '-' may also be used for an empty square.  The player to move
+     *  defaults to red if omitted.  The move history is cleared, so the
+     *  position cannot be undone, and the winner is set if the game is
+     *  already over.  Throws a GameException if POSITION is malformed. */
+    void setup(String position) {
+        String[] parts = position.trim().split("\\s+");
+        String[] rows = parts[0].split("/");
+        if (rows.length != SIDE || parts.length > 2) {
+            throw error("bad board string: %s", position);
+        }
+        PieceColor[] squares = new PieceColor[SIDE * SIDE];
+        int k = 0;
+        for (String row : rows) {
+            int end = k + SIDE;
+            for (char ch : row.toLowerCase().toCharArray()) {
+                if (ch >= '1' && ch <= '7') {
+                    for (int n = ch - '0'; n > 0 && k < end; n -= 1) {
+                        squares[k++] = EMPTY;
+                    }
+                } else if (k < end && "rbx-".indexOf(ch) >= 0) {
+                    squares[k++] = ch == 'r' ? RED : ch == 'b' ? BLUE
+                        : ch == 'x' ? BLOCKED : EMPTY;
+                } else {
+                    throw error("bad board string: %s", position);
+                }
+            }
+            if (k != end) {
+                throw error("bad board string: %s", position);
+            }
+        }
+        PieceColor toMove = RED;
+        if (parts.length == 2) {
+            if (parts[1].equalsIgnoreCase("b")) {
+                toMove = BLUE;
+            } else if (!parts[1].equalsIgnoreCase("r")) {
+                throw error("bad board string: %s", position);
+            }
+        }
+
+        clear();
+        _numJumps = 0;
+        _whoseMove = toMove;
+        k = 0;
+        for (char r = '7'; r >= '1'; r -= 1) {
+            for (char c = 'a'; c <= 'g'; c += 1) {
+                _board[index(c, r)] = squares[k++];
+            }
+        }
+        countyCounter();
+        _key = computeZobristKey();
+        _totalOpen = numPieces(EMPTY);
+        _features = null;
+
+        int red = numPieces(RED), blue = numPieces(BLUE);
+        if (red == 0 || blue == 0 || (!canMove(RED) && !canMove(BLUE))) {
+            _winner = red > blue ? RED : blue > red ? BLUE : EMPTY;
+        }
+        announce();
+    }
+
     /** Set my notifier to NOTIFY. */
     public void setNotifier(Consumer<Board> notify) {
         _notifier = notify;
@@ -645,7 +827,35 @@ class Board {
 
     /** Take any action that has been set for a change in my state. */
     private void announce() {
+        Events.Announce event = _announce;
+        event.begin();
         _notifier.accept(this);
+        if (event.isEnabled()) {
+            _announce = new Events.Announce();
+            if (event.shouldCommit()) {
+                event.moveNumber = numMoves();
+                event.commit();
+            }
+        }
+    }
+
+    /** Count a call of makeMove or undo toward the current
+     *  Events.MoveBurst, committing it and starting the next every
+     *  Events.BURST_CALLS calls. */
+    private void countCall() {
+        if ((_burstCalls++ & (Events.BURST_CALLS - 1)) != 0) {
+            return;
+        }
+        Events.MoveBurst event = _burst;
+        if (event.isEnabled()) {
+            _burst = new Events.MoveBurst();
+            if (_burstCalls > 1 && event.shouldCommit()) {
+                event.calls = Events.BURST_CALLS;
+                event.moveNumber = numMoves();
+                event.commit();
+            }
+        }
+        _burst.begin();
     }
 
     /** A notifier that does nothing. */
@@ -680,27 +890,105 @@ class Board {
     /** Total number of unblocked squares. */
     private int _totalOpen;
 
-    /** Number of blue and red pieces, indexed by the ordinal positions of
-     *  enumerals BLUE and RED. */
+    /** Number of squares of each color (including the blocked border),
+     *  indexed by the ordinal positions of the enumerals.  Kept up to date
+     *  by unrecordedSet as individual squares change. */
     private int[] _numPieces = new int[BLUE.ordinal() + 1];
 
+    /** Feature counts maintained for features(), or null if they have
+     *  not been requested since the last clear. */
+    private BoardFeatures _features;
+
+    /* Flight-recorder events.  While they are disabled, each Board
+     * reuses one of each, so that making and undoing moves still
+     * allocates nothing. */
+
+    /** The event for the next call of announce. */
+    private Events.Announce _announce = new Events.Announce();
+
+    /** The event for the current burst of makeMove and undo calls. */
+    private Events.MoveBurst _burst = new Events.MoveBurst();
+
+    /** Number of calls of makeMove and undo so far. */
+    private int _burstCalls;
+
     /** Set to winner when game ends (EMPTY if tie).  Otherwise is null. */
     private PieceColor _winner;
 
+    /** True iff boards should verify their piece counts after each
+     *  change (see setCheckCounts). */
+    private static boolean _checkCounts;
+
     /** List of all (non-undone) moves since the last clear or beginning of
      *  the game. */
     private ArrayList<Move> _allMoves;
 
-    /* The undo stack. We keep a stack of squares that have changed and
-     * their previous contents.  Any given move may involve several such
-     * changes, so we mark the start of the changes for each move (including
-     * passes) with a null. */
+    /* The undo journal.  We keep a stack of squares that have changed and
+     * their previous contents, in parallel primitive arrays.  Any given
+     * move may involve several such changes, so for each move (including
+     * passes) we record a frame: the journal position at which its changes
+     * start, plus the jump count, winner, and piece counts before it.
+     * Frames are indexed by move number, i.e., by position in _allMoves.
+     * The arrays grow as needed and are never shrunk, so that making and
+     * undoing moves allocates no storage once they are large enough. */
+
+    /** Initial sizes of the journal and frame arrays. */
+    private static final int INITIAL_UNDO_SIZE = 256, INITIAL_FRAMES = 64;
+
+    /** All PieceColors, indexed by ordinal. */
+    private static final PieceColor[] PIECES = PieceColor.values();
+
+    /** Linearized indices of squares that have been modified and not
+     *  undone. */
+    private int[] _undoSquares;
+
+    /** Ordinals of the pieces formerly at corresponding squares in
+     *  _UNDOSQUARES. */
+    private byte[] _undoPieces;
+
+    /** Number of entries in use in _undoSquares and _undoPieces. */
+    private int _undoTop;
+
+    /** _frameStart[K] is the value of _undoTop before move #K. */
+    private int[] _frameStart;
+
+    /** _frameJumps[K] is the value of _numJumps before move #K. */
+    private int[] _frameJumps;
+
+    /** _frameWinner[K] is 0 if _winner was null before move #K, and
+     *  otherwise 1 + its ordinal. */
+    private byte[] _frameWinner;
+
+    /** Copies of _numPieces before each move, concatenated. */
+    private int[] _frameCounts;
+
+    /** _frameKeys[K] is the value of _key before move #K. */
+    private long[] _frameKeys;
+
+    /** Seed for the Zobrist keys.  It is fixed, so that keys are the same
+     *  in every run and may be saved in files. */
+    private static final long ZOBRIST_SEED = 0x61BA7A11L;
+
+    /** ZOBRIST[P][SQ] is the random key contributed by a piece with
+     *  ordinal P at linearized index SQ.  Empty squares contribute 0. */
+    private static final long[][] ZOBRIST =
+        new long[PIECES.length][EXTENDED_SIDE * EXTENDED_SIDE];
+
+    /** Key contributed when blue is to move. */
+    static final long BLUE_TO_MOVE;
+
+    static {
+        Random random = new Random(ZOBRIST_SEED);
+        for (PieceColor p : PIECES) {
+            for (int sq = 0; p != EMPTY && sq < ZOBRIST[0].length; sq += 1) {
+                ZOBRIST[p.ordinal()][sq] = random.nextLong();
+            }
+        }
+        BLUE_TO_MOVE = random.nextLong();
+    }
 
-    /** Stack of linearized indices of squares that have been modified and
-     *  not undone. Nulls mark the beginnings of full moves. */
-    private Stack<Integer> _undoSquares;
+    /** Zobrist key of the current position (see zobristKey). */
+    private long _key;
 
-    /** Stack of pieces formally at corresponding squares in _UNDOSQUARES. */
-    private Stack<PieceColor> _undoPieces;
 
 }
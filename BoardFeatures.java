@@ -0,0 +1,127 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.Arrays;
+
+import static ataxx.BitBoard.*;
+import static ataxx.PieceColor.*;
+
+/** Positional features of the pieces on a Board, for use by
+ *  FeatureEvaluator.  For each color, these are
+ *  <ul>
+ *  <li> its reach: the number of empty squares adjacent to one of its
+ *       pieces, which is the number of extends it has (an estimate of its
+ *       mobility);
+ *  <li> its exposure: the number of pairs of one of its pieces and an
+ *       adjacent empty square, from which an opponent could capture
+ *       that piece;
+ *  <li> its stable pieces: those with no adjacent empty squares, which
+ *       cannot be captured (until a jump vacates a neighbor);
+ *  <li> its edge and corner pieces (edges not including the corners).
+ *  </ul>
+ *  The features are computed from masks of the squares holding each kind
+ *  of piece, in the format of BitBoard, with a few shifts and population
+ *  counts.  A Board that has created its BoardFeatures keeps the masks up
+ *  to date as squares change and are restored on undo, by calling change,
+ *  which takes constant time.
+ *  @author Katrina Sharonin
+ */
+class BoardFeatures {
+
+    /** Features of BOARD, computed from scratch. */
+    BoardFeatures(Board board) {
+        for (int sq : MoveGenerator.PLAYABLE) {
+            _masks[board.get(sq).ordinal()] |= 1L << INDEX_TO_BIT[sq];
+        }
+    }
+
+    /** Return the number of empty squares adjacent to COLOR's pieces. */
+    int reach(PieceColor color) {
+        return Long.bitCount(grow(mask(color)) & mask(EMPTY));
+    }
+
+    /** Return the number of pairs of a COLOR piece and an adjacent empty
+     *  square. */
+    int exposure(PieceColor color) {
+        long pieces = mask(color), empty = mask(EMPTY);
+        long east = (pieces << 1) & ~FILE_A & ALL,
+            west = (pieces >>> 1) & ~FILE_G;
+        return Long.bitCount(east & empty) + Long.bitCount(west & empty)
+            + Long.bitCount((pieces << SIDE) & empty)
+            + Long.bitCount((pieces >>> SIDE) & empty)
+            + Long.bitCount((east << SIDE) & empty)
+            + Long.bitCount((east >>> SIDE) & empty)
+            + Long.bitCount((west << SIDE) & empty)
+            + Long.bitCount((west >>> SIDE) & empty);
+    }
+
+    /** Return the number of COLOR pieces with no adjacent empty
+     *  square. */
+    int stable(PieceColor color) {
+        return Long.bitCount(mask(color) & ~grow(mask(EMPTY)));
+    }
+
+    /** Return the number of COLOR pieces on the edges of the board, not
+     *  counting corners. */
+    int edges(PieceColor color) {
+        return Long.bitCount(mask(color) & EDGES);
+    }
+
+    /** Return the number of COLOR pieces in the corners of the board. */
+    int corners(PieceColor color) {
+        return Long.bitCount(mask(color) & CORNERS);
+    }
+
+    /** Record that the contents of the square with linearized index SQ
+     *  are changing from OLD to NOW. */
+    void change(int sq, PieceColor old, PieceColor now) {
+        long bit = 1L << INDEX_TO_BIT[sq];
+        _masks[old.ordinal()] ^= bit;
+        _masks[now.ordinal()] ^= bit;
+    }
+
+    /** Return the mask of squares containing P. */
+    private long mask(PieceColor p) {
+        return _masks[p.ordinal()];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof BoardFeatures
+            && Arrays.equals(_masks, ((BoardFeatures) obj)._masks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(_masks);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (PieceColor c : new PieceColor[] { RED, BLUE }) {
+            out.append(String.format("%s: reach %d, exposure %d, stable %d,"
+                                     + " edges %d, corners %d; ", c,
+                                     reach(c), exposure(c), stable(c),
+                                     edges(c), corners(c)));
+        }
+        return out.toString();
+    }
+
+    /** The corner squares. */
+    private static final long CORNERS =
+        1L | 1L << (SIDE - 1) | 1L << (SQUARES - SIDE) | 1L << (SQUARES - 1);
+
+    /** The edge squares other than the corners. */
+    private static final long EDGES =
+        (FILE_A | FILE_G | ((1L << SIDE) - 1)
+         | (((1L << SIDE) - 1) << (SQUARES - SIDE))) & ~CORNERS;
+
+    /** Masks of the squares holding each kind of piece, indexed by
+     *  ordinal. */
+    private final long[] _masks = new long[PieceColor.values().length];
+
+}
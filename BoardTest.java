@@ -4,6 +4,10 @@
 
 package ataxx;
 
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.Test;
 
 import static ataxx.PieceColor.*;
@@ -335,6 +339,156 @@ public class BoardTest {
         assertEquals("wrong bluePieces", 12, b.bluePieces());
     }
 
+    @Test
+    public void testIncrementalCounts() {
+        Board.setCheckCounts(true);
+        try {
+            Random random = new Random(42);
+            for (int game = 0; game < 20; game += 1) {
+                Board b = new Board();
+                b.setBlock('b', '3');
+                assertEquals("blocks not counted",
+                             4 + 121 - 49, b.numPieces(BLOCKED));
+                int moves;
+                for (moves = 0; b.getWinner() == null; moves += 1) {
+                    List<Move> legal = MoveGenerator.legalMoves(b);
+                    b.makeMove(legal.get(random.nextInt(legal.size())));
+                }
+                for (; moves > 0; moves -= 1) {
+                    b.undo();
+                }
+                assertEquals("wrong empty count", 41, b.numPieces(EMPTY));
+                assertEquals("redPieces not 2", 2, b.redPieces());
+                assertEquals("bluePieces not 2", 2, b.bluePieces());
+            }
+        } finally {
+            Board.setCheckCounts(false);
+        }
+    }
+
+    @Test
+    public void testUndoAllocation() {
+        java.lang.management.ThreadMXBean bean0 =
+            ManagementFactory.getThreadMXBean();
+        if (!(bean0 instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean bean =
+            (com.sun.management.ThreadMXBean) bean0;
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        Board b = new Board();
+        Random random = new Random(7);
+        while (b.getWinner() == null) {
+            List<Move> legal = MoveGenerator.legalMoves(b);
+            b.makeMove(legal.get(random.nextInt(legal.size())));
+        }
+        Move[] game = b.allMoves().toArray(new Move[0]);
+        assertEquals("allMoves incomplete", b.numMoves(), game.length);
+        b = new Board();
+
+        long allocated = 0;
+        for (int round = 0; round < 2; round += 1) {
+            long before = bean.getThreadAllocatedBytes(thread);
+            for (int k = 0; k < 2000; k += 1) {
+                for (int i = 0; i < game.length; i += 1) {
+                    b.makeMove(game[i]);
+                }
+                for (int i = 0; i < game.length; i += 1) {
+                    b.undo();
+                }
+            }
+            allocated = bean.getThreadAllocatedBytes(thread) - before;
+        }
+        assertEquals("make/undo allocated storage", 0, allocated);
+    }
+
+    @Test
+    public void testZobrist() {
+        Random random = new Random(1961);
+        for (int game = 0; game < 20; game += 1) {
+            Board b = new Board();
+            assertEquals("wrong initial key", b.computeZobristKey(),
+                         b.zobristKey());
+            long start = b.zobristKey();
+            b.setBlock('c', '2');
+            assertNotEquals("block did not change key", start,
+                            b.zobristKey());
+            assertEquals("wrong key after block", b.computeZobristKey(),
+                         b.zobristKey());
+            for (int step = 0; step < 300; step += 1) {
+                if (b.numMoves() > 0
+                    && (b.getWinner() != null || random.nextInt(3) == 0)) {
+                    b.undo();
+                } else {
+                    List<Move> legal = MoveGenerator.legalMoves(b);
+                    b.makeMove(legal.get(random.nextInt(legal.size())));
+                }
+                assertEquals("incremental key differs from recomputed",
+                             b.computeZobristKey(), b.zobristKey());
+                Board copy = new Board(b);
+                assertEquals("copy has different key", b.zobristKey(),
+                             copy.zobristKey());
+            }
+        }
+    }
+
+    @Test
+    public void testZobristTranspositions() {
+        Board b0 = new Board(), b1 = new Board();
+        makeMoves(b0, new String[] { "a7-a6", "a1-a2", "g1-g2", "g7-g6" });
+        makeMoves(b1, new String[] { "g1-g2", "g7-g6", "a7-a6", "a1-a2" });
+        assertEquals("transposed positions have different keys",
+                     b0.zobristKey(), b1.zobristKey());
+        assertEquals("equal boards have different hashes",
+                     b0.hashCode(), b1.hashCode());
+        b0.makeMove('a', '6', 'b', '7');
+        b1.makeMove('a', '7', 'b', '7');
+        assertEquals("extends to the same square differ",
+                     b0.zobristKey(), b1.zobristKey());
+        b0.undo();
+        assertNotEquals("side to move not in key",
+                        b0.zobristKey(), b1.zobristKey());
+    }
+
+    @Test
+    public void testBoardString() {
+        Board b = new Board();
+        assertEquals("wrong initial board string", "r5b/7/7/7/7/7/b5r r",
+                     b.boardString());
+        b.setBlock('c', '5');
+        makeMoves(b, new String[] { "a7-b6", "g7-e7" });
+        Board c = new Board();
+        c.setup(b.boardString());
+        assertEquals("setup does not reproduce board", b, c);
+        assertEquals("wrong player to move", RED, c.whoseMove());
+        assertEquals("wrong key after setup", b.zobristKey(),
+                     c.zobristKey());
+        assertEquals("wrong counts after setup", b.numPieces(BLUE),
+                     c.numPieces(BLUE));
+        assertEquals("setup has history", 0, c.numMoves());
+
+        c.setup("R5B/7/7/7/7/7/B5R b");
+        assertEquals("wrong player to move", BLUE, c.whoseMove());
+        c.setup("r------/7/7/7/7/7/7");
+        assertEquals("wrong winner", RED, c.getWinner());
+        for (String bad : new String[] { "r5b/7/7/7/7/7 r",
+                                         "r6b/7/7/7/7/7/b5r r",
+                                         "r5b/7/7/7/7/7/b5r g",
+                                         "r5q/7/7/7/7/7/b5r r" }) {
+            try {
+                c.setup(bad);
+                fail("accepted bad board string " + bad);
+            } catch (GameException excp) {
+                /* Expected. */
+            }
+        }
+    }
+
     private static final String[] GAME1 = {
         "a7-b7", "a1-a2",
         "a7-a6", "a2-a3",
@@ -0,0 +1,333 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import ucb.util.CommandArgs;
+
+import static ataxx.PieceColor.*;
+
+/** Builds an OpeningBook file from games and analyses.  The sources
+ *  are self-play games played by the builder, files of games in the form
+ *  written by Tournament's --log option, and files of results of Main's
+ *  --analyze mode.  For each position in the first few plies of a game,
+ *  the move played from it is credited with the game's result for the
+ *  player who made it; random opening moves (those before the "|" in a
+ *  tournament log) lead to positions, but are not themselves credited.
+ *  Each analysis result counts as a game won by its best move.
+ *  Results are aggregated by position and move in memory, positions
+ *  equivalent under symmetry (see Symmetry) together, and written
+ *  sorted.
+ *  @author Katrina Sharonin
+ */
+public class BookBuilder {
+
+    /** Location of usage message resource. */
+    static final String USAGE = "ataxx/BookBuilderUsage.txt";
+
+    /** Default number of plies from the start of a game recorded. */
+    static final int DEFAULT_PLIES = 12;
+
+    /** Default search depth of self-play games. */
+    static final int DEFAULT_DEPTH = 3;
+
+    /** Default maximum number of random plies and blocks starting each
+     *  self-play game. */
+    static final int DEFAULT_RANDOM = 2, DEFAULT_BLOCKS = 2;
+
+    /** Build a book.  Usage:
+     *      java ataxx.BookBuilder --output=FILE [ --selfplay=N ]
+     *                             [ --depth=D ] [ --plies=P ]
+     *                             [ --random=R ] [ --blocks=B ]
+     *                             [ --seed=S ] [ --threads=T ] [ FILE ... ]
+     *  See BookBuilderUsage.txt for details.  ARGS0 are the command-line
+     *  arguments. */
+    public static void main(String[] args0) {
+        CommandArgs args =
+            new CommandArgs("--output=(.+) --selfplay=(\\d+){0,1}"
+                            + " --depth=(\\d+){0,1} --plies=(\\d+){0,1}"
+                            + " --random=(\\d+){0,1} --blocks=(\\d+){0,1}"
+                            + " --seed=(\\d+){0,1} --threads=(\\d+){0,1}"
+                            + " --=(.+){0,}", args0);
+        if (!args.ok() || !args.contains("--output")) {
+            Utils.printHelpResource(USAGE, System.err);
+            System.exit(1);
+        }
+        BookBuilder builder =
+            new BookBuilder(args.contains("--plies")
+                            ? args.getInt("--plies") : DEFAULT_PLIES);
+        try {
+            for (String name : args.get("--")) {
+                try (BufferedReader input =
+                     new BufferedReader(new FileReader(name))) {
+                    builder.read(input);
+                }
+            }
+            if (args.contains("--selfplay")) {
+                builder.selfPlay(
+                    args.getInt("--selfplay"),
+                    args.contains("--depth") ? args.getInt("--depth")
+                    : DEFAULT_DEPTH,
+                    args.contains("--random") ? args.getInt("--random")
+                    : DEFAULT_RANDOM,
+                    args.contains("--blocks") ? args.getInt("--blocks")
+                    : DEFAULT_BLOCKS,
+                    args.contains("--seed") ? args.getLong("--seed") : 0,
+                    args.contains("--threads") ? args.getInt("--threads")
+                    : Runtime.getRuntime().availableProcessors());
+            }
+            builder.write(Path.of(args.getFirst("--output")));
+        } catch (IOException | GameException excp) {
+            System.err.println(excp.getMessage());
+            System.exit(1);
+        }
+        System.out.printf("%d positions, %d entries%n",
+                          builder.positions(), builder.entries());
+    }
+
+    /** A builder recording the first PLIES plies of each game. */
+    BookBuilder(int plies) {
+        _plies = plies;
+    }
+
+    /** Credit MOVE, made on BOARD, with GAMES games and POINTS points (2
+     *  per win and 1 per draw).  The position is recorded by its
+     *  canonical key, and MOVE by its canonical image (see Symmetry), so
+     *  that symmetric positions and moves share entries. */
+    synchronized void add(Board board, Move move, int games, int points) {
+        int code = Symmetry.canonicalMove(board, move);
+        int[] totals = _entries
+            .computeIfAbsent(Symmetry.key(board), (k) -> new HashMap<>())
+            .computeIfAbsent(code, (k) -> new int[2]);
+        totals[0] += games;
+        totals[1] += points;
+    }
+
+    /** Credit the moves of a game in which WINNER won (EMPTY for a draw),
+     *  and which started with blocks at BLOCKS (each with its
+     *  reflections), followed by MOVES.  The first OPENING moves, and any
+     *  after the first _plies, are not credited. */
+    void addGame(List<String> blocks, List<Move> moves, int opening,
+                 PieceColor winner) {
+        Board board = new Board();
+        for (String block : blocks) {
+            board.setBlock(block);
+        }
+        for (int k = 0; k < moves.size() && k < _plies; k += 1) {
+            Move move = moves.get(k);
+            if (k >= opening) {
+                PieceColor mover = board.whoseMove();
+                add(board, move, 1,
+                    winner == mover ? 2 : winner == EMPTY ? 1 : 0);
+            }
+            board.makeMove(move);
+        }
+    }
+
+    /** Read games, in the form of Tournament's --log output, or results
+     *  of --analyze, one per line, from INPUT. */
+    void read(BufferedReader input) throws IOException {
+        for (String line = input.readLine(); line != null;
+             line = input.readLine()) {
+            line = line.trim();
+            if (line.startsWith("{")) {
+                readAnalysis(line);
+            } else if (!line.isEmpty()) {
+                readGame(line);
+            }
+        }
+    }
+
+    /** Credit the game described by LINE, a line of a tournament log: a
+     *  game number, the engine playing red, the result ("1-0", "0-1", or
+     *  "1/2"), the blocks ("-" for none), and the moves, with a "|" after
+     *  the random opening. */
+    private void readGame(String line) {
+        String[] words = line.split("\\s+");
+        if (words.length < 4 || !words[2].matches("1-0|0-1|1/2")) {
+            throw GameException.error("bad game record: %s", line);
+        }
+        PieceColor winner = words[2].equals("1-0") ? RED
+            : words[2].equals("0-1") ? BLUE : EMPTY;
+        List<String> blocks = words[3].equals("-") ? List.of()
+            : Arrays.asList(words[3].split(","));
+        ArrayList<Move> moves = new ArrayList<>();
+        int opening = 0;
+        for (String word : Arrays.asList(words).subList(4, words.length)) {
+            if (word.equals("|")) {
+                opening = moves.size();
+            } else if (word.matches("-|[a-g][1-7]-[a-g][1-7]")) {
+                moves.add(Move.move(word));
+            } else {
+                throw GameException.error("bad move in game record: %s",
+                                          word);
+            }
+        }
+        addGame(blocks, moves, opening, winner);
+    }
+
+    /** Credit the best move of the --analyze result LINE, if it has
+     *  one. */
+    private void readAnalysis(String line) {
+        Matcher position = POSITION.matcher(line),
+            best = BEST_MOVE.matcher(line);
+        if (!position.find() || !best.find()) {
+            return;
+        }
+        Board board = new Board();
+        board.setup(position.group(1));
+        Move move = Move.move(best.group(1));
+        if (move != null && board.legalMove(move)) {
+            add(board, move, 1, 2);
+        }
+    }
+
+    /** Play and credit GAMES self-play games between AIs searching to
+     *  DEPTH, on THREADS threads.  Each game begins with up to BLOCKS
+     *  blocks (each with its reflections) and then up to RANDOM random
+     *  plies, chosen using SEED. */
+    void selfPlay(int games, int depth, int random, int blocks, long seed,
+                  int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(
+            Math.max(1, threads));
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < games; i += 1) {
+                Random rand = new Random(seed * SEEDS + i);
+                results.add(pool.submit(() -> selfPlayGame(depth, random,
+                                                           blocks, rand)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException | ExecutionException excp) {
+            throw new Error("self-play game failed", excp);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Play and credit one self-play game, as for selfPlay(..., DEPTH,
+     *  RANDOM, BLOCKS, ...), making random choices with RAND. */
+    private void selfPlayGame(int depth, int random, int blocks,
+                              Random rand) {
+        Board board = new Board();
+        List<String> placed = new ArrayList<>();
+        for (int k = rand.nextInt(blocks + 1); k > 0; k -= 1) {
+            String sq = "" + (char) ('a' + rand.nextInt(Board.SIDE))
+                + (char) ('1' + rand.nextInt(Board.SIDE));
+            if (board.legalBlock(sq)) {
+                board.setBlock(sq);
+                placed.add(sq);
+            }
+        }
+        int opening = rand.nextInt(random + 1);
+        for (int k = 0; k < opening && board.getWinner() == null; k += 1) {
+            List<Move> moves = Perft.moves(board);
+            board.makeMove(moves.get(rand.nextInt(moves.size())));
+        }
+        AI[] players = new AI[2];
+        for (PieceColor color : new PieceColor[] { RED, BLUE }) {
+            AI ai = new AI(null, color, rand.nextLong());
+            ai.setMaxDepth(depth);
+            ai.setBook(null);
+            ai.setStats(null);
+            players[color.ordinal() - RED.ordinal()] = ai;
+        }
+        while (board.getWinner() == null) {
+            PieceColor mover = board.whoseMove();
+            board.makeMove(board.canMove(mover)
+                           ? players[mover.ordinal() - RED.ordinal()]
+                               .findMove(board)
+                           : Move.pass());
+        }
+        addGame(placed, board.allMoves(), opening, board.getWinner());
+    }
+
+    /** Return the number of distinct positions credited. */
+    synchronized int positions() {
+        return _entries.size();
+    }
+
+    /** Return the number of distinct position and move pairs
+     *  credited. */
+    synchronized long entries() {
+        long n = 0;
+        for (HashMap<Integer, int[]> moves : _entries.values()) {
+            n += moves.size();
+        }
+        return n;
+    }
+
+    /** Write the book to the file named NAME, in the format read by
+     *  OpeningBook.  Numbers of games too large for the format are scaled
+     *  down, with their points. */
+    synchronized void write(Path name) throws IOException {
+        Long[] keys = _entries.keySet().toArray(new Long[0]);
+        Arrays.sort(keys);
+        try (OutputStream file = Files.newOutputStream(name);
+             DataOutputStream out =
+             new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeLong(OpeningBook.MAGIC);
+            out.writeLong(entries());
+            for (long key : keys) {
+                HashMap<Integer, int[]> moves = _entries.get(key);
+                Integer[] codes = moves.keySet().toArray(new Integer[0]);
+                Arrays.sort(codes);
+                for (int code : codes) {
+                    int[] totals = moves.get(code);
+                    long games = totals[0], points = totals[1];
+                    if (games > MAX_GAMES) {
+                        points = points * MAX_GAMES / games;
+                        games = MAX_GAMES;
+                    }
+                    out.writeLong(key);
+                    out.writeShort(code);
+                    out.writeShort((int) games);
+                    out.writeInt((int) points);
+                }
+            }
+        }
+    }
+
+    /** Largest number of games in a book entry. */
+    private static final int MAX_GAMES = 0xffff;
+
+    /** Spacing of the random seeds of self-play runs with successive
+     *  seeds. */
+    private static final long SEEDS = 1000003;
+
+    /** The position and best move of an --analyze result. */
+    private static final Pattern
+        POSITION = Pattern.compile("\"position\":\"([^\"]*)\""),
+        BEST_MOVE = Pattern.compile("\"bestmove\":\"([^\"]*)\"");
+
+    /** Number of plies from the start of each game that are credited. */
+    private final int _plies;
+
+    /** Numbers of games and points credited to each move (by code) in
+     *  each position (by key). */
+    private final HashMap<Long, HashMap<Integer, int[]>> _entries =
+        new HashMap<>();
+}
@@ -18,7 +18,7 @@ class Command {
     /** A list of all commands. */
     private static final String[] COMMAND_NAMES = {
         "auto", "block", "board", "dump", "help", "manual",
-        "new", "q", "quiet", "quit", "seed", "undo", "verbose",
+        "new", "perft", "q", "quiet", "quit", "seed", "undo", "verbose",
     };
 
     /** Command types.  PIECEMOVE indicates a move of the form
@@ -27,10 +27,11 @@ class Command {
      *  programmer writes. */
     enum Type {
         COMMENT("#.*|$"),
-        AUTO("auto\\s+(red|blue)"),
+        AUTO("auto\\s+((?:red|blue)(?:\\s+(?:ai|mcts))?)"),
         BLOCK("block\\s+([a-g][1-7])"),
         MANUAL("manual\\s+(red|blue)"),
         SEED("seed\\s+(\\d+)"),
+        PERFT("perft\\s+(\\d+)(?:\\s+(.+))?"),
         START,
         /* Regular moves. */
         PIECEMOVE("(-|[a-g][1-7]-[a-g][1-7])"),
@@ -33,6 +33,9 @@ public class CommandTest {
     @Test public void testAUTO() {
         check("auto red", AUTO, "red");
         check("auto blue", AUTO, "blue");
+        check("auto red mcts", AUTO, "red mcts");
+        check("auto blue  ai", AUTO, "blue  ai");
+        checkError("auto red alphabeta");
         checkError("auto green");
         checkError("auto");
         checkError("auto red foo");
@@ -50,6 +53,14 @@ public class CommandTest {
         checkError("seed 142 foo");
     }
 
+    @Test public void testPERFT() {
+        check("perft 4", PERFT, "4", null);
+        check("perft 2 r5b/7/2x1x2/7/2x1x2/7/b5r b", PERFT, "2",
+              "r5b/7/2x1x2/7/2x1x2/7/b5r b");
+        checkError("perft");
+        checkError("perft x");
+    }
+
     @Test public void testSTART() {
         check("start", START);
         checkError("start foo");
@@ -0,0 +1,415 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ataxx.PieceColor.*;
+
+/** An exact solver for endgames: positions with so few empty squares
+ *  that the rest of the game can be searched to its end.  It proves a
+ *  win, draw, or loss for the player to move, and then, as far as its
+ *  limits allow, the final piece margin (the player to move's pieces
+ *  minus the opponent's at the end of the game) that both sides can
+ *  force, by full-depth negamax alpha-beta searches on a BitBoard.
+ *
+ *  The game ends as Board decides: when neither side can move, when one
+ *  side has no pieces, or after JUMP_LIMIT consecutive jumps, and a side
+ *  that cannot move while the other can must pass.  Since the value of a
+ *  position depends on how many jumps remain before the limit, the
+ *  solver's transposition-table key includes the jump count.  Jumps do
+ *  not fill squares, so even with one empty square the game can go on
+ *  for dozens of plies; it is the transposition table, and the null
+ *  window of the first search, that keep the trees small.  Before
+ *  searching the moves at a node, the solver probes the table for the
+ *  positions they lead to (enhanced transposition cutoffs), since one of
+ *  them may already be proven good enough to cut off without search.
+ *  That pays only with at least ETC_EMPTIES empty squares, more than
+ *  AIs solve at the default setting (DEFAULT_EMPTIES), so by default
+ *  those cutoffs are never tried (see setEtcEmpties).
+ *  @author Katrina Sharonin
+ */
+class EndgameSolver {
+
+    /** Default number of empty squares at or below which AIs solve
+     *  positions (see AI.setEndgame). */
+    static final int DEFAULT_EMPTIES = 3;
+
+    /** Default smallest number of empty squares at which enhanced
+     *  transposition cutoffs are tried (see setEtcEmpties).  Nearer the
+     *  end, probing every successor costs more than it saves. */
+    static final int ETC_EMPTIES = 4;
+
+    /** Default limit on the nodes visited by one solve. */
+    static final long DEFAULT_NODE_LIMIT = 500_000;
+
+    /** The result of a solve. */
+    static class Solution {
+
+        /** A solution for a position with EMPTIES empty squares in which
+         *  MOVER is to move: MOVE is best, and forces a final piece margin
+         *  of MARGIN for MOVER, or, unless EXACT, a margin at least as far
+         *  from 0 as MARGIN, with the same sign.  Solving took NANOS
+         *  nanoseconds and visited NODES nodes. */
+        Solution(PieceColor mover, Move move, int margin, boolean exact,
+                 int empties, long nodes, long nanos) {
+            _mover = mover;
+            _move = move;
+            _margin = margin;
+            _exact = exact;
+            _empties = empties;
+            _nodes = nodes;
+            _nanos = nanos;
+        }
+
+        /** Return the best move. */
+        Move move() {
+            return _move;
+        }
+
+        /** Return the final piece margin for the player to move given
+         *  best play by both sides, or a bound on it (see exact()). */
+        int margin() {
+            return _margin;
+        }
+
+        /** Return true iff margin() is exact, rather than the smallest
+         *  margin of victory (or largest of defeat) proven. */
+        boolean exact() {
+            return _exact;
+        }
+
+        /** Return the winner given best play, or EMPTY for a draw. */
+        PieceColor winner() {
+            return _margin > 0 ? _mover
+                : _margin < 0 ? _mover.opposite() : EMPTY;
+        }
+
+        /** Return the number of empty squares in the position. */
+        int empties() {
+            return _empties;
+        }
+
+        /** Return the number of nodes visited. */
+        long nodes() {
+            return _nodes;
+        }
+
+        /** Return the time taken in nanoseconds. */
+        long nanos() {
+            return _nanos;
+        }
+
+        @Override
+        public String toString() {
+            PieceColor winner = winner();
+            return String.format("%s: %s%s (%d empty, %d nodes, %d usec)",
+                                 _move,
+                                 winner == EMPTY ? "draw"
+                                 : winner + " wins by ",
+                                 winner == EMPTY ? ""
+                                 : (_exact ? "" : "at least ")
+                                 + Math.abs(_margin),
+                                 _empties, _nodes, _nanos / 1000);
+        }
+
+        /** Player to move. */
+        private final PieceColor _mover;
+        /** Best move. */
+        private final Move _move;
+        /** Final margin and number of empty squares. */
+        private final int _margin, _empties;
+        /** True iff _margin is exact. */
+        private final boolean _exact;
+        /** Nodes visited and time taken. */
+        private final long _nodes, _nanos;
+    }
+
+    /** A solver whose transposition table occupies at most MEGABYTES
+     *  megabytes. */
+    EndgameSolver(int megabytes) {
+        _table = new TranspositionTable(megabytes);
+    }
+
+    /** Return the number of empty squares on BOARD.  (This is not
+     *  BOARD.totalOpen() less the pieces, since totalOpen does not count
+     *  the squares of the initial pieces.) */
+    static int empties(Board board) {
+        return board.numPieces(EMPTY);
+    }
+
+    /** Discard the results of previous solves, so that later ones do not
+     *  depend on them. */
+    void clear() {
+        _table.clear();
+    }
+
+    /** Stop each solve once it has visited NODES nodes (never if 0). */
+    void setNodeLimit(long nodes) {
+        _nodeLimit = nodes;
+    }
+
+    /** Try enhanced transposition cutoffs at nodes with at least EMPTIES
+     *  empty squares.  Initially, ETC_EMPTIES, which is more than
+     *  DEFAULT_EMPTIES: nearer the end, the probes cost more than the
+     *  cutoffs save, so an AI at its default setting (see AI.setEndgame)
+     *  never tries them. */
+    void setEtcEmpties(int empties) {
+        _etcEmpties = empties;
+    }
+
+    /** Stop each solve once STOP is set (never if STOP is null), as if
+     *  a limit were reached. */
+    void setStopSignal(AtomicBoolean stop) {
+        _stop = stop;
+    }
+
+    /** Return the solution of BOARD, on which the game is not over, or
+     *  null if the node limit is reached, the stop signal is set (see
+     *  setStopSignal), or the time (as for System.nanoTime) reaches
+     *  DEADLINE (unless it is 0), before the outcome is proven.  If a
+     *  limit is reached after that, but before the margin is, the
+     *  solution's margin is not exact. */
+    Solution solve(Board board, long deadline) {
+        long start = System.nanoTime();
+        BitBoard b = new BitBoard(board);
+        _deadline = deadline;
+        _nodes = 0;
+        _stopped = false;
+        _table.newSearch();
+        int margin = negamax(b, 0, -1, 1);
+        if (_stopped) {
+            return null;
+        }
+        Move move = _bestMove;
+        boolean exact = margin == 0;
+        if (!exact) {
+            int bound = SQUARES + 1;
+            int value = margin > 0 ? negamax(b, 0, margin - 1, bound)
+                : negamax(b, 0, -bound, margin + 1);
+            if (!_stopped) {
+                margin = value;
+                move = _bestMove;
+                exact = true;
+            }
+        }
+        return new Solution(b.whoseMove(), move, margin, exact,
+                            empties(board), _nodes,
+                            System.nanoTime() - start);
+    }
+
+    /** Return the final margin for the player to move on BOARD, PLY
+     *  plies from the root, given best play, if it is strictly between
+     *  ALPHA and BETA.  Otherwise, return a value no greater than ALPHA
+     *  that is an upper bound on the margin, or one no less than BETA
+     *  that is a lower bound.  At the root (PLY 0), sets _bestMove. */
+    private int negamax(BitBoard board, int ply, int alpha, int beta) {
+        PieceColor me = board.whoseMove();
+        if (board.getWinner() != null) {
+            return board.numPieces(me) - board.numPieces(me.opposite());
+        }
+        _nodes += 1;
+        if (_nodes % CLOCK_CHECK_INTERVAL == 0 && outOfTime()) {
+            _stopped = true;
+            return 0;
+        }
+        long key = key(board);
+        long entry = _table.probe(key);
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (entry != TranspositionTable.NONE) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0) {
+                int score = TranspositionTable.score(entry);
+                switch (TranspositionTable.bound(entry)) {
+                case TranspositionTable.EXACT:
+                    return score;
+                case TranspositionTable.LOWER:
+                    alpha = Math.max(alpha, score);
+                    break;
+                default:
+                    beta = Math.min(beta, score);
+                    break;
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moves(ply);
+        int n = MoveGenerator.generate(board, moves, 0);
+        if (n == 0) {
+            moves[0] = Move.PASS.code();
+            n = 1;
+        } else {
+            orderMoves(board, moves, n, hashMove);
+        }
+        int empties = board.numPieces(EMPTY);
+        if (ply > 0 && n > 1 && empties >= _etcEmpties) {
+            int cutoff = transpositionCutoff(board, moves, n, beta);
+            if (cutoff != TranspositionTable.NO_MOVE) {
+                _table.store(key, empties, TranspositionTable.LOWER,
+                             _etcScore, cutoff);
+                return _etcScore;
+            }
+        }
+
+        int alpha0 = alpha;
+        int best = moves[0], bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i += 1) {
+            board.makeMove(Move.fromCode(moves[i]));
+            int score = -negamax(board, ply + 1, -beta, -alpha);
+            board.undo();
+            if (_stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = moves[i];
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        if (ply == 0) {
+            _bestMove = Move.fromCode(best);
+        }
+        int bound = bestScore <= alpha0 ? TranspositionTable.UPPER
+            : bestScore >= beta ? TranspositionTable.LOWER
+            : TranspositionTable.EXACT;
+        _table.store(key, empties, bound, bestScore, best);
+        return bestScore;
+    }
+
+    /** Return the code of the first of the N moves in MOVES on BOARD that
+     *  the transposition table shows leads to a position worth at least
+     *  BETA to the player to move on BOARD, setting _etcScore to that
+     *  worth, or NO_MOVE if there is none. */
+    private int transpositionCutoff(BitBoard board, int[] moves, int n,
+                                    int beta) {
+        for (int i = 0; i < n; i += 1) {
+            board.makeMove(Move.fromCode(moves[i]));
+            long entry = board.getWinner() != null ? TranspositionTable.NONE
+                : _table.probe(key(board));
+            board.undo();
+            if (entry != TranspositionTable.NONE
+                && TranspositionTable.bound(entry)
+                   != TranspositionTable.LOWER
+                && -TranspositionTable.score(entry) >= beta) {
+                _etcScore = -TranspositionTable.score(entry);
+                return moves[i];
+            }
+        }
+        return TranspositionTable.NO_MOVE;
+    }
+
+    /** Order the N move codes in MOVES, the legal moves on BOARD, from
+     *  most to least promising: HASHMOVE (if not NO_MOVE) first, then
+     *  extends, which bring the end nearer, and then jumps, each by
+     *  number captured. */
+    private void orderMoves(BitBoard board, int[] moves, int n,
+                            int hashMove) {
+        long theirs = board.mask(board.whoseMove().opposite());
+        int[] scores = _scores;
+        for (int i = 0; i < n; i += 1) {
+            int code = moves[i];
+            int to = BitBoard.INDEX_TO_BIT[MoveGenerator.toIndex(code)];
+            int score = code == hashMove ? Integer.MAX_VALUE
+                : (Move.fromCode(code).isExtend() ? EXTEND_SCORE : 0)
+                + Long.bitCount(BitBoard.NEIGHBORS1[to] & theirs);
+            int j;
+            for (j = i; j > 0 && scores[j - 1] < score; j -= 1) {
+                scores[j] = scores[j - 1];
+                moves[j] = moves[j - 1];
+            }
+            scores[j] = score;
+            moves[j] = code;
+        }
+    }
+
+    /** Return the move buffer for PLY plies from the root. */
+    private int[] moves(int ply) {
+        if (ply == _moves.length) {
+            _moves = Arrays.copyOf(_moves, 2 * ply);
+        }
+        if (_moves[ply] == null) {
+            _moves[ply] = new int[MoveGenerator.MAX_MOVES];
+        }
+        return _moves[ply];
+    }
+
+    /** Return the transposition-table key of BOARD: a hash of its pieces,
+     *  blocks, side to move, and jump count. */
+    private static long key(BitBoard board) {
+        long red = board.mask(RED), blue = board.mask(BLUE),
+            blocks = BitBoard.ALL & ~(red | blue | board.emptyMask());
+        long state = 2L * board.numJumps()
+            + (board.whoseMove() == BLUE ? 1 : 0);
+        return mix(red ^ mix(blue ^ mix(blocks
+                                        | state << BitBoard.SQUARES)));
+    }
+
+    /** Return a scrambling of the bits of X: a bijection under which
+     *  similar values have dissimilar results (the finalizer of
+     *  SplitMix64). */
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    /** Return true iff the node limit or deadline has been reached, or
+     *  the stop signal is set. */
+    private boolean outOfTime() {
+        return (_nodeLimit > 0 && _nodes >= _nodeLimit)
+            || (_stop != null && _stop.get())
+            || (_deadline != 0 && System.nanoTime() >= _deadline);
+    }
+
+    /** Number of playable squares, which bounds any margin. */
+    private static final int SQUARES = BitBoard.SQUARES;
+
+    /** Number of nodes visited between checks of the limits. */
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    /** Ordering score of extends, above that of any jump. */
+    private static final int EXTEND_SCORE = 16;
+
+    /** Proven bounds, keyed by key(). */
+    private final TranspositionTable _table;
+
+    /** Limit on nodes per solve, or 0. */
+    private long _nodeLimit = DEFAULT_NODE_LIMIT;
+
+    /** Least number of empty squares at which enhanced transposition
+     *  cutoffs are tried (see setEtcEmpties). */
+    private int _etcEmpties = ETC_EMPTIES;
+
+    /** Deadline of the current solve, or 0. */
+    private long _deadline;
+
+    /** When set, stops solves (see setStopSignal), or null. */
+    private AtomicBoolean _stop;
+
+    /** Nodes visited by the current solve. */
+    private long _nodes;
+
+    /** True iff the current solve was stopped by a limit. */
+    private boolean _stopped;
+
+    /** Best move at the root of the last search. */
+    private Move _bestMove;
+
+    /** Value found by the last successful transpositionCutoff. */
+    private int _etcScore;
+
+    /** Move buffers for each ply of the current solve. */
+    private int[][] _moves = new int[64][];
+
+    /** Move-ordering scores (used one ply at a time). */
+    private final int[] _scores = new int[MoveGenerator.MAX_MOVES];
+}
@@ -0,0 +1,244 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static ataxx.PieceColor.*;
+import static org.junit.Assert.*;
+
+/** Tests of EndgameSolver.
+ *  @author Katrina Sharonin
+ */
+public class EndgameSolverTest {
+
+    /** A position in which red must pass, and blue then fills the last
+     *  square. */
+    private static final String PASS =
+        "rbbbbbb/bbbbbbb/bbbbbbb/bbbbbbb/bbbbbbb/bbbbbbb/bbbbbb1 r";
+
+    /** Limit on the nodes visited by reference. */
+    private static final int REFERENCE_NODES = 200000;
+
+    /** Most jumps left before the jump limit in positions compared with
+     *  the reference. */
+    private static final int JUMPS_LEFT = 6;
+
+    /** Nodes visited by the current reference search. */
+    private int _referenceNodes;
+
+    /** Return the final margin for the player to move on BOARD given best
+     *  play, by plain negamax on Board (without any pruning), or null if
+     *  that takes more than REFERENCE_NODES nodes. */
+    private Integer reference(Board board) {
+        PieceColor me = board.whoseMove();
+        if (board.getWinner() != null) {
+            return board.numPieces(me) - board.numPieces(me.opposite());
+        }
+        _referenceNodes += 1;
+        if (_referenceNodes > REFERENCE_NODES) {
+            return null;
+        }
+        List<Move> moves = Perft.moves(board);
+        if (moves.isEmpty()) {
+            moves = List.of(Move.pass());
+        }
+        int best = Integer.MIN_VALUE;
+        for (Move move : moves) {
+            board.makeMove(move);
+            Integer value = reference(board);
+            board.undo();
+            if (value == null) {
+                return null;
+            }
+            best = Math.max(best, -value);
+        }
+        return best;
+    }
+
+    @Test
+    public void testPass() {
+        Board board = new Board();
+        board.setup(PASS);
+        EndgameSolver solver = new EndgameSolver(16);
+        solver.setNodeLimit(0);
+        EndgameSolver.Solution solution = solver.solve(board, 0);
+        assertNotNull("not solved", solution);
+        assertTrue("no pass", solution.move().isPass());
+        assertTrue("not exact", solution.exact());
+        assertEquals("wrong margin", 1 - 48, solution.margin());
+        assertEquals("wrong winner", BLUE, solution.winner());
+        assertEquals("wrong empties", 1, solution.empties());
+    }
+
+    /** Compare the solver with reference in positions with one empty
+     *  square, a few jumps short of the jump limit (so that the reference
+     *  search, which has no table, is finite in practice: an extend there
+     *  ends the game). */
+    @Test
+    public void testAgainstReference() {
+        Random random = new Random(7);
+        EndgameSolver solver = new EndgameSolver(4);
+        solver.setNodeLimit(0);
+        int compared = 0;
+        for (ArrayList<Move> game : Benchmark.randomGames(30, 5)) {
+            Board board = new Board();
+            for (Move move : game) {
+                board.makeMove(move);
+                if (board.getWinner() == null
+                    && EndgameSolver.empties(board) <= 1) {
+                    break;
+                }
+            }
+            int left = 1 + random.nextInt(JUMPS_LEFT);
+            while (board.numJumps() < Board.JUMP_LIMIT - left
+                   && board.getWinner() == null) {
+                ArrayList<Move> legal = new ArrayList<>();
+                for (Move move : Perft.moves(board)) {
+                    if (move.isJump()) {
+                        legal.add(move);
+                    }
+                }
+                if (legal.isEmpty()) {
+                    break;
+                }
+                board.makeMove(legal.get(random.nextInt(legal.size())));
+            }
+            if (board.getWinner() != null) {
+                continue;
+            }
+            _referenceNodes = 0;
+            Integer expected = reference(board);
+            if (expected == null) {
+                continue;
+            }
+            EndgameSolver.Solution solution = solver.solve(board, 0);
+            assertTrue("not exact", solution.exact());
+            assertEquals("wrong margin for " + board.boardString(),
+                         (int) expected, solution.margin());
+            board.makeMove(solution.move());
+            _referenceNodes = 0;
+            assertEquals("move does not achieve margin", expected,
+                         board.getWinner() != null
+                         ? (Integer) (board.numPieces(board.whoseMove()
+                                                      .opposite())
+                                      - board.numPieces(board.whoseMove()))
+                         : (Integer) (-reference(board)));
+            compared += 1;
+        }
+        assertTrue("too few positions compared", compared >= 10);
+    }
+
+    /** Return a random position with red to move in which only the
+     *  first COLUMNS squares of each of the first ROWS rows are not
+     *  blocked, EMPTIES of them are empty, and the rest are red and blue
+     *  alternately, in an order given by RANDOM.  Such positions have
+     *  few successors, so they can be solved exactly even with more
+     *  empty squares than the positions of actual games. */
+    private static Board cornerPosition(int columns, int rows, int empties,
+                                        Random random) {
+        ArrayList<Integer> open = new ArrayList<>();
+        for (int r = 0; r < rows; r += 1) {
+            for (int c = 0; c < columns; c += 1) {
+                open.add(r * Board.SIDE + c);
+            }
+        }
+        Collections.shuffle(open, random);
+        char[] squares = new char[Board.SIDE * Board.SIDE];
+        Arrays.fill(squares, 'x');
+        for (int i = 0; i < open.size(); i += 1) {
+            squares[open.get(i)] =
+                i < empties ? '-' : i % 2 == 0 ? 'r' : 'b';
+        }
+        StringBuilder position = new StringBuilder();
+        for (int r = 0; r < Board.SIDE; r += 1) {
+            position.append(squares, r * Board.SIDE, Board.SIDE)
+                .append(r + 1 < Board.SIDE ? '/' : ' ');
+        }
+        Board board = new Board();
+        board.setup(position + "r");
+        return board;
+    }
+
+    @Test
+    public void testTranspositionCutoffs() {
+        Random random = new Random(1);
+        int solved, cut;
+        solved = cut = 0;
+        for (int k = 0; k < 20; k += 1) {
+            Board board = cornerPosition(4, 3, EndgameSolver.ETC_EMPTIES,
+                                         random);
+            if (board.getWinner() != null || !board.canMove(RED)) {
+                continue;
+            }
+            EndgameSolver.Solution[] solutions = new EndgameSolver.Solution[2];
+            for (int etc = 0; etc < 2; etc += 1) {
+                EndgameSolver solver = new EndgameSolver(4);
+                solver.setNodeLimit(0);
+                solver.setEtcEmpties(etc == 0 ? Integer.MAX_VALUE
+                                     : EndgameSolver.ETC_EMPTIES);
+                solutions[etc] = solver.solve(board, 0);
+                assertTrue("not exact", solutions[etc].exact());
+            }
+            assertEquals("cutoffs changed margin of " + board.boardString(),
+                         solutions[0].margin(), solutions[1].margin());
+            solved += 1;
+            if (solutions[0].nodes() != solutions[1].nodes()) {
+                cut += 1;
+            }
+        }
+        assertTrue("too few positions solved", solved >= 10);
+        assertTrue("no transposition cutoffs", cut > 0);
+    }
+
+    @Test
+    public void testLimits() {
+        Board board = new Board();
+        board.setup("r5b/7/7/7/7/7/b5r r");
+        EndgameSolver solver = new EndgameSolver(1);
+        solver.setNodeLimit(1000);
+        assertNull("solved opening", solver.solve(board, 0));
+        solver.setNodeLimit(0);
+        assertNull("ignored deadline",
+                   solver.solve(board, System.nanoTime() + 1000000));
+    }
+
+    @Test
+    public void testAI() {
+        Board board = new Board();
+        board.setup(PASS);
+        board.makeMove(Move.pass());
+        assertNull("game over", board.getWinner());
+        SearchStats stats = new SearchStats();
+        AI ai = new AI(null, BLUE, 0);
+        ai.setStats(stats);
+        ai.setEndgame(0);
+        Move searched = ai.findMove(board);
+        assertNull("solved when off", ai.lastSolution());
+        ai.setEndgame(1);
+        Move solved = ai.findMove(board);
+        assertNotNull("not solved", ai.lastSolution());
+        assertEquals("wrong move", ai.lastSolution().move(), solved);
+        assertEquals("wrong score", -47, ai.lastScore());
+        assertEquals("wrong depth", 0, ai.lastDepth());
+        assertTrue("illegal searched move", board.legalMove(searched));
+        assertTrue("solve not recorded",
+                   stats.toJson().contains("{\"empties\":1,\"unsolved\":0,"
+                                           + "\"solveTime\":{\"count\":1,"));
+        long nodes = ai.lastSolution().nodes();
+        ai.findMove(board);
+        assertTrue("table not reused", ai.lastSolution().nodes() < nodes);
+        ai.forget();
+        ai.findMove(board);
+        assertEquals("solver's table not forgotten", nodes,
+                     ai.lastSolution().nodes());
+    }
+}
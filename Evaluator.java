@@ -0,0 +1,22 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+/** A static evaluation function for the AI: a heuristic estimate of the
+ *  value of a position, used at the leaves of the search.
+ *  @author Katrina Sharonin
+ */
+interface Evaluator {
+
+    /** Return an estimate of the value of BOARD, whose game is not over,
+     *  from red's point of view: positive values favor red and negative
+     *  ones blue.  The magnitude must be well below Integer.MAX_VALUE / 2,
+     *  which the AI reserves for won positions. */
+    int score(Board board);
+
+    /** The number of red pieces minus the number of blue ones. */
+    Evaluator MATERIAL = (b) -> b.redPieces() - b.bluePieces();
+
+}
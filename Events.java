@@ -0,0 +1,116 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** Java Flight Recorder events for the engine, so that its latencies can
+ *  be seen in the same recording as garbage collection, compilation, and
+ *  thread scheduling.  All are disabled unless a recording enables them,
+ *  as ataxx.jfc (in this directory) does:
+ *  <pre>
+ *     java -XX:StartFlightRecording:settings=ataxx/ataxx.jfc,\
+ *          filename=ataxx.jfr ataxx.Main ...
+ *     jfr print --categories Ataxx ataxx.jfr
+ *  </pre>
+ *  When they are disabled (or no recording is running), an event costs
+ *  no more than a check of a flag, and Boards, AIs, and Games reuse
+ *  theirs rather than allocate one per move, search, or command.
+ *  @author Katrina Sharonin
+ */
+class Events {
+
+    /** Number of Board.makeMove and Board.undo calls on one board covered
+     *  by each MoveBurst event.  A power of 2. */
+    static final int BURST_CALLS = 1 << 12;
+
+    /** One call of AI.findMove. */
+    @Name("ataxx.Search")
+    @Label("Search")
+    @Category("Ataxx")
+    @Description("An alpha-beta search for a move")
+    @Enabled(false)
+    @StackTrace(false)
+    static class Search extends Event {
+        /** Depth of the last completed iteration. */
+        @Label("Depth")
+        int depth;
+
+        /** Nodes visited by all threads. */
+        @Label("Nodes")
+        long nodes;
+
+        /** Value of the move found for the player to move. */
+        @Label("Score")
+        int score;
+
+        /** The move found. */
+        @Label("Move")
+        String move;
+
+        /** Number of threads searching. */
+        @Label("Threads")
+        int threads;
+    }
+
+    /** BURST_CALLS consecutive calls of Board.makeMove and Board.undo on
+     *  one Board.  Timing every call would cost more than the calls
+     *  themselves, so only the bursts are timed. */
+    @Name("ataxx.MoveBurst")
+    @Label("Move Burst")
+    @Category("Ataxx")
+    @Description("A burst of makeMove and undo calls on one board")
+    @Enabled(false)
+    @StackTrace(false)
+    static class MoveBurst extends Event {
+        /** Number of calls in the burst. */
+        @Label("Calls")
+        int calls;
+
+        /** Number of moves made on the board at the end of the burst. */
+        @Label("Move Number")
+        int moveNumber;
+    }
+
+    /** One call of Game.executeCommand. */
+    @Name("ataxx.Command")
+    @Label("Command")
+    @Category("Ataxx")
+    @Description("Execution of a command by a Game")
+    @Enabled(false)
+    @StackTrace(false)
+    static class Execute extends Event {
+        /** Type of the command (see ataxx.Command.Type). */
+        @Label("Type")
+        String type;
+
+        /** Text of the command. */
+        @Label("Text")
+        String text;
+    }
+
+    /** One dispatch of a Board's notifier (Board.setNotifier), as after
+     *  each change to the board.  By default, only dispatches taking at
+     *  least a millisecond (a slow GUI repaint, say) are recorded. */
+    @Name("ataxx.Announce")
+    @Label("Board Announcement")
+    @Category("Ataxx")
+    @Description("Dispatch of a board change to its notifier")
+    @Enabled(false)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static class Announce extends Event {
+        /** Number of moves made on the board. */
+        @Label("Move Number")
+        int moveNumber;
+    }
+}
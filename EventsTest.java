@@ -0,0 +1,97 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of the flight-recorder Events.
+ *  @author Katrina Sharonin
+ */
+public class EventsTest {
+
+    /** Return the events recorded while running BODY with the settings
+     *  in CONFIG (none if null), and with the Events named NAMES enabled,
+     *  grouped by name. */
+    private static HashMap<String, List<RecordedEvent>> record(
+        Configuration config, Runnable body, String... names)
+        throws Exception {
+        Path file = Files.createTempFile("ataxx", ".jfr");
+        try (Recording recording = config == null ? new Recording()
+             : new Recording(config)) {
+            for (String name : names) {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        HashMap<String, List<RecordedEvent>> result = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            result.computeIfAbsent(event.getEventType().getName(),
+                                   (k) -> new ArrayList<>())
+                .add(event);
+        }
+        Files.delete(file);
+        return result;
+    }
+
+    @Test
+    public void testSearchAndBursts() throws Exception {
+        AI ai = new AI(null, PieceColor.RED, 0);
+        ai.setMaxDepth(3);
+        Move[] found = new Move[1];
+        HashMap<String, List<RecordedEvent>> events = record(null, () -> {
+            ai.findMove(new Board());
+            found[0] = ai.findMove(new Board());
+            Board board = new Board();
+            for (int i = 0; i <= Events.BURST_CALLS; i += 2) {
+                board.makeMove(Move.move("a7-b6"));
+                board.undo();
+            }
+        }, "ataxx.Search", "ataxx.MoveBurst");
+        List<RecordedEvent> searches = events.get("ataxx.Search");
+        assertEquals(2, searches.size());
+        RecordedEvent search = searches.get(1);
+        assertEquals(3, search.getInt("depth"));
+        assertEquals(ai.nodes(), search.getLong("nodes"));
+        assertEquals(found[0].toString(), search.getString("move"));
+        List<RecordedEvent> bursts = events.get("ataxx.MoveBurst");
+        assertEquals(1, bursts.size());
+        assertEquals(Events.BURST_CALLS, bursts.get(0).getInt("calls"));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        Configuration config = Configuration.getConfiguration("default");
+        HashMap<String, List<RecordedEvent>> events = record(config, () -> {
+            Board board = new Board();
+            board.setNotifier((b) -> { });
+            for (int i = 0; i < 2 * Events.BURST_CALLS; i += 1) {
+                board.makeMove(Move.move("a7-b6"));
+                board.undo();
+            }
+            AI ai = new AI(null, PieceColor.RED, 0);
+            ai.setMaxDepth(2);
+            ai.findMove(new Board());
+        });
+        assertFalse("nothing recorded", events.isEmpty());
+        for (String name : events.keySet()) {
+            assertFalse(name, name.startsWith("ataxx."));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import static ataxx.PieceColor.*;
+
+/** An Evaluator that combines material with the positional features
+ *  counted by BoardFeatures: a weighted sum of the differences between
+ *  red's and blue's counts.  The features are maintained incrementally by
+ *  the Board, so that evaluation takes constant time.
+ *  @author Katrina Sharonin
+ */
+class FeatureEvaluator implements Evaluator {
+
+    /* Default weights, in hundredths of a piece. */
+
+    /** Weight of a piece. */
+    static final int MATERIAL_WEIGHT = 100;
+    /** Weight of an empty square reachable by an extend. */
+    static final int REACH_WEIGHT = 10;
+    /** Weight of a piece-empty square adjacency (exposure to capture). */
+    static final int EXPOSURE_WEIGHT = -4;
+    /** Weight of a piece with no empty neighbors. */
+    static final int STABLE_WEIGHT = 8;
+    /** Weight of a piece on an edge. */
+    static final int EDGE_WEIGHT = 4;
+    /** Weight of a piece in a corner. */
+    static final int CORNER_WEIGHT = 10;
+
+    /** A FeatureEvaluator with the default weights. */
+    FeatureEvaluator() {
+        this(MATERIAL_WEIGHT, REACH_WEIGHT, EXPOSURE_WEIGHT, STABLE_WEIGHT,
+             EDGE_WEIGHT, CORNER_WEIGHT);
+    }
+
+    /** A FeatureEvaluator with weights MATERIAL, REACH, EXPOSURE, STABLE,
+     *  EDGE, and CORNER for the differences in piece counts and in each of
+     *  the features of BoardFeatures. */
+    FeatureEvaluator(int material, int reach, int exposure, int stable,
+                     int edge, int corner) {
+        _material = material;
+        _reach = reach;
+        _exposure = exposure;
+        _stable = stable;
+        _edge = edge;
+        _corner = corner;
+    }
+
+    @Override
+    public int score(Board board) {
+        BoardFeatures f = board.features();
+        return _material * (board.redPieces() - board.bluePieces())
+            + _reach * (f.reach(RED) - f.reach(BLUE))
+            + _exposure * (f.exposure(RED) - f.exposure(BLUE))
+            + _stable * (f.stable(RED) - f.stable(BLUE))
+            + _edge * (f.edges(RED) - f.edges(BLUE))
+            + _corner * (f.corners(RED) - f.corners(BLUE));
+    }
+
+    /** The weights. */
+    private final int _material, _reach, _exposure, _stable, _edge, _corner;
+
+}
@@ -0,0 +1,114 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static ataxx.PieceColor.*;
+import static org.junit.Assert.*;
+
+/** Tests of BoardFeatures and FeatureEvaluator.
+ *  @author Katrina Sharonin
+ */
+public class FeatureEvaluatorTest {
+
+    @Test
+    public void testFeatures() {
+        Board b = new Board();
+        b.setup("rr5/rr5/7/7/7/7/6b r");
+        BoardFeatures f = b.features();
+        assertEquals("wrong red reach", 5, f.reach(RED));
+        assertEquals("wrong red exposure", 9, f.exposure(RED));
+        assertEquals("wrong red stable", 1, f.stable(RED));
+        assertEquals("wrong red edges", 2, f.edges(RED));
+        assertEquals("wrong red corners", 1, f.corners(RED));
+        assertEquals("wrong blue reach", 3, f.reach(BLUE));
+        assertEquals("wrong blue exposure", 3, f.exposure(BLUE));
+        assertEquals("wrong blue stable", 0, f.stable(BLUE));
+        assertEquals("wrong blue edges", 0, f.edges(BLUE));
+        assertEquals("wrong blue corners", 1, f.corners(BLUE));
+
+        b.setup("r1X4/X6/7/7/7/7/6b r");
+        f = b.features();
+        assertEquals("blocks counted as empty", 2, f.reach(RED));
+        assertEquals("blocks counted as empty", 2, f.exposure(RED));
+    }
+
+    /** Check the features of B against counts made square by square. */
+    private static void checkFeatures(Board b) {
+        BoardFeatures f = b.features();
+        for (PieceColor c : new PieceColor[] { RED, BLUE }) {
+            int reach, exposure, stable, edges, corners;
+            reach = exposure = stable = edges = corners = 0;
+            for (int sq : MoveGenerator.PLAYABLE) {
+                int mine = 0, empty = 0;
+                for (int t : MoveGenerator.ADJACENT[sq]) {
+                    mine += b.get(t) == c ? 1 : 0;
+                    empty += b.get(t) == EMPTY ? 1 : 0;
+                }
+                if (b.get(sq) == EMPTY) {
+                    reach += mine > 0 ? 1 : 0;
+                    exposure += mine;
+                } else if (b.get(sq) == c) {
+                    stable += empty == 0 ? 1 : 0;
+                    int n = MoveGenerator.ADJACENT[sq].length;
+                    edges += n == 5 ? 1 : 0;
+                    corners += n == 3 ? 1 : 0;
+                }
+            }
+            assertEquals("wrong reach", reach, f.reach(c));
+            assertEquals("wrong exposure", exposure, f.exposure(c));
+            assertEquals("wrong stable", stable, f.stable(c));
+            assertEquals("wrong edges", edges, f.edges(c));
+            assertEquals("wrong corners", corners, f.corners(c));
+        }
+    }
+
+    @Test
+    public void testIncremental() {
+        Board.setCheckCounts(true);
+        try {
+            Random random = new Random(7);
+            for (int game = 0; game < 20; game += 1) {
+                Board b = new Board();
+                b.features();
+                b.setBlock((char) ('b' + game % 3), '3');
+                int moves;
+                for (moves = 0; b.getWinner() == null; moves += 1) {
+                    List<Move> legal = MoveGenerator.legalMoves(b);
+                    b.makeMove(legal.get(random.nextInt(legal.size())));
+                    checkFeatures(b);
+                    if (moves == 10) {
+                        Board copy = new Board(b);
+                        assertEquals("copy has wrong features",
+                                     b.features(), copy.features());
+                    }
+                }
+                for (; moves > 0; moves -= 1) {
+                    b.undo();
+                }
+                assertEquals("features not restored",
+                             new BoardFeatures(b), b.features());
+            }
+        } finally {
+            Board.setCheckCounts(false);
+        }
+    }
+
+    @Test
+    public void testSymmetry() {
+        Evaluator e = new FeatureEvaluator();
+        Board b0 = new Board(), b1 = new Board();
+        assertEquals("initial position not even", 0, e.score(b0));
+        b0.setup("rrr4/rr5/2b4/7/7/X5X/6b b");
+        b1.setup("bbb4/bb5/2r4/7/7/X5X/6r r");
+        assertTrue("red advantage not positive", e.score(b0) > 0);
+        assertEquals("colors not symmetric", -e.score(b0), e.score(b1));
+    }
+
+}
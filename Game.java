@@ -4,6 +4,9 @@
 
 package ataxx;
 
+import java.io.PrintWriter;
+import java.util.Map;
+
 import static ataxx.PieceColor.*;
 import static ataxx.GameException.error;
 import static ataxx.Utils.*;
@@ -49,10 +52,10 @@ class Game {
     int play() {
         boolean winnerAnnounced;
 
-        System.out.println("Welcome to " + Defaults.VERSION);
+        _out.println("Welcome to " + Defaults.VERSION);
         _board.clear();
         setManual(RED);
-        setAuto(BLUE);
+        setAuto(BLUE, "ai");
         _exit = -1;
         winnerAnnounced = false;
         while (_exit < 0) {
@@ -75,6 +78,22 @@ class Game {
         return _exit;
     }
 
+    /** Play the current game to its end with the current players, both
+     *  of which must be automatic, executing their moves as play does, and
+     *  return the winner (EMPTY for a draw).  Throws a GameException if a
+     *  player's move is not made. */
+    PieceColor playOut() {
+        while (_board.getWinner() == null) {
+            int moves = _board.numMoves();
+            executeCommand(getPlayer(_board.whoseMove()).getMove());
+            if (_board.numMoves() == moves) {
+                throw error("%s player did not move", _board.whoseMove());
+            }
+        }
+        _reporter.announceWin(_board.getWinner());
+        return _board.getWinner();
+    }
+
     /** Return a suggested prompt for command input. */
     private String prompt() {
         if (gameInProgress()) {
@@ -146,9 +165,18 @@ class Game {
         _reporter.msg("* %s wins.", _board.getWinner().toString());
     }
 
-    /** Make the player of COLOR an AI for subsequent moves. */
-    private void setAuto(PieceColor color) {
-        setPlayer(color, new AI(this, color, _seed));
+    /** Make the player of COLOR an AI of type KIND ("ai" for alpha-beta
+     *  search or "mcts" for Monte Carlo tree search) for subsequent
+     *  moves.  With a search pool (see setSearchPool), its searches are
+     *  done by the pool. */
+    private void setAuto(PieceColor color, String kind) {
+        if (_searchPool != null) {
+            setPlayer(color, _searchPool.player(this, color, kind));
+        } else if (kind.equals("mcts")) {
+            setPlayer(color, new MCTS(this, color, _seed));
+        } else {
+            setPlayer(color, new AI(this, color, _seed));
+        }
         _seed += 1;
     }
 
@@ -164,10 +192,22 @@ class Game {
     }
 
     /** Set getPlayer(COLOR) to PLAYER. */
-    private void setPlayer(PieceColor color, Player player) {
+    void setPlayer(PieceColor color, Player player) {
         _players[color.ordinal()] = player;
     }
 
+    /** Have automatic players set up after this call do their searches
+     *  in POOL rather than in the thread calling play. */
+    void setSearchPool(SearchPool pool) {
+        _searchPool = pool;
+    }
+
+    /** Send the welcome message, help text, and command log to OUT rather
+     *  than the standard output. */
+    void setOutput(PrintWriter out) {
+        _out = out;
+    }
+
     /** Clear the board to its initial state. */
     void clear() {
         _board.clear();
@@ -185,7 +225,7 @@ class Game {
 
     /** Print a help message. */
     private void help() {
-        printHelpResource(HELP, System.out);
+        printHelpResource(HELP, _out);
     }
 
     /** Seed the random-number generator with SEED. */
@@ -193,8 +233,38 @@ class Game {
         _seed = seed;
     }
 
+    /** Report the number of positions DEPTH plies from POSITION (a board
+     *  string; see Board.setup), or from the current position if POSITION
+     *  is null, with the counts after each first move.  DEPTH may be at
+     *  most Perft.MAX_DEPTH.  Counts are not cached, so that the command
+     *  needs no table.  With a search pool (see setSearchPool), the
+     *  counting is done by the pool. */
+    private void perft(int depth, String position) {
+        Perft.checkDepth(depth);
+        Board board = new Board(_board);
+        if (position != null) {
+            board.setup(position);
+        }
+        long start = System.nanoTime();
+        long nodes = 0;
+        if (depth == 0) {
+            nodes = 1;
+        } else {
+            Map<Move, Long> divide = _searchPool != null
+                ? _searchPool.divide(board, depth)
+                : new Perft(0, 1).divide(board, depth);
+            for (Map.Entry<Move, Long> entry : divide.entrySet()) {
+                _reporter.msg("%s: %d", entry.getKey(), entry.getValue());
+                nodes += entry.getValue();
+            }
+        }
+        _reporter.msg(Perft.summary(nodes, System.nanoTime() - start));
+    }
+
     /** Execute command CMNDSTR.  Throws GameException on errors. */
     private void executeCommand(String cmndStr) {
+        Events.Execute event = _execute;
+        event.begin();
         Command cmnd = Command.parseCommand(cmndStr);
         String[] parts = cmnd.operands();
         log(cmndStr);
@@ -203,7 +273,9 @@ class Game {
             case COMMENT:
                 break;
             case AUTO:
-                setAuto(parseColor(parts[0]));
+                String[] auto = parts[0].split("\\s+");
+                setAuto(parseColor(auto[0]),
+                        auto.length > 1 ? auto[1] : "ai");
                 break;
             case BOARD:
                 printBoard();
@@ -229,6 +301,9 @@ class Game {
             case SEED:
                 setSeed(toLong(parts[0]));
                 break;
+            case PERFT:
+                perft(toInt(parts[0]), parts[1]);
+                break;
             case VERBOSE:
                 _verbose = true;
                 break;
@@ -250,6 +325,15 @@ class Game {
             reportError("Argument(s) missing: %s", cmnd);
         } catch (GameException excp) {
             reportError(excp.getMessage());
+        } finally {
+            if (event.isEnabled()) {
+                _execute = new Events.Execute();
+                if (event.shouldCommit()) {
+                    event.type = cmnd.commandType().toString();
+                    event.text = cmndStr;
+                    event.commit();
+                }
+            }
         }
     }
 
@@ -258,7 +342,7 @@ class Game {
      *  String.format. */
     private void log(String format, Object... args) {
         if (_logging) {
-            System.out.printf(format + "%n", args);
+            _out.printf(format + "%n", args);
         }
     }
 
@@ -283,6 +367,15 @@ class Game {
     /** True iff we are logging commands. */
     private boolean _logging;
 
+    /** Destination of the welcome message, help, and log. */
+    private PrintWriter _out = new PrintWriter(System.out, true);
+    /** Pool that searches for automatic players, or null. */
+    private SearchPool _searchPool;
+
+    /** The event for the next call of executeCommand, reused while
+     *  events are disabled so that commands allocate none. */
+    private Events.Execute _execute = new Events.Execute();
+
     /** True iff we should print the board after each move. */
     private boolean _verbose;
     /** Current pseudo-random number seed.  Provided as an argument to AIs
@@ -0,0 +1,115 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+/** A histogram of non-negative long values (such as times in
+ *  nanoseconds) that reports percentiles to within about 3%, in a fixed
+ *  15 KB whatever the number or range of the values.  Values below 32 have
+ *  a bucket each; above that, each power of two is divided into 32
+ *  equal buckets (a log-linear layout).  The maximum is exact.  Safe for
+ *  use by several threads.
+ *  @author Katrina Sharonin
+ */
+class Histogram {
+
+    /** Log2 of the number of buckets per power of two. */
+    private static final int SUB_BITS = 5;
+
+    /** Number of buckets per power of two. */
+    private static final int SUB = 1 << SUB_BITS;
+
+    /** Record one occurrence of VALUE, which must not be negative. */
+    synchronized void record(long value) {
+        _counts[bucket(value)] += 1;
+        _count += 1;
+        _sum += value;
+        _max = Math.max(_max, value);
+    }
+
+    /** Add the values recorded in OTHER to mine.  OTHER's values are
+     *  copied before I am locked, so that no thread holds both locks,
+     *  and a.add(b) may run at the same time as b.add(a). */
+    void add(Histogram other) {
+        long[] counts;
+        long count, sum, max;
+        synchronized (other) {
+            counts = other._counts.clone();
+            count = other._count;
+            sum = other._sum;
+            max = other._max;
+        }
+        synchronized (this) {
+            for (int i = 0; i < _counts.length; i += 1) {
+                _counts[i] += counts[i];
+            }
+            _count += count;
+            _sum += sum;
+            _max = Math.max(_max, max);
+        }
+    }
+
+    /** Return the number of values recorded. */
+    synchronized long count() {
+        return _count;
+    }
+
+    /** Return the largest value recorded, or 0 if none. */
+    synchronized long max() {
+        return _max;
+    }
+
+    /** Return the mean of the values recorded, or 0 if none. */
+    synchronized double mean() {
+        return _count == 0 ? 0 : (double) _sum / _count;
+    }
+
+    /** Return the smallest value V (to within the resolution of the
+     *  histogram) such that a fraction P (0 < P <= 1) of the values
+     *  recorded are at most V, or 0 if none are recorded. */
+    synchronized long percentile(double p) {
+        long rank = Math.max(1, (long) Math.ceil(p * _count));
+        long seen = 0;
+        for (int i = 0; i < _counts.length; i += 1) {
+            seen += _counts[i];
+            if (seen >= rank) {
+                return Math.min(_max, lowest(i + 1) - 1);
+            }
+        }
+        return 0;
+    }
+
+    /** Return my count, mean, median, 90th and 99th percentiles, and
+     *  maximum as a JSON object. */
+    synchronized String toJson() {
+        return String.format("{\"count\":%d,\"mean\":%.0f,\"p50\":%d,"
+                             + "\"p90\":%d,\"p99\":%d,\"max\":%d}",
+                             _count, mean(), percentile(0.5),
+                             percentile(0.9), percentile(0.99), _max);
+    }
+
+    /** Return the index of the bucket holding VALUE. */
+    static int bucket(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB + (int) (value >>> shift) - SUB;
+    }
+
+    /** Return the smallest value in bucket number INDEX. */
+    static long lowest(int index) {
+        if (index < SUB) {
+            return index;
+        }
+        int shift = index / SUB - 1;
+        return (long) (SUB + index % SUB) << shift;
+    }
+
+    /** Number of values recorded in each bucket. */
+    private final long[] _counts = new long[(64 - SUB_BITS) * SUB];
+
+    /** Number, sum, and maximum of the values recorded. */
+    private long _count, _sum, _max;
+}
@@ -0,0 +1,573 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static ataxx.PieceColor.*;
+import static java.lang.Math.max;
+
+/** A Player that chooses moves by Monte Carlo tree search with the UCT
+ *  selection rule: it repeatedly descends a game tree from the current
+ *  position, choosing at each node the child that maximizes its average
+ *  result plus an exploration bonus, expands the node at which it leaves
+ *  the tree, plays the game out from there with random moves, and records
+ *  the result in every node on the way back.  The move played is the
+ *  most-visited move at the root.
+ *
+ *  Nodes are not objects: they are indices into parallel primitive
+ *  arrays (the "arena"), and the children of a node occupy consecutive
+ *  indices.  Playouts are made on a BitBoard.  After each move, the
+ *  subtree for the position actually reached (after the opponent's reply)
+ *  is kept for the next search and compacted to the front of the arena.
+ *
+ *  With more than one thread, the search is tree-parallel: each thread
+ *  descends the shared tree on its own BitBoard and makes its own
+ *  playouts.  Visit counts and results are atomic, and a node's children
+ *  are added by whichever thread first claims it.  Each thread counts its
+ *  visit to a node as it descends, before the result is known, so that
+ *  until the playout finishes the node looks like a loss to other threads
+ *  (a "virtual loss"), steering them toward other moves.
+ *  @author Katrina Sharonin
+ */
+class MCTS extends Player {
+
+    /** Default value of the exploration constant. */
+    static final double DEFAULT_EXPLORATION = 1.4;
+
+    /** Number of playouts per move when there is no time limit. */
+    static final int DEFAULT_PLAYOUTS = 20000;
+
+    /** Number of playouts between checks of the clock. */
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+
+    /** Minimum number of my moves assumed to remain in the game when
+     *  dividing up the game time. */
+    private static final int MIN_MOVES_TO_GO = 8;
+
+    /** Approximate size in bytes of one node in the arena. */
+    static final int NODE_BYTES = 6 * Integer.BYTES + Long.BYTES;
+
+    /** A new MCTS player for GAME that will play MYCOLOR, using SEED to
+     *  initialize its random-number generator.  Identical seeds produce
+     *  identical behaviour when there is no time limit.  GAME may be null
+     *  for a player used only through findMove. */
+    MCTS(Game game, PieceColor myColor, long seed) {
+        this(game, myColor, seed,
+             (int) ((long) Main.hashSize() * (1 << 20) / NODE_BYTES));
+    }
+
+    /** As for MCTS(GAME, MYCOLOR, SEED), but with an arena of NODES
+     *  nodes. */
+    MCTS(Game game, PieceColor myColor, long seed, int nodes) {
+        super(game, myColor);
+        _seed = seed;
+        nodes = max(nodes, MoveGenerator.MAX_MOVES + 1);
+        _parent = new int[nodes];
+        _firstChild = new int[nodes];
+        _numChildren = new AtomicIntegerArray(nodes);
+        _move = new int[nodes];
+        _visits = new AtomicIntegerArray(nodes);
+        _wins = new AtomicLongArray(nodes);
+        _map = new int[nodes];
+        _exploration = Main.exploration();
+        _playoutLimit = DEFAULT_PLAYOUTS;
+        _moveTime = -1;
+        _stats = Main.stats();
+        _size = new AtomicInteger();
+        setThreads(Main.threads());
+    }
+
+    @Override
+    boolean isAuto() {
+        return true;
+    }
+
+    @Override
+    String getMove() {
+        if (!getBoard().canMove(myColor())) {
+            game().reportMove(Move.pass(), myColor());
+            return "-";
+        }
+
+        Main.startTiming();
+        long start = System.nanoTime();
+        Move move = findMove(getBoard());
+        if (Main.isTiming()) {
+            System.err.printf("[%d playouts, %.0f playouts/sec, %d nodes]%n",
+                              _playouts, _playouts * 1e9
+                              / max(1, System.nanoTime() - start), _size);
+        }
+        Main.endTiming();
+        game().reportMove(move, myColor());
+        return move.toString();
+    }
+
+    /** Set the exploration constant of the UCT formula to C.  Larger
+     *  values spread the search more evenly among moves. */
+    void setExploration(double c) {
+        _exploration = c;
+    }
+
+    /** Set the number of playouts per search when there is no time limit
+     *  to N. */
+    void setPlayouts(int n) {
+        _playoutLimit = n;
+    }
+
+    /** Limit each search to MILLIS milliseconds, in place of --movetime
+     *  and --gametime. */
+    void setMoveTime(int millis) {
+        _moveTime = millis;
+    }
+
+    /** Record statistics of each search in STATS, or in none if STATS
+     *  is null.  Initially, Main.stats(). */
+    void setStats(SearchStats stats) {
+        _stats = stats;
+    }
+
+    /** Return the time (in nanoseconds) my searches have used in the
+     *  current game, as counted against --gametime. */
+    long timeUsed() {
+        return _timeUsed;
+    }
+
+    /** Count NANOS nanoseconds as used in the current game, in which my
+     *  last search was of a board with MOVENUMBER moves (see
+     *  Board.numMoves), in place of my own count.  This lets one MCTS
+     *  search for several games, each keeping its own count. */
+    void setTimeUsed(long nanos, int moveNumber) {
+        _timeUsed = nanos;
+        _lastMoveNumber = moveNumber;
+    }
+
+    /** Search with THREADS threads (at least 1).  This restarts the
+     *  threads' random-number generators. */
+    void setThreads(int threads) {
+        threads = max(1, threads);
+        if (_pool != null) {
+            _pool.shutdown();
+        }
+        _threads = threads;
+        _pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+        _randoms = new Random[threads];
+        for (int i = 0; i < threads; i += 1) {
+            _randoms[i] = new Random(_seed + i * SEED_STRIDE);
+        }
+    }
+
+    /** Return the number of playouts made by the last call to
+     *  findMove. */
+    long playouts() {
+        return _playouts;
+    }
+
+    /** Return the number of nodes in the tree after the last call to
+     *  findMove. */
+    int treeSize() {
+        return _size.get();
+    }
+
+    /** Return a move for the player to move on BOARD, which must not be
+     *  finished.  Reuses the tree from the previous call if BOARD
+     *  continues the game searched then.  With one thread and no time
+     *  limit, the result depends only on the seed and the previous
+     *  calls. */
+    Move findMove(Board board) {
+        long start = System.nanoTime();
+        long deadline = deadline(board, start);
+        reuseTree(board);
+        _stopped = false;
+        _claimed.set(0);
+        ArrayList<ForkJoinTask<Long>> workers = new ArrayList<>();
+        for (int id = 1; id < _threads; id += 1) {
+            BitBoard root = new BitBoard(board);
+            int w = id;
+            workers.add(_pool.submit(() -> work(root, w, deadline)));
+        }
+        _playouts = work(new BitBoard(board), 0, deadline);
+        _stopped = true;
+        for (ForkJoinTask<Long> worker : workers) {
+            _playouts += worker.join();
+        }
+        long time = System.nanoTime() - start;
+        _timeUsed += time;
+        if (_stats != null) {
+            _stats.addPlayouts(time, _playouts);
+        }
+
+        int best = -1;
+        for (int c = _firstChild[ROOT], k = 0;
+             k < _numChildren.get(ROOT); c += 1, k += 1) {
+            if (best == -1 || _visits.get(c) > _visits.get(best)) {
+                best = c;
+            }
+        }
+        _searchedMoves = board.numMoves();
+        _searchedKey = board.zobristKey();
+        _history = board.allMoves();
+        return Move.fromCode(_move[best]);
+    }
+
+    /** Perform iterations of the search from ROOT, as worker number ID,
+     *  until the time limit DEADLINE (if the search is timed) or the
+     *  limit on playouts is reached, or another worker stops the search.
+     *  Return the number of playouts made. */
+    private long work(BitBoard root, int id, long deadline) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Random random = _randoms[id];
+        long n;
+        for (n = 0; !_stopped; n += 1) {
+            if (_deadlineTimed) {
+                if (n % CLOCK_CHECK_INTERVAL == 0 && n > 0
+                    && System.nanoTime() >= deadline) {
+                    _stopped = true;
+                    break;
+                }
+            } else if (_claimed.getAndIncrement() >= _playoutLimit) {
+                break;
+            }
+            iterate(root, moves, random);
+        }
+        return n;
+    }
+
+    /** Return the time (in nanoseconds, as for System.nanoTime) at which a
+     *  search of BOARD starting at START should stop, according to the
+     *  time set by setMoveTime or else the --movetime and --gametime
+     *  limits, and set _deadlineTimed to whether there is any such limit.
+     *  A time per game is divided evenly among an estimate of the moves
+     *  remaining. */
+    private long deadline(Board board, long start) {
+        long moveTime = (_moveTime >= 0 ? _moveTime : Main.moveTime())
+            * 1000000L,
+            gameTime = _moveTime >= 0 ? 0 : Main.gameTime() * 1000000L;
+        if (board.numMoves() < _lastMoveNumber) {
+            _timeUsed = 0;
+        }
+        _lastMoveNumber = board.numMoves();
+        _deadlineTimed = moveTime > 0 || gameTime > 0;
+        long limit = Long.MAX_VALUE / 2;
+        if (moveTime > 0) {
+            limit = moveTime;
+        }
+        if (gameTime > 0) {
+            long remaining = max(0, gameTime - _timeUsed);
+            limit = Math.min(limit, remaining
+                             / max(MIN_MOVES_TO_GO,
+                                   board.numPieces(EMPTY) / 2));
+        }
+        return start + limit;
+    }
+
+    /** Make the root of the arena represent BOARD.  If BOARD's moves
+     *  continue those of the position last searched, the subtree for
+     *  BOARD is kept and compacted to the front of the arena; otherwise
+     *  the tree is discarded. */
+    private void reuseTree(Board board) {
+        List<Move> moves = board.allMoves();
+        int node = -1;
+        if (_size.get() > 0 && moves.size() >= _searchedMoves
+            && moves.subList(0, _searchedMoves).equals(_history)) {
+            Board searched = new Board(board);
+            while (searched.numMoves() > _searchedMoves) {
+                searched.undo();
+            }
+            if (searched.zobristKey() == _searchedKey) {
+                node = ROOT;
+            }
+        }
+        for (int i = _searchedMoves; node != -1 && i < moves.size();
+             i += 1) {
+            node = child(node, moves.get(i).code());
+        }
+        if (node == -1) {
+            _size.set(1);
+            _parent[ROOT] = -1;
+            _numChildren.set(ROOT, 0);
+            _visits.set(ROOT, 0);
+            _wins.set(ROOT, 0);
+            _move[ROOT] = -1;
+        } else if (node != ROOT) {
+            compact(node);
+        }
+    }
+
+    /** Return the child of NODE reached by the move with code MOVE, or -1
+     *  if there is none. */
+    private int child(int node, int move) {
+        for (int c = _firstChild[node], k = 0;
+             k < _numChildren.get(node); c += 1, k += 1) {
+            if (_move[c] == move) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /** Discard all nodes but the subtree rooted at NODE, which becomes the
+     *  root, and move the rest to the front of the arena, preserving
+     *  their order (and so the contiguity of each node's children).  Must
+     *  not be called during a search. */
+    private void compact(int node) {
+        int size = _size.get();
+        Arrays.fill(_map, 0, size, -1);
+        _map[node] = 0;
+        int[] stack = new int[size];
+        int sp = 0;
+        stack[sp++] = node;
+        while (sp > 0) {
+            int n = stack[--sp];
+            for (int c = _firstChild[n], k = 0; k < _numChildren.get(n);
+                 c += 1, k += 1) {
+                _map[c] = 0;
+                stack[sp++] = c;
+            }
+        }
+        int next = 0;
+        for (int i = 0; i < size; i += 1) {
+            if (_map[i] == -1) {
+                continue;
+            }
+            _map[i] = next;
+            _parent[next] = _parent[i];
+            _firstChild[next] = _firstChild[i];
+            _numChildren.set(next, _numChildren.get(i));
+            _move[next] = _move[i];
+            _visits.set(next, _visits.get(i));
+            _wins.set(next, _wins.get(i));
+            next += 1;
+        }
+        for (int i = 0; i < next; i += 1) {
+            _parent[i] = i == ROOT ? -1 : _map[_parent[i]];
+            if (_numChildren.get(i) > 0) {
+                _firstChild[i] = _map[_firstChild[i]];
+            }
+        }
+        _size.set(next);
+    }
+
+    /** Perform one iteration of the search from the position ROOT:
+     *  select a path to a leaf, expand it, play out a random game from
+     *  it, and record the result along the path.  Each node's visit is
+     *  counted as it is selected, and its result only after the playout.
+     *  MOVES is scratch space for move generation, and RANDOM chooses the
+     *  playout's moves.  ROOT is restored before returning. */
+    private void iterate(BitBoard root, int[] moves, Random random) {
+        int node = ROOT;
+        _visits.incrementAndGet(ROOT);
+        for (int n = _numChildren.get(node); n > 0;
+             n = _numChildren.get(node)) {
+            node = select(node, n);
+            _visits.incrementAndGet(node);
+            root.makeMove(Move.fromCode(_move[node]));
+        }
+        if (root.getWinner() == null
+            && (_visits.get(node) > 1 || node == ROOT)
+            && expand(node, root, moves)) {
+            node = select(node, _numChildren.get(node));
+            _visits.incrementAndGet(node);
+            root.makeMove(Move.fromCode(_move[node]));
+        }
+        PieceColor winner = playout(root, moves, random);
+        for (; node != ROOT; node = _parent[node]) {
+            root.undo();
+            if (winner == EMPTY) {
+                _wins.addAndGet(node, 1);
+            } else if (winner == root.whoseMove()) {
+                _wins.addAndGet(node, 2);
+            }
+        }
+    }
+
+    /** Return the child of NODE, which has N children, with the greatest
+     *  UCT value: its average result for the player who moves to it plus
+     *  _exploration times sqrt(ln(visits to NODE) / visits to the child).
+     *  Unvisited children come first. */
+    private int select(int node, int n) {
+        double logVisits = Math.log(max(1, _visits.get(node)));
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = _firstChild[node], k = 0; k < n; c += 1, k += 1) {
+            int visits = _visits.get(c);
+            if (visits == 0) {
+                return c;
+            }
+            double value = _wins.get(c) / (2.0 * visits)
+                + _exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                best = c;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /** Add children to NODE, whose position is BOARD, for each of its
+     *  moves (or a pass, if there are none), using MOVES as scratch space.
+     *  Return false (and add nothing) if the arena is full or another
+     *  thread is already expanding NODE.  The children are filled in
+     *  before the count of NODE's children is set, so that a thread that
+     *  sees the count also sees the children. */
+    private boolean expand(int node, BitBoard board, int[] moves) {
+        if (!_numChildren.compareAndSet(node, 0, EXPANDING)) {
+            return false;
+        }
+        int n = MoveGenerator.generate(board, moves, 0);
+        if (n == 0) {
+            moves[0] = Move.PASS.code();
+            n = 1;
+        }
+        int first = allocate(n);
+        if (first == -1) {
+            _numChildren.set(node, 0);
+            return false;
+        }
+        for (int i = 0; i < n; i += 1) {
+            int c = first + i;
+            _parent[c] = node;
+            _numChildren.set(c, 0);
+            _move[c] = moves[i];
+            _visits.set(c, 0);
+            _wins.set(c, 0);
+        }
+        _firstChild[node] = first;
+        _numChildren.set(node, n);
+        return true;
+    }
+
+    /** Reserve N consecutive nodes in the arena and return the index of
+     *  the first, or -1 if there is not enough room. */
+    private int allocate(int n) {
+        while (true) {
+            int size = _size.get();
+            if (size + n > _parent.length) {
+                return -1;
+            }
+            if (_size.compareAndSet(size, size + n)) {
+                return size;
+            }
+        }
+    }
+
+    /** Play random moves on BOARD, chosen with RANDOM, using MOVES as
+     *  scratch space, until the game ends, and return the winner (EMPTY
+     *  for a draw).  The moves are undone before returning. */
+    private PieceColor playout(BitBoard board, int[] moves, Random random) {
+        int start = board.numMoves();
+        while (board.getWinner() == null) {
+            int n = MoveGenerator.generate(board, moves, 0);
+            if (n == 0) {
+                board.pass();
+            } else {
+                board.makeMove(Move.fromCode(moves[random.nextInt(n)]));
+            }
+        }
+        PieceColor winner = board.getWinner();
+        while (board.numMoves() > start) {
+            board.undo();
+        }
+        return winner;
+    }
+
+    /** Index of the root node. */
+    private static final int ROOT = 0;
+
+    /** Value of _numChildren for a node whose children are being added. */
+    private static final int EXPANDING = -1;
+
+    /** Difference between the random seeds of successive threads. */
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    /* The arena.  Node K's parent is _parent[K] (-1 for the root), its
+     * children are _firstChild[K] .. _firstChild[K] + _numChildren[K] - 1
+     * (none if it has not been expanded), and the move from its parent to
+     * it has code _move[K].  It has been visited _visits[K] times, with a
+     * total result of _wins[K] half-points for the player who made that
+     * move (2 for a win, 1 for a draw).  The visits include playouts
+     * still in progress. */
+
+    /** Parents of nodes. */
+    private final int[] _parent;
+    /** First children of nodes. */
+    private final int[] _firstChild;
+    /** Numbers of children of nodes (or EXPANDING). */
+    private final AtomicIntegerArray _numChildren;
+    /** Codes of the moves leading to nodes. */
+    private final int[] _move;
+    /** Visit counts of nodes. */
+    private final AtomicIntegerArray _visits;
+    /** Total results of nodes, in half-points. */
+    private final AtomicLongArray _wins;
+    /** Scratch space for compact. */
+    private final int[] _map;
+
+    /** Number of nodes in use. */
+    private final AtomicInteger _size;
+
+    /** The moves leading to the position whose tree is in the arena. */
+    private List<Move> _history;
+
+    /** The number of moves in _history. */
+    private int _searchedMoves;
+
+    /** The Zobrist key of the position whose tree is in the arena.  Unlike
+     *  _history, this reflects the blocks. */
+    private long _searchedKey;
+
+    /** The exploration constant. */
+    private double _exploration;
+
+    /** Playouts per search when there is no time limit. */
+    private int _playoutLimit;
+
+    /** Time per search set by setMoveTime, or -1 if none. */
+    private int _moveTime;
+
+    /** Where to record statistics of each search, or null. */
+    private SearchStats _stats;
+
+    /** Number of playouts in the last search. */
+    private long _playouts;
+
+    /** Number of playouts begun in the current untimed search. */
+    private final AtomicLong _claimed = new AtomicLong();
+
+    /** True when the current search should stop. */
+    private volatile boolean _stopped;
+
+    /** True iff the current search has a time limit. */
+    private boolean _deadlineTimed;
+
+    /** Total search time (nanoseconds) used so far in this game. */
+    private long _timeUsed;
+
+    /** Value of numMoves() for the board at my last search; used to
+     *  detect the start of a new game. */
+    private int _lastMoveNumber;
+
+    /** Seed for the threads' random-number generators. */
+    private final long _seed;
+
+    /** Number of threads searching. */
+    private int _threads;
+
+    /** Pool that runs all threads but the first, or null if there is
+     *  only one. */
+    private ForkJoinPool _pool;
+
+    /** Pseudo-random number generators for playouts, one per thread. */
+    private Random[] _randoms;
+}
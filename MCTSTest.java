@@ -0,0 +1,97 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import org.junit.Test;
+
+import static ataxx.PieceColor.*;
+import static org.junit.Assert.*;
+
+/** Tests of the MCTS player.
+ *  @author Katrina Sharonin
+ */
+public class MCTSTest {
+
+    /** Return an MCTS player for COLOR with a small arena, making N
+     *  playouts per move. */
+    private static MCTS player(PieceColor color, int n) {
+        MCTS result = new MCTS(null, color, 42, 1 << 16);
+        result.setPlayouts(n);
+        return result;
+    }
+
+    @Test
+    public void testLegalAndRepeatable() {
+        Board b = new Board();
+        b.setBlock('c', '4');
+        for (int i = 0; i < 10 && b.getWinner() == null; i += 1) {
+            Move m0 = player(b.whoseMove(), 300).findMove(b),
+                m1 = player(b.whoseMove(), 300).findMove(b);
+            assertTrue("illegal move " + m0, b.legalMove(m0));
+            assertEquals("same seed gave different moves", m0, m1);
+            b.makeMove(m0);
+        }
+    }
+
+    @Test
+    public void testWinningCapture() {
+        Board b = new Board();
+        b.setup("r6/7/7/7/7/5b1/6r r");
+        Move m = player(RED, 2000).findMove(b);
+        b.makeMove(m);
+        assertEquals("missed capture of last piece " + m, RED,
+                     b.getWinner());
+    }
+
+    @Test
+    public void testTreeReuse() {
+        Board b = new Board();
+        MCTS red = player(RED, 2000);
+        b.makeMove(red.findMove(b));
+        int size = red.treeSize();
+        b.makeMove(MoveGenerator.legalMoves(b).get(0));
+        red.findMove(b);
+        assertTrue("tree not reused",
+                   red.treeSize() > size / 50 + 2000);
+
+        Board other = new Board();
+        other.setBlock('d', '2');
+        red.findMove(other);
+        assertTrue("tree reused for a different position",
+                   red.treeSize() < size);
+    }
+
+    @Test
+    public void testParallel() {
+        Board b = new Board();
+        b.setBlock('b', '3');
+        MCTS red = player(RED, 4000);
+        red.setThreads(4);
+        for (int i = 0; i < 6 && b.getWinner() == null; i += 1) {
+            Move m = red.findMove(b);
+            assertTrue("illegal move " + m, b.legalMove(m));
+            assertEquals("wrong number of playouts", 4000, red.playouts());
+            b.makeMove(m);
+            b.makeMove(MoveGenerator.legalMoves(b).get(0));
+        }
+        b.setup("r6/7/7/7/7/5b1/6r r");
+        Move m = red.findMove(b);
+        b.makeMove(m);
+        assertEquals("missed capture of last piece " + m, RED,
+                     b.getWinner());
+    }
+
+    @Test
+    public void testFullArena() {
+        Board b = new Board();
+        MCTS red = new MCTS(null, RED, 1, MoveGenerator.MAX_MOVES + 1);
+        red.setPlayouts(500);
+        Move m = red.findMove(b);
+        assertTrue("illegal move " + m, b.legalMove(m));
+        assertTrue("arena overflowed",
+                   red.treeSize() <= MoveGenerator.MAX_MOVES + 1);
+    }
+
+}
@@ -4,10 +4,13 @@
 
 package ataxx;
 
+import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 import static ataxx.Utils.*;
@@ -28,16 +31,47 @@ public class Main {
      *       --log: Print commands.
      *       --strict: Strict mode---players errors cause error exit.
      *       --debug: Set level of debugging information.
+     *       --hash=N: Use N megabytes for each AI's transposition table.
+     *       --movetime=MS: Limit each AI move to MS milliseconds.
+     *       --gametime=MS: Limit each AI to MS milliseconds per game.
+     *       --threads=N: Let each AI search with N threads.
+     *       --lazy: Use Lazy SMP for multi-threaded searches.
+     *       --explore=C: Use C as the MCTS exploration constant.
+     *       --eval=E: Use evaluator E (material or features) in AIs.
+     *       --analyze=FILE: Analyze the positions in FILE and exit.
+     *       --server=ADDRESS: Host games for clients connecting to
+     *           ADDRESS (a local TCP port or Unix-domain socket).
+     *       --uci: Speak an engine protocol (see Protocol) on the standard
+     *           input and output.
+     *       --depth=N: With --analyze or --server, search N plies.
+     *       --workers=N: With --analyze or --server, use N threads to
+     *           search.
+     *       --stats=FILE: Write statistics of all AI searches to FILE
+     *           (the standard error if "-") as JSON on exit.
+     *       --book=FILE: Have AIs play moves from the opening book FILE
+     *           (see BookBuilder) when it has them.
+     *       --endgame=N: Have AIs solve positions with at most N empty
+     *           squares exactly (0 for never).
      *  Trailing arguments are input files; the standard input is the
      *  default.
      */
     public static void main(String[] args0) {
         CommandArgs args =
             new CommandArgs("--display{0,1} --strict --version --timing --log"
-                            + " --debug=(\\d+){0,1} --=(.*){0,}", args0);
+                            + " --debug=(\\d+){0,1} --hash=(\\d+){0,1}"
+                            + " --movetime=(\\d+){0,1} --gametime=(\\d+){0,1}"
+                            + " --threads=(\\d+){0,1} --lazy"
+                            + " --explore=(\\d+(?:\\.\\d*)?){0,1}"
+                            + " --eval=(material|features){0,1}"
+                            + " --analyze=(.+){0,1} --depth=(\\d+){0,1}"
+                            + " --workers=(\\d+){0,1} --server=(.+){0,1}"
+                            + " --uci --stats=(.+){0,1} --book=(.+){0,1}"
+                            + " --endgame=(\\d+){0,1}"
+                            + " --=(.*){0,}", args0);
 
-
-        System.out.println("CS61B Ataxx! Version 3.0");
+        if (!args.contains("--analyze") && !args.contains("--uci")) {
+            System.out.println("CS61B Ataxx! Version 3.0");
+        }
 
         if (!args.ok()) {
             usage();
@@ -50,10 +84,67 @@ public class Main {
         }
 
         _strict = args.contains("--strict");
+        _timing = args.contains("--timing");
         boolean log = args.contains("--log");
         if (args.contains("--debug")) {
             Utils.setMessageLevel(args.getInt("--debug"));
         }
+        if (args.contains("--hash")) {
+            _hashSize = args.getInt("--hash");
+        }
+        if (args.contains("--movetime")) {
+            _moveTime = args.getInt("--movetime");
+        }
+        if (args.contains("--gametime")) {
+            _gameTime = args.getInt("--gametime");
+        }
+        if (args.contains("--threads")) {
+            _threads = args.getInt("--threads");
+        }
+        _lazy = args.contains("--lazy");
+        if (args.contains("--explore")) {
+            _exploration = Double.parseDouble(args.getFirst("--explore"));
+        }
+        if (args.contains("--eval")) {
+            _features = args.getFirst("--eval").equals("features");
+        }
+
+        if (args.contains("--endgame")) {
+            _endgame = args.getInt("--endgame");
+        }
+
+        if (args.contains("--stats")) {
+            writeStats(args.getFirst("--stats"));
+        }
+
+        if (args.contains("--book")) {
+            String name = args.getFirst("--book");
+            try {
+                _book = new OpeningBook(Path.of(name));
+            } catch (IOException | GameException excp) {
+                System.err.printf("Could not read opening book %s: %s%n",
+                                  name, excp.getMessage());
+                System.exit(1);
+            }
+        }
+
+        int depth = args.contains("--depth") ? args.getInt("--depth") : 0;
+        if (args.contains("--analyze")) {
+            System.exit(analyze(args.getFirst("--analyze"), depth,
+                                args.contains("--workers")
+                                ? args.getInt("--workers") : 1));
+        }
+        if (args.contains("--uci")) {
+            System.exit(new Protocol(
+                new BufferedReader(new InputStreamReader(System.in)),
+                new PrintWriter(System.out)).run());
+        }
+        if (args.contains("--server")) {
+            System.exit(serve(args.getFirst("--server"), depth,
+                              args.contains("--workers")
+                              ? args.getInt("--workers")
+                              : Runtime.getRuntime().availableProcessors()));
+        }
 
         Game game;
         if (args.contains("--display")) {
@@ -86,6 +177,66 @@ public class Main {
         System.exit(game.play());
     }
 
+    /** Analyze the positions in the file named NAME (the standard input
+     *  if "-") with WORKERS threads, searching DEPTH plies (or for the
+     *  --movetime limit if DEPTH is 0), and print the results on the
+     *  standard output.  Returns the exit code. */
+    private static int analyze(String name, int depth, int workers) {
+        try (BufferedReader input =
+             new BufferedReader(name.equals("-")
+                                ? new InputStreamReader(System.in)
+                                : new FileReader(name))) {
+            if (depth == 0 && _moveTime == 0) {
+                depth = DEFAULT_ANALYSIS_DEPTH;
+            }
+            new Analyzer(workers, depth, ANALYSIS_WINDOW * workers)
+                .analyze(input, new PrintWriter(System.out));
+            return 0;
+        } catch (IOException excp) {
+            System.err.printf("Could not read %s%n", name);
+            return 1;
+        }
+    }
+
+    /** Host games for clients connecting to ADDRESS (see
+     *  Server.address(String)), searching for their automatic players
+     *  with WORKERS threads to DEPTH plies (or the default depth or
+     *  --movetime limit if DEPTH is 0).  Returns the exit code if the
+     *  server fails. */
+    private static int serve(String address, int depth, int workers) {
+        try {
+            Server server = new Server(Server.address(address), workers,
+                                       depth);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException excp) {
+                    /* Ignore. */
+                }
+            }));
+            System.out.printf("Serving on %s%n", server.address());
+            server.serve();
+            return 0;
+        } catch (IOException excp) {
+            System.err.printf("Could not listen on %s: %s%n", address,
+                              excp.getMessage());
+            return 1;
+        }
+    }
+
+    /** Gather statistics of all AI searches from now on, and write them
+     *  to the file named NAME (see SearchStats.write) on exit. */
+    private static void writeStats(String name) {
+        _stats = new SearchStats();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                _stats.write(name);
+            } catch (IOException excp) {
+                System.err.printf("Could not write %s%n", name);
+            }
+        }));
+    }
+
     /** Print usage message. */
     private static void usage() {
         printHelpResource(USAGE, System.err);
@@ -98,8 +249,69 @@ public class Main {
         return _strict;
     }
 
+    /** Return the size, in megabytes, of the transposition table to be
+     *  used by each AI. */
+    static int hashSize() {
+        return _hashSize;
+    }
+
+    /** Return the time limit in milliseconds for each AI move, or 0 if
+     *  there is none. */
+    static long moveTime() {
+        return _moveTime;
+    }
+
+    /** Return the time limit in milliseconds for all of an AI's moves in
+     *  one game, or 0 if there is none. */
+    static long gameTime() {
+        return _gameTime;
+    }
+
+    /** Return the number of threads each AI should search with. */
+    static int threads() {
+        return _threads;
+    }
+
+    /** Return true iff multi-threaded AIs should use Lazy SMP rather
+     *  than splitting the search tree. */
+    static boolean lazy() {
+        return _lazy;
+    }
+
+    /** Return the exploration constant for MCTS players. */
+    static double exploration() {
+        return _exploration;
+    }
+
+    /** Return a new Evaluator of the kind AIs should use. */
+    static Evaluator evaluator() {
+        return _features ? new FeatureEvaluator() : Evaluator.MATERIAL;
+    }
+
+    /** Return where AIs should record search statistics, or null if
+     *  they should not (--stats). */
+    static SearchStats stats() {
+        return _stats;
+    }
+
+    /** Return the largest number of empty squares at which AIs should
+     *  solve positions exactly (--endgame), or 0 if never. */
+    static int endgame() {
+        return _endgame;
+    }
+
+    /** Return the opening book AIs should use (--book), or null. */
+    static OpeningBook book() {
+        return _book;
+    }
+
     /* TIMING */
 
+    /** Return true iff AIs should report their timing. */
+    static boolean isTiming() {
+        return _timing;
+    }
+
     /** Start timing an operation. */
     static void startTiming() {
         if (_timing) {
@@ -137,6 +349,46 @@ public class Main {
      *  manual player terminate the program with an error code of 2. */
     private static boolean _strict;
 
+    /** Search depth used by --analyze when neither --depth nor
+     *  --movetime is given. */
+    static final int DEFAULT_ANALYSIS_DEPTH = 4;
+
+    /** Number of positions per worker that --analyze reads ahead of
+     *  its output. */
+    static final int ANALYSIS_WINDOW = 4;
+
+    /** Default value of hashSize(). */
+    static final int DEFAULT_HASH_SIZE = 16;
+
+    /** Transposition-table size in megabytes (--hash). */
+    private static int _hashSize = DEFAULT_HASH_SIZE;
+
+    /** AI time limits in milliseconds (--movetime, --gametime), or 0. */
+    private static long _moveTime, _gameTime;
+
+    /** Number of search threads per AI (--threads). */
+    private static int _threads = 1;
+
+    /** True iff multi-threaded AIs use Lazy SMP (--lazy). */
+    private static boolean _lazy;
+
+    /** MCTS exploration constant (--explore). */
+    private static double _exploration = MCTS.DEFAULT_EXPLORATION;
+
+    /** True iff AIs use a FeatureEvaluator rather than material alone
+     *  (--eval). */
+    private static boolean _features = true;
+
+    /** Statistics of all AI searches (--stats), or null. */
+    private static SearchStats _stats;
+
+    /** Largest number of empty squares at which AIs solve positions
+     *  (--endgame). */
+    private static int _endgame = EndgameSolver.DEFAULT_EMPTIES;
+
+    /** Opening book for AIs (--book), or null. */
+    private static OpeningBook _book;
+
     /** Accumulated time. */
     private static long _totalTime;
 
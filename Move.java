@@ -30,6 +30,7 @@ class Move {
         _row1 = (char) (row1 + '1' - 2);
         _fromIndex = row0 * EXTENDED_SIDE + col0;
         _toIndex = row1 * EXTENDED_SIDE + col1;
+        _code = _fromIndex * EXTENDED_SIDE * EXTENDED_SIDE + _toIndex;
 
         for (int vert = -1; vert <= 1; vert++) {
             for (int horiz = -1; horiz <= 1; horiz++) {
@@ -52,6 +53,7 @@ class Move {
     private Move() {
         _col0 = _col1 = _row0 = _row1 = 0;
         _fromIndex = _toIndex = -1;
+        _code = 0;
         _isJump = _isExtend = false;
     }
 
@@ -82,6 +84,11 @@ class Move {
         }
     }
 
+    /** Return the Move whose code() is CODE, or null if there is none. */
+    static Move fromCode(int code) {
+        return BY_CODE[code];
+    }
+
     /** Returns a pass. */
     static Move pass() {
         return PASS;
@@ -134,6 +141,13 @@ class Move {
         return _toIndex;
     }
 
+    /** Return a small non-negative integer that uniquely identifies me,
+     *  for use where moves are kept in primitive arrays.  It is 0 for a
+     *  pass, and less than MAX_CODE. */
+    int code() {
+        return _code;
+    }
+
     @Override
     public String toString() {
         if (this == PASS) {
@@ -156,9 +170,16 @@ class Move {
     /** The pass. */
     static final Move PASS = new Move();
 
+    /** An upper bound on the values of code(). */
+    static final int MAX_CODE =
+        EXTENDED_SIDE * EXTENDED_SIDE * EXTENDED_SIDE * EXTENDED_SIDE;
+
     /** Linearized indices. */
     private final int _fromIndex, _toIndex;
 
+    /** Value of code(). */
+    private final int _code;
+
     /** Move characteristics, indicating whether move is extension or jump. */
     private boolean _isExtend, _isJump;
 
@@ -170,14 +191,19 @@ class Move {
     private static final Move[][][][] ALL_MOVES =
         new Move[EXTENDED_SIDE][EXTENDED_SIDE][EXTENDED_SIDE][EXTENDED_SIDE];
 
+    /** All Moves, indexed by code(). */
+    private static final Move[] BY_CODE = new Move[MAX_CODE];
+
     static {
+        BY_CODE[0] = PASS;
         for (int c = 2; c < SIDE + 2; c += 1) {
             for (int r = 2; r < SIDE + 2; r += 1) {
                 for (int dc = -2; dc <= 2; dc += 1) {
                     for (int dr = -2; dr <= 2; dr += 1) {
                         if (dc != 0 || dr != 0) {
-                            ALL_MOVES[c][r][c + dc][r + dr] =
-                                new Move(c, r, c + dc, r + dr);
+                            Move m = new Move(c, r, c + dc, r + dr);
+                            ALL_MOVES[c][r][c + dc][r + dr] = m;
+                            BY_CODE[m.code()] = m;
                         }
                     }
                 }
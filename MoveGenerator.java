@@ -0,0 +1,228 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static ataxx.PieceColor.*;
+
+/** Fast generation of the moves available on a Board, for use in
+ *  searches.  Moves are produced as their codes (see Move.code) in an
+ *  int array supplied by the caller, so that generation allocates
+ *  nothing; Move.fromCode converts them back to Moves where needed.
+ *
+ *  Generation walks precomputed tables of the squares adjacent to and
+ *  two away from each square, and only looks at the contents of squares:
+ *  it does not check whose move it is, whether the game is over, or
+ *  whether a pass is needed.  Since all extends onto the same square lead
+ *  to the same position, only one of them (the one from the lowest-
+ *  numbered adjacent square) is generated for each empty square.
+ *  @author Katrina Sharonin
+ */
+class MoveGenerator {
+
+    /** Number of playable squares. */
+    static final int SQUARES = Board.SIDE * Board.SIDE;
+
+    /** An upper bound on the number of moves generate or generateAll can
+     *  produce: sixteen jumps and eight extends from each square. */
+    static final int MAX_MOVES = SQUARES * (16 + 8);
+
+    /** The linearized indices of the playable squares, in increasing
+     *  order. */
+    static final int[] PLAYABLE = new int[SQUARES];
+
+    /** ADJACENT[SQ] lists, in increasing order, the playable squares
+     *  adjacent to the square with linearized index SQ. */
+    static final int[][] ADJACENT =
+        new int[Board.EXTENDED_SIDE * Board.EXTENDED_SIDE][];
+
+    /** JUMPS[SQ] lists, in increasing order, the playable squares exactly
+     *  two rows or columns away from the square with linearized index SQ
+     *  (i.e., the destinations of jumps from SQ). */
+    static final int[][] JUMPS =
+        new int[Board.EXTENDED_SIDE * Board.EXTENDED_SIDE][];
+
+    static {
+        int k = 0;
+        for (char r = '1'; r <= '7'; r += 1) {
+            for (char c = 'a'; c <= 'g'; c += 1) {
+                PLAYABLE[k] = Board.index(c, r);
+                k += 1;
+            }
+        }
+        for (int sq : PLAYABLE) {
+            int[] adjacent = new int[8], jumps = new int[16];
+            int na, nj;
+            na = nj = 0;
+            for (int dr = -2; dr <= 2; dr += 1) {
+                for (int dc = -2; dc <= 2; dc += 1) {
+                    int to = Board.neighbor(sq, dc, dr);
+                    if ((dr == 0 && dc == 0) || !isPlayable(to)) {
+                        continue;
+                    }
+                    if (Math.abs(dr) <= 1 && Math.abs(dc) <= 1) {
+                        adjacent[na++] = to;
+                    } else {
+                        jumps[nj++] = to;
+                    }
+                }
+            }
+            ADJACENT[sq] = Arrays.copyOf(adjacent, na);
+            JUMPS[sq] = Arrays.copyOf(jumps, nj);
+        }
+    }
+
+    /** Return true iff SQ is the linearized index of a playable
+     *  square. */
+    static boolean isPlayable(int sq) {
+        int row = sq / Board.EXTENDED_SIDE, col = sq % Board.EXTENDED_SIDE;
+        return row >= 2 && row < Board.SIDE + 2
+            && col >= 2 && col < Board.SIDE + 2;
+    }
+
+    /** Return the code of the move from linearized index FROM to TO. */
+    static int code(int from, int to) {
+        return from * Board.EXTENDED_SIDE * Board.EXTENDED_SIDE + to;
+    }
+
+    /** Return the linearized index of the destination of the move with
+     *  code MOVE. */
+    static int toIndex(int move) {
+        return move % (Board.EXTENDED_SIDE * Board.EXTENDED_SIDE);
+    }
+
+    /** Store the codes of the moves available to the player to move on
+     *  BOARD in MOVES[START], MOVES[START + 1], ..., and return their
+     *  number.  Extends come first, one per reachable empty square, then
+     *  jumps.  Returns 0 if there are no moves (in which case the player
+     *  must pass).  MOVES must have room for MAX_MOVES codes. */
+    static int generate(Board board, int[] moves, int start) {
+        PieceColor me = board.whoseMove();
+        int n = start;
+        for (int to : PLAYABLE) {
+            if (board.get(to) != EMPTY) {
+                continue;
+            }
+            for (int from : ADJACENT[to]) {
+                if (board.get(from) == me) {
+                    moves[n++] = code(from, to);
+                    break;
+                }
+            }
+        }
+        for (int from : PLAYABLE) {
+            if (board.get(from) != me) {
+                continue;
+            }
+            for (int to : JUMPS[from]) {
+                if (board.get(to) == EMPTY) {
+                    moves[n++] = code(from, to);
+                }
+            }
+        }
+        return n - start;
+    }
+
+    /** As for generate(Board, MOVES, START), but for BOARD, a BitBoard.
+     *  The moves are the same, and in the same order, as for a Board with
+     *  the same position. */
+    static int generate(BitBoard board, int[] moves, int start) {
+        long mine = board.mask(board.whoseMove()), empty = board.emptyMask();
+        int n = start;
+        for (long targets = BitBoard.grow(mine) & empty; targets != 0;
+             targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int from =
+                Long.numberOfTrailingZeros(BitBoard.NEIGHBORS1[to] & mine);
+            moves[n++] = code(BitBoard.BIT_TO_INDEX[from],
+                              BitBoard.BIT_TO_INDEX[to]);
+        }
+        for (long pieces = mine; pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            for (long targets = BitBoard.NEIGHBORS2[from] & empty;
+                 targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                moves[n++] = code(BitBoard.BIT_TO_INDEX[from],
+                                  BitBoard.BIT_TO_INDEX[to]);
+            }
+        }
+        return n - start;
+    }
+
+    /** As for generate, but producing every extend, one for each
+     *  friendly piece adjacent to each empty square, rather than one per
+     *  square.  This is the full set of legal non-pass moves, for
+     *  comparison with generate (see Benchmark). */
+    static int generateAll(Board board, int[] moves, int start) {
+        PieceColor me = board.whoseMove();
+        int n = start;
+        for (int to : PLAYABLE) {
+            if (board.get(to) != EMPTY) {
+                continue;
+            }
+            for (int from : ADJACENT[to]) {
+                if (board.get(from) == me) {
+                    moves[n++] = code(from, to);
+                }
+            }
+        }
+        for (int from : PLAYABLE) {
+            if (board.get(from) != me) {
+                continue;
+            }
+            for (int to : JUMPS[from]) {
+                if (board.get(to) == EMPTY) {
+                    moves[n++] = code(from, to);
+                }
+            }
+        }
+        return n - start;
+    }
+
+    /** Return all legal moves on B, or just a pass if there are none,
+     *  found by asking Board.legalMove about every move of up to two
+     *  squares from each of the mover's pieces.  This is slow, but simple
+     *  enough to serve as a reference for the generators (see Benchmark
+     *  and the tests), and it lists moves in a fixed order. */
+    static ArrayList<Move> legalMoves(Board b) {
+        ArrayList<Move> result = new ArrayList<>();
+        for (char r = '1'; r <= '7'; r += 1) {
+            for (char c = 'a'; c <= 'g'; c += 1) {
+                if (b.get(c, r) != b.whoseMove()) {
+                    continue;
+                }
+                for (int dr = -2; dr <= 2; dr += 1) {
+                    for (int dc = -2; dc <= 2; dc += 1) {
+                        Move m = Move.move(c, r, (char) (c + dc),
+                                           (char) (r + dr));
+                        if (b.legalMove(m)) {
+                            result.add(m);
+                        }
+                    }
+                }
+            }
+        }
+        if (result.isEmpty()) {
+            result.add(Move.pass());
+        }
+        return result;
+    }
+
+    /** Return the number of opposing pieces that the move with code MOVE
+     *  would capture on BOARD. */
+    static int captures(Board board, int move) {
+        PieceColor opponent = board.whoseMove().opposite();
+        int n = 0;
+        for (int sq : ADJACENT[toIndex(move)]) {
+            if (board.get(sq) == opponent) {
+                n += 1;
+            }
+        }
+        return n;
+    }
+
+}
@@ -0,0 +1,151 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static ataxx.PieceColor.*;
+import static org.junit.Assert.*;
+
+/** Tests of the MoveGenerator class.
+ *  @author Katrina Sharonin
+ */
+public class MoveGeneratorTest {
+
+    /** Return the moves generated for B, as Moves. */
+    static ArrayList<Move> generated(Board b) {
+        int[] codes = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(b, codes, 0);
+        ArrayList<Move> result = new ArrayList<>();
+        for (int i = 0; i < n; i += 1) {
+            result.add(Move.fromCode(codes[i]));
+        }
+        return result;
+    }
+
+    /** Check that the moves generated for B are all legal, are distinct,
+     *  include every legal jump, and reach every square reachable by a
+     *  legal extend exactly once. */
+    private void checkMoves(Board b) {
+        HashSet<Move> jumps = new HashSet<>();
+        HashSet<Integer> extends0 = new HashSet<>();
+        for (Move m : MoveGenerator.legalMoves(b)) {
+            if (m.isJump()) {
+                jumps.add(m);
+            } else if (m.isExtend()) {
+                extends0.add(Board.index(m.col1(), m.row1()));
+            }
+        }
+        HashSet<Move> seenJumps = new HashSet<>();
+        HashSet<Integer> seenExtends = new HashSet<>();
+        for (Move m : generated(b)) {
+            assertTrue("illegal move generated: " + m, b.legalMove(m));
+            if (m.isJump()) {
+                assertTrue("duplicate jump " + m, seenJumps.add(m));
+            } else {
+                int to = Board.index(m.col1(), m.row1());
+                assertTrue("duplicate extend to " + m,
+                           seenExtends.add(to));
+            }
+        }
+        assertEquals("wrong jumps", jumps, seenJumps);
+        assertEquals("wrong extends", extends0, seenExtends);
+    }
+
+    /** Check that generateAll produces exactly the legal non-pass moves
+     *  of B. */
+    private void checkAllMoves(Board b) {
+        HashSet<Move> legal = new HashSet<>(MoveGenerator.legalMoves(b));
+        legal.remove(Move.PASS);
+        int[] codes = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generateAll(b, codes, 0);
+        HashSet<Move> all = new HashSet<>();
+        for (int i = 0; i < n; i += 1) {
+            assertTrue("duplicate move", all.add(Move.fromCode(codes[i])));
+        }
+        assertEquals("wrong moves from generateAll", legal, all);
+    }
+
+    /** Check that the moves generated for a BitBoard copy of B are the
+     *  same as those generated for B, in the same order. */
+    private void checkBitBoardMoves(Board b) {
+        int[] codes = new int[MoveGenerator.MAX_MOVES],
+            bitCodes = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(b, codes, 0);
+        assertEquals("wrong number of BitBoard moves", n,
+                     MoveGenerator.generate(new BitBoard(b), bitCodes, 0));
+        for (int i = 0; i < n; i += 1) {
+            assertEquals("wrong BitBoard move", Move.fromCode(codes[i]),
+                         Move.fromCode(bitCodes[i]));
+        }
+    }
+
+    @Test
+    public void testInitial() {
+        Board b = new Board();
+        checkMoves(b);
+        assertEquals("wrong number of initial moves", 16,
+                     generated(b).size());
+    }
+
+    @Test
+    public void testNoMoves() {
+        Board b = new Board();
+        for (char c = 'a'; c <= 'c'; c += 1) {
+            for (char r = '5'; r <= '7'; r += 1) {
+                if (b.get(c, r) == EMPTY) {
+                    b.setBlock(c, r);
+                }
+            }
+        }
+        assertEquals("moves generated for blocked-in pieces", 0,
+                     generated(b).size());
+    }
+
+    @Test
+    public void testCaptures() {
+        Board b = new Board();
+        b.makeMove('a', '7', 'b', '6');
+        b.makeMove('g', '7', 'f', '6');
+        int[] codes = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(b, codes, 0);
+        for (int i = 0; i < n; i += 1) {
+            Move m = Move.fromCode(codes[i]);
+            int captures = MoveGenerator.captures(b, codes[i]);
+            int before = b.numPieces(BLUE);
+            b.makeMove(m);
+            assertEquals("wrong capture count for " + m,
+                         before - b.numPieces(BLUE), captures);
+            b.undo();
+        }
+    }
+
+    @Test
+    public void testRandomPositions() {
+        Random random = new Random(7);
+        for (int game = 0; game < 30; game += 1) {
+            Board b = new Board();
+            for (int i = 0; i < 4; i += 1) {
+                char c = (char) ('a' + random.nextInt(7)),
+                    r = (char) ('1' + random.nextInt(7));
+                if (b.legalBlock(c, r)) {
+                    b.setBlock(c, r);
+                }
+            }
+            while (b.getWinner() == null) {
+                checkMoves(b);
+                checkAllMoves(b);
+                checkBitBoardMoves(b);
+                ArrayList<Move> legal = MoveGenerator.legalMoves(b);
+                b.makeMove(legal.get(random.nextInt(legal.size())));
+            }
+        }
+    }
+
+}
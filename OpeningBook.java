@@ -0,0 +1,187 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static ataxx.GameException.error;
+
+/** An opening book: a file of moves found good in positions early in
+ *  games (see BookBuilder), which the AI plays without searching.
+ *
+ *  The file is a HEADER_SIZE-byte header (MAGIC and the number of
+ *  entries, as longs), followed by entries of ENTRY_SIZE bytes, sorted by
+ *  canonical key (Symmetry.key(Board), as a signed long) and then by
+ *  move code.  Each entry gives the key of a position, the code of a
+ *  move played from it (Move.code()) as made in the position's canonical
+ *  image, the number of games (at most 65535) in which it was played,
+ *  and the points scored by the side making it in those games: 2 per win
+ *  and 1 per draw.  All are big-endian.  Thus positions equivalent under
+ *  symmetry, including those with the colors exchanged, share entries,
+ *  and a move found for one is mapped back to the position looked up.
+ *  Since the keys include blocked squares, the layouts of blocks made by
+ *  Board.setBlock that are not symmetric images of each other are
+ *  distinct positions, each in the book only if it was seen in building
+ *  it.
+ *
+ *  The file is mapped into memory rather than read, in chunks of at most
+ *  1 GB (a MappedByteBuffer holds at most 2 GB), so that opening even a
+ *  very large book takes no time and no heap, and looking a position up
+ *  (by binary search) touches only the pages it needs.
+ *  @author Katrina Sharonin
+ */
+class OpeningBook {
+
+    /** First eight bytes of a book file: "ATXBOOK2". */
+    static final long MAGIC = 0x415458424F4F4B32L;
+
+    /** Size of the header in bytes. */
+    static final int HEADER_SIZE = 16;
+
+    /** Size of an entry in bytes. */
+    static final int ENTRY_SIZE = 16;
+
+    /** Byte offsets of the fields of an entry. */
+    private static final int KEY = 0, MOVE = 8, GAMES = 10, POINTS = 12;
+
+    /** Log2 of the number of entries per mapped chunk. */
+    private static final int CHUNK_BITS = 26;
+
+    /** The book in the file named NAME. */
+    OpeningBook(Path name) throws IOException {
+        this(name, CHUNK_BITS);
+    }
+
+    /** The book in the file named NAME, mapped in chunks of
+     *  2**CHUNKBITS entries. */
+    OpeningBook(Path name, int chunkBits) throws IOException {
+        try (FileChannel file = FileChannel.open(name,
+                                                 StandardOpenOption.READ)) {
+            long size = file.size();
+            MappedByteBuffer header =
+                file.map(FileChannel.MapMode.READ_ONLY, 0,
+                         Math.min(size, HEADER_SIZE));
+            if (size < HEADER_SIZE || header.getLong(0) != MAGIC) {
+                throw error("%s is not an opening book", name);
+            }
+            _size = header.getLong(8);
+            if (_size < 0 || HEADER_SIZE + _size * ENTRY_SIZE != size) {
+                throw error("%s is truncated or damaged", name);
+            }
+            _chunkBits = chunkBits;
+            long perChunk = 1L << chunkBits;
+            _chunks = new MappedByteBuffer[
+                (int) ((_size + perChunk - 1) >> chunkBits)];
+            for (int k = 0; k < _chunks.length; k += 1) {
+                long first = (long) k << chunkBits;
+                _chunks[k] =
+                    file.map(FileChannel.MapMode.READ_ONLY,
+                             HEADER_SIZE + first * ENTRY_SIZE,
+                             Math.min(perChunk, _size - first)
+                             * ENTRY_SIZE);
+            }
+        }
+    }
+
+    /** Return the number of entries. */
+    long size() {
+        return _size;
+    }
+
+    /** Return the move recommended in BOARD, or null if the book has
+     *  none.  Of the moves in the book for BOARD's position that are legal
+     *  there, this is the one with the best average result (counting each
+     *  move as having also won one game and lost another, so that moves
+     *  seen in few games are not overrated), and then the most played. */
+    Move lookup(Board board) {
+        long key = Symmetry.key(board);
+        int back = Symmetry.inverse(Symmetry.transform(board));
+        Move best = null;
+        long bestPoints = 0, bestGames = 1;
+        for (long i = find(key); i < _size && key(i) == key; i += 1) {
+            Move move = Move.fromCode(Symmetry.move(back, move(i)));
+            if (move == null || !board.legalMove(move)) {
+                continue;
+            }
+            long games = games(i) + 2, points = points(i) + 2;
+            long compare = points * bestGames - bestPoints * games;
+            if (best == null || compare > 0
+                || (compare == 0 && games > bestGames)) {
+                best = move;
+                bestPoints = points;
+                bestGames = games;
+            }
+        }
+        return best;
+    }
+
+    /** Return the number of entries for the position whose canonical key
+     *  is KEY. */
+    int count(long key) {
+        int n = 0;
+        for (long i = find(key); i < _size && key(i) == key; i += 1) {
+            n += 1;
+        }
+        return n;
+    }
+
+    /** Return the index of the first entry whose key is at least KEY, or
+     *  size() if there is none. */
+    private long find(long key) {
+        long lo = 0, hi = _size;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (key(mid) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Return the key of entry I. */
+    long key(long i) {
+        return chunk(i).getLong(offset(i) + KEY);
+    }
+
+    /** Return the move code of entry I. */
+    int move(long i) {
+        return chunk(i).getShort(offset(i) + MOVE) & 0xffff;
+    }
+
+    /** Return the number of games of entry I. */
+    int games(long i) {
+        return chunk(i).getShort(offset(i) + GAMES) & 0xffff;
+    }
+
+    /** Return the points of entry I. */
+    long points(long i) {
+        return chunk(i).getInt(offset(i) + POINTS) & 0xffffffffL;
+    }
+
+    /** Return the chunk holding entry I. */
+    private MappedByteBuffer chunk(long i) {
+        return _chunks[(int) (i >>> _chunkBits)];
+    }
+
+    /** Return the offset of entry I in its chunk. */
+    private int offset(long i) {
+        return (int) (i & ((1L << _chunkBits) - 1)) * ENTRY_SIZE;
+    }
+
+    /** Number of entries. */
+    private final long _size;
+
+    /** Log2 of the number of entries per element of _chunks. */
+    private final int _chunkBits;
+
+    /** The entries, in order. */
+    private final MappedByteBuffer[] _chunks;
+}
@@ -0,0 +1,178 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of OpeningBook and BookBuilder.
+ *  @author Katrina Sharonin
+ */
+public class OpeningBookTest {
+
+    /** Games and analyses, as read by BookBuilder. */
+    private static final String GAMES =
+        "0 1 1-0 - a7-b6 g7-f6 g1-f2\n"
+        + "1 2 0-1 - g1-f2 g7-f6\n"
+        + "2 1 1/2 - a7-b6 a1-b2\n"
+        + "3 1 0-1 c3 g1-f2 g7-f6\n"
+        + "4 2 1-0 - a7-b6 | a1-b2 g1-f2\n"
+        + "{\"position\":\"r5b/7/7/7/7/7/b5r b\",\"bestmove\":\"g7-f6\","
+        + "\"score\":0}\n";
+
+    /** Return a book built from GAMES, crediting PLIES plies per game,
+     *  written to a temporary file. */
+    private static Path build(int plies) throws IOException {
+        BookBuilder builder = new BookBuilder(plies);
+        builder.read(new BufferedReader(new StringReader(GAMES)));
+        Path file = Files.createTempFile("ataxx", ".book");
+        builder.write(file);
+        return file;
+    }
+
+    /** Return BOARD after MOVES. */
+    private static Board after(Board board, String... moves) {
+        for (String move : moves) {
+            board.makeMove(Move.move(move));
+        }
+        return board;
+    }
+
+    /** Check that BOOK's move for BOARD is one of MOVES, reporting MSG
+     *  if not. */
+    private static void checkLookup(String msg, OpeningBook book,
+                                    Board board, String... moves) {
+        Move move = book.lookup(board);
+        assertNotNull(msg, move);
+        assertTrue(msg + ": " + move,
+                   Arrays.asList(moves).contains(move.toString()));
+    }
+
+    /** Return the total numbers of games and points of BOOK's entries for
+     *  the position on BOARD. */
+    private static long[] totals(OpeningBook book, Board board) {
+        long key = Symmetry.key(board);
+        long[] totals = new long[2];
+        for (long i = 0; i < book.size(); i += 1) {
+            if (book.key(i) == key) {
+                totals[0] += book.games(i);
+                totals[1] += book.points(i);
+            }
+        }
+        return totals;
+    }
+
+    @Test
+    public void testLookup() throws IOException {
+        Path file = build(2);
+        for (int chunkBits : new int[] { 0, 1, 2, 26 }) {
+            OpeningBook book = new OpeningBook(file, chunkBits);
+            assertEquals("wrong size", 4, book.size());
+            for (long i = 1; i < book.size(); i += 1) {
+                assertTrue("not sorted", book.key(i - 1) < book.key(i)
+                           || (book.key(i - 1) == book.key(i)
+                               && book.move(i - 1) < book.move(i)));
+            }
+            Board start = new Board();
+            assertEquals("symmetric moves not merged", 1,
+                         book.count(Symmetry.key(start)));
+            checkLookup("wrong opening", book, start, "a7-b6", "g1-f2");
+            checkLookup("wrong reply", book, after(new Board(), "a7-b6"),
+                        "a1-b2", "g7-f6");
+            checkLookup("wrong reply to reflection", book,
+                        after(new Board(), "g1-f2"), "a1-b2", "g7-f6");
+            assertNull("credited past the plies",
+                       book.lookup(after(new Board(), "a7-b6", "g7-f6")));
+            Board blocked = new Board();
+            blocked.setBlock("c3");
+            checkLookup("blocks ignored", book, blocked, "a7-b6", "g1-f2");
+            assertEquals("blocks not distinct", 1,
+                         book.count(Symmetry.key(blocked)));
+            blocked = new Board();
+            blocked.setBlock("e5");
+            checkLookup("reflections not the same layout", book, blocked,
+                        "a7-b6", "g1-f2");
+            Board blue = new Board();
+            blue.setup("r5b/7/7/7/7/7/b5r b");
+            checkLookup("colors not swapped", book, blue, "g7-f6",
+                        "a1-b2");
+            assertNull("found missing position",
+                       book.lookup(after(new Board(), "a7-a5")));
+        }
+        Files.delete(file);
+    }
+
+    @Test
+    public void testStatistics() throws IOException {
+        Path file = build(BookBuilder.DEFAULT_PLIES);
+        OpeningBook book = new OpeningBook(file);
+        long[] totals = totals(book, new Board());
+        assertEquals("credited random opening", 4, totals[0]);
+        assertEquals("wrong total points", 5, totals[1]);
+        totals = totals(book, after(new Board(), "a7-b6"));
+        assertEquals("wrong games after opening", 4, totals[0]);
+        assertEquals("wrong points after opening", 3, totals[1]);
+        Board blocked = new Board();
+        blocked.setBlock("c3");
+        totals = totals(book, after(blocked, "g1-f2"));
+        assertEquals("wrong games with blocks", 1, totals[0]);
+        assertEquals("wrong points with blocks", 2, totals[1]);
+        Files.delete(file);
+    }
+
+    @Test
+    public void testSelfPlay() throws IOException {
+        BookBuilder builder = new BookBuilder(4);
+        builder.selfPlay(4, 1, 0, 0, 0, 2);
+        assertEquals("wrong number of positions", 4, builder.positions());
+        Path file = Files.createTempFile("ataxx", ".book");
+        builder.write(file);
+        OpeningBook book = new OpeningBook(file);
+        assertEquals("wrong size", builder.entries(), book.size());
+        Move opening = book.lookup(new Board());
+        assertNotNull("no opening", opening);
+        AI ai = new AI(null, PieceColor.RED, 0);
+        ai.setBook(book);
+        assertEquals("book not used", opening, ai.findMove(new Board()));
+        assertEquals("searched", 0, ai.lastDepth());
+        ai.setBook(null);
+        ai.setMaxDepth(2);
+        ai.findMove(new Board());
+        assertEquals("did not search", 2, ai.lastDepth());
+        Files.delete(file);
+    }
+
+    @Test
+    public void testBadFiles() throws IOException {
+        Path file = build(2);
+        byte[] contents = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(contents, contents.length - 1));
+        checkBad(file);
+        contents[0] = 'X';
+        Files.write(file, contents);
+        checkBad(file);
+        Files.write(file, new byte[3]);
+        checkBad(file);
+        Files.delete(file);
+    }
+
+    /** Check that FILE is rejected as a book. */
+    private static void checkBad(Path file) throws IOException {
+        try {
+            new OpeningBook(file);
+            fail("accepted bad book");
+        } catch (GameException excp) {
+            /* Expected. */
+        }
+    }
+}
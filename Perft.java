@@ -0,0 +1,334 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import ucb.util.CommandArgs;
+
+import static ataxx.GameException.error;
+
+/** Perft ("performance test"): counts of the positions reachable from a
+ *  given position in a given number of plies, used to verify move
+ *  generation, make, and undo against known values, and to measure their
+ *  speed.  Moves are generated by MoveGenerator (so that extends are
+ *  counted once per destination square, the usual convention for Ataxx)
+ *  and made and undone on a Board.  A player with no moves passes, and
+ *  a finished game has no moves, so that it counts only if it is
+ *  reached on the last ply.
+ *
+ *  Counts may optionally be cached in a table indexed by canonical key
+ *  (see Symmetry), so that positions equivalent under symmetry share
+ *  counts, and may optionally be computed by several threads in a
+ *  ForkJoinPool.
+ *  @author Katrina Sharonin
+ */
+public class Perft {
+
+    /** Location of usage message resource. */
+    static final String USAGE = "ataxx/PerftUsage.txt";
+
+    /** Largest depth counted.  Counts from the initial position take
+     *  minutes at this depth, and would take hours at the next. */
+    static final int MAX_DEPTH = 7;
+
+    /** Count positions from the initial position or from a board string.
+     *  Usage:
+     *      java ataxx.Perft [ --board=POSITION ] [ --hash=MB ]
+     *                       [ --threads=N ] [ --divide ] DEPTH
+     *  See PerftUsage.txt (and Board.setup) for details. ARGS0 are the
+     *  command-line arguments. */
+    public static void main(String[] args0) {
+        CommandArgs args =
+            new CommandArgs("--board=(.+){0,1} --hash=(\\d+){0,1}"
+                            + " --threads=(\\d+){0,1} --divide"
+                            + " --=(\\d+){0,1}", args0);
+        if (!args.ok() || args.get("--").isEmpty()) {
+            Utils.printHelpResource(USAGE, System.err);
+            System.exit(1);
+        }
+        Board board = new Board();
+        try {
+            if (args.contains("--board")) {
+                board.setup(args.getFirst("--board"));
+            }
+        } catch (GameException excp) {
+            System.err.println(excp.getMessage());
+            System.exit(1);
+        }
+        int megabytes = args.contains("--hash") ? args.getInt("--hash") : 0;
+        int threads =
+            args.contains("--threads") ? args.getInt("--threads") : 1;
+        int depth = args.getInt("--");
+        try {
+            checkDepth(depth);
+        } catch (GameException excp) {
+            System.err.println(excp.getMessage());
+            System.exit(1);
+        }
+        Perft perft = new Perft(megabytes, threads);
+        long start = System.nanoTime();
+        long nodes;
+        if (args.contains("--divide")) {
+            nodes = 0;
+            for (Map.Entry<Move, Long> entry
+                     : perft.divide(board, depth).entrySet()) {
+                System.out.printf("%s: %d%n", entry.getKey(),
+                                  entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft.count(board, depth);
+        }
+        System.out.println(summary(nodes, System.nanoTime() - start));
+        perft.shutdown();
+    }
+
+    /** Return a summary line for a count of NODES positions that took
+     *  NANOS nanoseconds. */
+    static String summary(long nodes, long nanos) {
+        return String.format("Nodes: %d  Time: %d msec  Nodes/sec: %.0f",
+                             nodes, nanos / 1000000,
+                             nodes * 1e9 / Math.max(1, nanos));
+    }
+
+    /** A Perft that caches counts in a table of about MEGABYTES megabytes
+     *  (none if MEGABYTES is 0), and that uses THREADS threads (more
+     *  than one only if THREADS > 1). */
+    Perft(int megabytes, int threads) {
+        if (megabytes > 0) {
+            long entries =
+                Long.highestOneBit(Math.min((long) megabytes * (1 << 20)
+                                            / ENTRY_BYTES, 1 << 28));
+            _cache = new long[(int) (2 * entries)];
+            _cacheMask = (int) (entries - 1);
+        } else {
+            _cache = null;
+            _cacheMask = 0;
+        }
+        _pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /** Release the threads used by this Perft, if any. */
+    void shutdown() {
+        if (_pool != null) {
+            _pool.shutdown();
+        }
+    }
+
+    /** Throw a GameException unless 0 <= DEPTH <= MAX_DEPTH. */
+    static void checkDepth(int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw error("perft depth must be from 0 to %d", MAX_DEPTH);
+        }
+    }
+
+    /** Return the number of positions DEPTH plies from BOARD, which is
+     *  left unchanged.  Throws a GameException if DEPTH is out of range
+     *  (see checkDepth). */
+    long count(Board board, int depth) {
+        checkDepth(depth);
+        if (_pool != null) {
+            return _pool.invoke(new Subtree(new Board(board), depth));
+        }
+        return count(board, depth, new int[depth + 1][]);
+    }
+
+    /** Return a map from each move available on BOARD (in the order
+     *  generated) to the number of positions DEPTH - 1 plies after it,
+     *  for DEPTH >= 1.  BOARD is left unchanged.  Throws a GameException
+     *  if DEPTH is out of range (see checkDepth). */
+    LinkedHashMap<Move, Long> divide(Board board, int depth) {
+        checkDepth(depth);
+        LinkedHashMap<Move, Long> result = new LinkedHashMap<>();
+        ArrayList<Subtree> tasks = new ArrayList<>();
+        int[][] buffers = new int[depth + 1][];
+        for (Move move : moves(board)) {
+            if (_pool != null) {
+                Board next = new Board(board);
+                next.makeMove(move);
+                tasks.add(new Subtree(next, depth - 1));
+                _pool.execute(tasks.get(tasks.size() - 1));
+                result.put(move, 0L);
+            } else {
+                board.makeMove(move);
+                result.put(move, count(board, depth - 1, buffers));
+                board.undo();
+            }
+        }
+        if (_pool != null) {
+            int k = 0;
+            for (Move move : result.keySet()) {
+                result.put(move, tasks.get(k).join());
+                k += 1;
+            }
+        }
+        return result;
+    }
+
+    /** Return the moves available on BOARD: those from
+     *  MoveGenerator.generate, or a pass if there are none, or no moves
+     *  if the game is over. */
+    static ArrayList<Move> moves(Board board) {
+        ArrayList<Move> result = new ArrayList<>();
+        if (board.getWinner() != null) {
+            return result;
+        }
+        int[] codes = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(board, codes, 0);
+        if (n == 0) {
+            result.add(Move.PASS);
+        }
+        for (int i = 0; i < n; i += 1) {
+            result.add(Move.fromCode(codes[i]));
+        }
+        return result;
+    }
+
+    /** Return the number of positions DEPTH plies from BOARD, using
+     *  BUFFERS[K] (allocated as needed) to hold the moves K plies from
+     *  the end. */
+    private long count(Board board, int depth, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        } else if (board.getWinner() != null) {
+            return 0;
+        }
+        boolean cached = _cache != null && depth > 1;
+        long key = cached ? cacheKey(board, depth) : 0;
+        long total = cached ? probe(key) : 0;
+        if (total > 0) {
+            return total;
+        }
+        int[] moves = buffers[depth];
+        if (moves == null) {
+            moves = buffers[depth] = new int[MoveGenerator.MAX_MOVES];
+        }
+        int n = MoveGenerator.generate(board, moves, 0);
+        if (n == 0) {
+            moves[0] = Move.PASS.code();
+            n = 1;
+        }
+        if (depth == 1) {
+            return n;
+        }
+        for (int i = 0; i < n; i += 1) {
+            board.makeMove(Move.fromCode(moves[i]));
+            total += count(board, depth - 1, buffers);
+            board.undo();
+        }
+        if (cached) {
+            store(key, total);
+        }
+        return total;
+    }
+
+    /** Return the cache key for counts DEPTH plies from BOARD.  Besides
+     *  the position, it reflects the depth and the number of consecutive
+     *  jumps, which can end the game.  Counts are the same for positions
+     *  equivalent under symmetry, so the position's canonical key (see
+     *  Symmetry) is used, letting them share entries. */
+    private static long cacheKey(Board board, int depth) {
+        return Symmetry.key(board) ^ DEPTH_KEYS[depth % DEPTH_KEYS.length]
+            ^ JUMP_KEYS[board.numJumps() % JUMP_KEYS.length];
+    }
+
+    /** Return the count cached for KEY, or 0 if there is none. */
+    private long probe(long key) {
+        if (_cache == null) {
+            return 0;
+        }
+        int e = 2 * ((int) (key ^ (key >>> 32)) & _cacheMask);
+        long check = _cache[e], count = _cache[e + 1];
+        return (check ^ count) == key ? count : 0;
+    }
+
+    /** Cache COUNT as the count for KEY. */
+    private void store(long key, long count) {
+        if (_cache != null) {
+            int e = 2 * ((int) (key ^ (key >>> 32)) & _cacheMask);
+            _cache[e] = key ^ count;
+            _cache[e + 1] = count;
+        }
+    }
+
+    /** A task counting the positions some number of plies from a board
+     *  that it owns.  Near the root, it forks a subtask for each move;
+     *  deeper, it counts sequentially. */
+    private class Subtree extends RecursiveTask<Long> {
+
+        /** A task counting the positions DEPTH plies from BOARD, which
+         *  it may modify. */
+        Subtree(Board board, int depth) {
+            _board = board;
+            _depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (_depth <= SEQUENTIAL_DEPTH) {
+                return count(_board, _depth, new int[_depth + 1][]);
+            }
+            ArrayList<Subtree> children = new ArrayList<>();
+            for (Move move : moves(_board)) {
+                Board next = new Board(_board);
+                next.makeMove(move);
+                children.add(new Subtree(next, _depth - 1));
+            }
+            invokeAll(children);
+            long total = 0;
+            for (Subtree child : children) {
+                total += child.join();
+            }
+            return total;
+        }
+
+        /** The board from which to count. */
+        private final Board _board;
+        /** The number of plies to count. */
+        private final int _depth;
+
+        /** Serialization version (tasks are never serialized). */
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** Subtrees of at most this depth are counted by a single thread. */
+    private static final int SEQUENTIAL_DEPTH = 3;
+
+    /** Number of bytes in a cache entry. */
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+
+    /** Keys distinguishing cached counts for different depths and jump
+     *  counts. */
+    private static final long[] DEPTH_KEYS = new long[64],
+        JUMP_KEYS = new long[Board.JUMP_LIMIT + 1];
+
+    static {
+        Random random = new Random(0x9E3779B9L);
+        for (int i = 0; i < DEPTH_KEYS.length; i += 1) {
+            DEPTH_KEYS[i] = random.nextLong();
+        }
+        for (int i = 1; i < JUMP_KEYS.length; i += 1) {
+            JUMP_KEYS[i] = random.nextLong();
+        }
+    }
+
+    /** Cached counts: for each entry, its key XORed with its count,
+     *  followed by the count, so that an entry torn by concurrent writes
+     *  from several threads fails to match any key.  Null if there is
+     *  no cache. */
+    private final long[] _cache;
+
+    /** Mask that reduces a hash to an entry number. */
+    private final int _cacheMask;
+
+    /** Pool for parallel counting, or null if single-threaded. */
+    private final ForkJoinPool _pool;
+}
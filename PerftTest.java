@@ -0,0 +1,122 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of the Perft class against published move-generation counts.
+ *  @author Katrina Sharonin
+ */
+public class PerftTest {
+
+    /** Reference positions (as board strings) and their counts at depths
+     *  1, 2, .... */
+    private static final Object[][] REFERENCE = {
+        { "r5b/7/7/7/7/7/b5r r",
+          new long[] { 16, 256, 6460, 155888, 4752668 } },
+        { "r5b/7/2X1X2/7/2X1X2/7/b5r r",
+          new long[] { 14, 196, 4184, 86528, 2266352 } },
+        { "r5b/7/2X1X2/3X3/2X1X2/7/b5r r",
+          new long[] { 14, 196, 4100, 83104, 2114588 } },
+        { "r5b/7/3X3/2X1X2/3X3/7/b5r r",
+          new long[] { 16, 256, 5948, 133264, 3639856 } },
+        { "7/7/7/7/bbbbbbb/bbbbbbb/rrrrrrr r",
+          new long[] { 1, 75, 249, 14270, 452980 } },
+    };
+
+    /** Depth beyond which REFERENCE counts are checked only with a
+     *  cache. */
+    private static final int FAST_DEPTH = 4;
+
+    @Test
+    public void testReference() {
+        Perft perft = new Perft(0, 1);
+        for (Object[] ref : REFERENCE) {
+            Board b = new Board();
+            b.setup((String) ref[0]);
+            long[] counts = (long[]) ref[1];
+            for (int d = 1; d <= FAST_DEPTH; d += 1) {
+                assertEquals("wrong count for " + ref[0] + " at depth " + d,
+                             counts[d - 1], perft.count(b, d));
+            }
+            assertEquals("board changed", ref[0], b.boardString());
+        }
+    }
+
+    @Test
+    public void testCache() {
+        Perft perft = new Perft(16, 1);
+        for (Object[] ref : REFERENCE) {
+            Board b = new Board();
+            b.setup((String) ref[0]);
+            long[] counts = (long[]) ref[1];
+            for (int d = 1; d <= counts.length; d += 1) {
+                assertEquals("wrong cached count for " + ref[0]
+                             + " at depth " + d,
+                             counts[d - 1], perft.count(b, d));
+            }
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        Perft perft = new Perft(16, 3);
+        try {
+            Board b = new Board();
+            assertEquals("wrong parallel count", 155888, perft.count(b, 4));
+            long total = 0;
+            for (Map.Entry<Move, Long> e : perft.divide(b, 4).entrySet()) {
+                total += e.getValue();
+            }
+            assertEquals("wrong parallel divide total", 155888, total);
+        } finally {
+            perft.shutdown();
+        }
+    }
+
+    @Test
+    public void testDivide() {
+        Perft perft = new Perft(0, 1);
+        Board b = new Board();
+        b.makeMove("a7-b6");
+        Map<Move, Long> divide = perft.divide(b, 3);
+        assertEquals("wrong number of moves", 16, divide.size());
+        long total = 0;
+        for (Map.Entry<Move, Long> e : divide.entrySet()) {
+            b.makeMove(e.getKey());
+            assertEquals("wrong count after " + e.getKey(),
+                         perft.count(b, 2), (long) e.getValue());
+            b.undo();
+            total += e.getValue();
+        }
+        assertEquals("divide does not sum to count", perft.count(b, 3),
+                     total);
+    }
+
+    @Test
+    public void testDepthLimit() {
+        Perft perft = new Perft(0, 1);
+        for (int depth : new int[] { -1, Perft.MAX_DEPTH + 1,
+                                     2000000000 }) {
+            try {
+                perft.divide(new Board(), depth);
+                fail("accepted depth " + depth);
+            } catch (GameException excp) {
+                /* Expected. */
+            }
+            try {
+                perft.count(new Board(), depth);
+                fail("accepted depth " + depth);
+            } catch (GameException excp) {
+                /* Expected. */
+            }
+        }
+    }
+
+}
@@ -0,0 +1,359 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ataxx.GameException.error;
+import static ataxx.PieceColor.*;
+
+/** A line-based protocol, modeled on the Universal Chess Interface, by
+ *  which other programs (tournament managers, GUIs) can use the AI
+ *  (Main's --uci mode).  Commands are
+ *  <pre>
+ *     uci                      Identify the engine and its options.
+ *     isready                  Reply "readyok".
+ *     setoption name N value V Set option N (Threads or Lazy) to V.
+ *     ucinewgame               Forget what earlier searches learned.
+ *     position (startpos | fen BOARD) [moves MOVE ...]
+ *                              Set the position: the initial one or
+ *                              BOARD (as for Board.setup, e.g.
+ *                              "r5b/7/7/7/7/7/b5r r"), after MOVEs.
+ *     go [depth D] [movetime MS] [nodes N] [infinite]
+ *                              Search the position in the background.
+ *                              With infinite, bestmove is sent only
+ *                              after stop, even if the search (or the
+ *                              book or endgame solver) finishes first.
+ *     stop                     End the search as soon as possible.
+ *     quit                     Stop any search and exit.
+ *  </pre>
+ *  After each iteration of a search, the engine reports
+ *  "info depth D score (cp S | mate M) nodes N nps R time MS pv MOVE ...",
+ *  with scores for the side to move (mate M meaning a win in M of its
+ *  moves, or a loss if M is negative), and at the end,
+ *  "bestmove MOVE", where MOVE is "-" for a pass and "(none)" if the game
+ *  is over.  Errors are reported as "info string ..." lines.
+ *  @author Katrina Sharonin
+ */
+class Protocol {
+
+    /** A protocol session reading commands from INPUT and writing
+     *  responses to OUTPUT. */
+    Protocol(BufferedReader input, PrintWriter output) {
+        _input = input;
+        _output = output;
+        _board = new Board();
+        _ai = new AI(null, RED, 0);
+        _searcher = Executors.newSingleThreadExecutor((r) -> {
+            Thread thread = new Thread(r, "ataxx-uci-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Execute commands until "quit" or the end of the input.  Returns an
+     *  exit code. */
+    int run() {
+        try {
+            for (String line = _input.readLine(); line != null;
+                 line = _input.readLine()) {
+                String[] words = line.trim().split("\\s+");
+                if (words[0].equals("quit")) {
+                    break;
+                }
+                try {
+                    execute(words);
+                } catch (GameException excp) {
+                    send("info string %s", excp.getMessage());
+                }
+            }
+        } catch (IOException excp) {
+            return 1;
+        } finally {
+            stopSearch();
+            _searcher.shutdownNow();
+        }
+        return 0;
+    }
+
+    /** Execute the command whose words are WORDS. */
+    private void execute(String[] words) {
+        switch (words[0]) {
+        case "":
+            break;
+        case "uci":
+            send("id name %s", Defaults.VERSION);
+            send("id author Katrina Sharonin");
+            send("option name Threads type spin default 1 min 1 max %d",
+                 MAX_THREADS);
+            send("option name Lazy type check default false");
+            send("uciok");
+            break;
+        case "isready":
+            send("readyok");
+            break;
+        case "setoption":
+            stopSearch();
+            setOption(words);
+            break;
+        case "ucinewgame":
+            stopSearch();
+            _ai.forget();
+            _board = new Board();
+            break;
+        case "position":
+            stopSearch();
+            _board = position(words);
+            break;
+        case "go":
+            stopSearch();
+            go(words);
+            break;
+        case "stop":
+            AtomicBoolean stop = _stop;
+            if (stop != null) {
+                signal(stop);
+            }
+            break;
+        default:
+            throw error("unknown command: %s", words[0]);
+        }
+    }
+
+    /** Set the option named in WORDS, a setoption command. */
+    private void setOption(String[] words) {
+        if (words.length != 5 || !words[1].equals("name")
+            || !words[3].equals("value")) {
+            throw error("usage: setoption name NAME value VALUE");
+        }
+        switch (words[2]) {
+        case "Threads":
+            try {
+                int threads = Integer.parseInt(words[4]);
+                _ai.setThreads(Math.min(threads, MAX_THREADS));
+            } catch (NumberFormatException excp) {
+                throw error("bad number: %s", words[4]);
+            }
+            break;
+        case "Lazy":
+            _ai.setLazy(words[4].equals("true"));
+            break;
+        default:
+            throw error("unknown option: %s", words[2]);
+        }
+    }
+
+    /** Return the position described by WORDS, a position command. */
+    static Board position(String[] words) {
+        Board board = new Board();
+        int k;
+        if (words.length > 1 && words[1].equals("startpos")) {
+            k = 2;
+        } else if (words.length > 1 && words[1].equals("fen")) {
+            k = 2;
+            while (k < words.length && !words[k].equals("moves")) {
+                k += 1;
+            }
+            board.setup(String.join(" ", Arrays.copyOfRange(words, 2, k)));
+        } else {
+            throw error("usage: position (startpos | fen BOARD) "
+                        + "[moves MOVE ...]");
+        }
+        if (k < words.length && words[k].equals("moves")) {
+            k += 1;
+        }
+        if (k < words.length && !words[k - 1].equals("moves")) {
+            throw error("expected moves: %s", words[k]);
+        }
+        for (; k < words.length; k += 1) {
+            Move move = words[k].matches("-|[a-g][1-7]-[a-g][1-7]")
+                ? Move.move(words[k]) : null;
+            if (move == null || board.getWinner() != null
+                || !board.legalMove(move)) {
+                throw error("illegal move: %s", words[k]);
+            }
+            board.makeMove(move);
+        }
+        return board;
+    }
+
+    /** Start a search of the current position as directed by WORDS, a go
+     *  command.  With no limits, the search is as for a move in a game
+     *  (see AI.findMove and --movetime).  Otherwise, it continues until
+     *  any limit given is reached, or until stopped.  With infinite, the
+     *  best move is reported only once stopped. */
+    private void go(String[] words) {
+        long moveTime, nodes;
+        int depth;
+        moveTime = -1;
+        nodes = depth = 0;
+        boolean infinite = false;
+        for (int k = 1; k < words.length; k += 1) {
+            String option = words[k];
+            if (option.equals("infinite")) {
+                infinite = true;
+                continue;
+            } else if (k + 1 == words.length) {
+                throw error("missing value for %s", option);
+            }
+            long value;
+            try {
+                value = Long.parseLong(words[++k]);
+            } catch (NumberFormatException excp) {
+                throw error("bad number: %s", words[k]);
+            }
+            switch (option) {
+            case "depth" -> depth = (int) Math.min(value, Integer.MAX_VALUE);
+            case "movetime" -> moveTime = value;
+            case "nodes" -> nodes = value;
+            default -> throw error("unknown go option: %s", option);
+            }
+        }
+        if (depth > 0 || nodes > 0 || moveTime >= 0 || infinite) {
+            _ai.setMoveTime(Math.max(0, moveTime));
+            _ai.setMaxDepth(depth > 0 ? depth : Integer.MAX_VALUE);
+        } else {
+            _ai.setMoveTime(-1);
+            _ai.setMaxDepth(AI.MAX_DEPTH);
+        }
+        _ai.setNodeLimit(nodes);
+
+        Board board = new Board(_board);
+        String result = null;
+        if (board.getWinner() != null) {
+            result = "(none)";
+        } else if (!board.canMove(board.whoseMove())) {
+            result = "-";
+        }
+        if (result != null && !infinite) {
+            send("bestmove %s", result);
+            return;
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        _stop = stop;
+        _ai.setStopSignal(stop);
+        long start = System.nanoTime();
+        _ai.setIterationListener(() -> info(board, start));
+        String settled = result;
+        boolean holdBest = infinite;
+        _search = _searcher.submit(() -> {
+            String best = settled;
+            if (best == null) {
+                try {
+                    best = _ai.findMove(board).toString();
+                } catch (RuntimeException excp) {
+                    send("info string search failed: %s", excp);
+                    best = "(none)";
+                }
+            }
+            if (holdBest) {
+                awaitStop(stop);
+            }
+            send("bestmove %s", best);
+        });
+    }
+
+    /** Set STOP, waking any thread waiting for it in awaitStop. */
+    private static void signal(AtomicBoolean stop) {
+        synchronized (stop) {
+            stop.set(true);
+            stop.notifyAll();
+        }
+    }
+
+    /** Wait until STOP is set (see signal), or this thread is
+     *  interrupted. */
+    private static void awaitStop(AtomicBoolean stop) {
+        synchronized (stop) {
+            while (!stop.get()) {
+                try {
+                    stop.wait();
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Report the progress of the search of BOARD that began at time
+     *  START (in nanoseconds). */
+    private void info(Board board, long start) {
+        long nanos = Math.max(1, System.nanoTime() - start);
+        int score = _ai.lastScore();
+        if (board.whoseMove() == BLUE) {
+            score = -score;
+        }
+        int plies = AI.winningPlies(score, _ai.lastDepth());
+        StringBuilder pv = new StringBuilder();
+        for (Move move : _ai.principalVariation()) {
+            pv.append(' ').append(move);
+        }
+        send("info depth %d score %s nodes %d nps %d time %d pv%s",
+             _ai.lastDepth(),
+             plies == 0 ? "cp " + score
+             : "mate " + (plies > 0 ? (plies + 1) / 2 : (plies - 1) / 2),
+             _ai.nodes(), _ai.nodes() * 1000000000L / nanos,
+             nanos / 1000000, pv);
+    }
+
+    /** Stop the search in progress, if any, and wait for it to report
+     *  its move. */
+    private void stopSearch() {
+        if (_search == null) {
+            return;
+        }
+        signal(_stop);
+        try {
+            _search.get();
+        } catch (InterruptedException | ExecutionException excp) {
+            /* Reported by the search. */
+        }
+        _search = null;
+        _stop = null;
+    }
+
+    /** Send a line formatted from FORMAT and ARGS, as for String.format,
+     *  to the output. */
+    private void send(String format, Object... args) {
+        synchronized (_output) {
+            _output.printf(format, args);
+            _output.println();
+            _output.flush();
+        }
+    }
+
+    /** Largest number of search threads allowed by setoption. */
+    private static final int MAX_THREADS = 256;
+
+    /** Source of commands. */
+    private final BufferedReader _input;
+
+    /** Destination of responses. */
+    private final PrintWriter _output;
+
+    /** The engine. */
+    private final AI _ai;
+
+    /** Runs searches. */
+    private final ExecutorService _searcher;
+
+    /** The current position. */
+    private Board _board;
+
+    /** The search in progress, or null. */
+    private Future<?> _search;
+
+    /** Signal to stop the search in progress, or null. */
+    private volatile AtomicBoolean _stop;
+}
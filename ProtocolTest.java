@@ -0,0 +1,191 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of the Protocol class.
+ *  @author Katrina Sharonin
+ */
+public class ProtocolTest {
+
+    /** Start a Protocol on its own thread, with pipes to and from it. */
+    @Before
+    public void start() throws IOException {
+        _commands = new PipedWriter();
+        BufferedReader input =
+            new BufferedReader(new PipedReader(_commands));
+        _lines = new LinkedBlockingQueue<>();
+        Writer output = new Writer() {
+            private final StringBuilder _line = new StringBuilder();
+            @Override
+            public void write(char[] buf, int off, int len) {
+                for (int i = off; i < off + len; i += 1) {
+                    if (buf[i] == '\n') {
+                        _lines.add(_line.toString());
+                        _line.setLength(0);
+                    } else {
+                        _line.append(buf[i]);
+                    }
+                }
+            }
+            @Override
+            public void flush() {
+            }
+            @Override
+            public void close() {
+            }
+        };
+        Protocol protocol = new Protocol(input, new PrintWriter(output));
+        _engine = new Thread(protocol::run);
+        _engine.start();
+    }
+
+    /** Stop the Protocol. */
+    @After
+    public void quit() throws Exception {
+        send("quit");
+        _engine.join(5000);
+        assertFalse("did not quit", _engine.isAlive());
+    }
+
+    /** Send COMMAND to the Protocol. */
+    private void send(String command) throws IOException {
+        _commands.write(command + "\n");
+        _commands.flush();
+    }
+
+    /** Return the next line from the Protocol, failing if none arrives
+     *  within 10 seconds. */
+    private String receive() throws InterruptedException {
+        String line = _lines.poll(10, TimeUnit.SECONDS);
+        assertNotNull("no response", line);
+        return line;
+    }
+
+    /** Return the next line from the Protocol that starts with PREFIX,
+     *  skipping others. */
+    private String receive(String prefix) throws InterruptedException {
+        while (true) {
+            String line = receive();
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+    }
+
+    @Test
+    public void testHandshake() throws Exception {
+        send("uci");
+        assertTrue(receive().startsWith("id name "));
+        assertEquals("uciok", receive("uciok"));
+        send("isready");
+        assertEquals("readyok", receive());
+        send("setoption name Threads value 2");
+        send("setoption name Colour value red");
+        assertEquals("info string unknown option: Colour", receive());
+        send("frobnicate");
+        assertEquals("info string unknown command: frobnicate", receive());
+    }
+
+    @Test
+    public void testDepth() throws Exception {
+        send("position startpos moves a7-b6 g7-f6");
+        send("go depth 3");
+        String last = null;
+        for (int depth = 1; depth <= 3; depth += 1) {
+            last = receive();
+            assertTrue(last, last.matches("info depth " + depth
+                                          + " score cp -?\\d+ nodes \\d+"
+                                          + " nps \\d+ time \\d+ pv"
+                                          + "( [a-g][1-7]-[a-g][1-7]| -)"
+                                          + "{1," + depth + "}"));
+        }
+        String best = receive();
+        assertTrue(best, best.startsWith("bestmove "));
+        String move = best.substring("bestmove ".length());
+        assertTrue("best move not first in pv", last.contains("pv " + move));
+        Board board = Protocol.position(
+            "position startpos moves a7-b6 g7-f6".split(" "));
+        assertTrue("illegal best move", board.legalMove(Move.move(move)));
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        send("go infinite");
+        receive("info depth 2 ");
+        long start = System.nanoTime();
+        send("stop");
+        receive("bestmove ");
+        assertTrue("slow to stop", System.nanoTime() - start < 2000000000L);
+        send("go nodes 2000");
+        String best = receive("bestmove ");
+        assertTrue(best, best.matches("bestmove [a-g][1-7]-[a-g][1-7]"));
+    }
+
+    @Test
+    public void testInfiniteWaitsForStop() throws Exception {
+        String[] fens = {
+            "brr4/rrr4/rrr4/7/7/7/7 b",
+            "rrrrrrr/rrrrrrr/rrrrrrr/rrrrrrr/rrrrrbb/bbbbbbb/b-bbbbb r"
+        };
+        for (String fen : fens) {
+            send("position fen " + fen);
+            send("go infinite");
+            send("isready");
+            String line;
+            do {
+                line = receive();
+            } while (line.startsWith("info "));
+            assertEquals("best move sent before stop", "readyok", line);
+            send("stop");
+            String best = receive("bestmove ");
+            assertTrue(best,
+                       best.matches("bestmove (-|[a-g][1-7]-[a-g][1-7])"));
+        }
+    }
+
+    @Test
+    public void testPositions() throws Exception {
+        send("position startpos moves a7-b6 a7-a5");
+        assertEquals("info string illegal move: a7-a5", receive());
+        send("position fen brr4/rrr4/rrr4/7/7/7/7 b");
+        send("go depth 2");
+        assertEquals("bestmove -", receive());
+        send("position fen rrrrrrr/rrrrrrr/rrrrrrr/rrrrrrr/rrrrrrr/rrrrrrr/"
+             + "rrrrrrb b");
+        send("go");
+        assertEquals("bestmove (none)", receive());
+        send("position fen r6/7/7/7/7/5b1/6r r moves g1-g2 f2-e2");
+        assertEquals("info string illegal move: f2-e2", receive());
+        send("position fen r6/7/7/7/7/5b1/6r r");
+        send("go depth 3");
+        assertEquals("info depth 1 score mate 1",
+                     receive().replaceFirst(" nodes.*", ""));
+    }
+
+    /** Commands to the Protocol. */
+    private PipedWriter _commands;
+
+    /** Lines from the Protocol. */
+    private BlockingQueue<String> _lines;
+
+    /** Thread running the Protocol. */
+    private Thread _engine;
+}
@@ -0,0 +1,179 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ataxx.GameException.error;
+import static ataxx.PieceColor.*;
+
+/** A fixed set of threads that do the searches for the automatic players
+ *  of many Games (see Game.setSearchPool), so that the number of searches
+ *  running at once, and the memory they use, does not grow with the number
+ *  of games.  Perft commands (see Game) are counted by these threads
+ *  too.  Each thread has its own AI and MCTS searcher, each
+ *  single-threaded and with its own transposition table or tree, which
+ *  it uses for whatever games it is asked to search.  The time each
+ *  player's searches use, counted against --gametime, is kept by the
+ *  player and handed to the searcher for each search, so that searches
+ *  of different games do not share one count.
+ *  @author Katrina Sharonin
+ */
+class SearchPool {
+
+    /** A pool of THREADS threads whose alpha-beta searches go to DEPTH
+     *  plies (or, if DEPTH is 0, to the default depth or the --movetime
+     *  limit). */
+    SearchPool(int threads, int depth) {
+        AtomicInteger count = new AtomicInteger(),
+            seeds = new AtomicInteger();
+        _threads = Executors.newFixedThreadPool(Math.max(1, threads), (r) -> {
+            Thread thread =
+                new Thread(r, "ataxx-search-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        _ais = ThreadLocal.withInitial(() -> {
+            AI ai = new AI(null, RED, seeds.incrementAndGet());
+            ai.setThreads(1);
+            if (depth > 0) {
+                ai.setMaxDepth(depth);
+            }
+            return ai;
+        });
+        _mctss = ThreadLocal.withInitial(() -> {
+            MCTS mcts = new MCTS(null, RED, seeds.incrementAndGet());
+            mcts.setThreads(1);
+            return mcts;
+        });
+    }
+
+    /** Return a player of COLOR in GAME whose moves are found by a
+     *  search of type KIND ("ai" or "mcts") in this pool. */
+    Player player(Game game, PieceColor color, String kind) {
+        return new PooledPlayer(game, color, kind.equals("mcts"));
+    }
+
+    /** Return a move for the player to move on BOARD, which must have
+     *  one, found by Monte Carlo tree search if MCTS, and otherwise by
+     *  alpha-beta search.  Waits for a thread to become available. */
+    Move findMove(Board board, boolean mcts) {
+        return findMove(board, mcts, new long[1]);
+    }
+
+    /** As for findMove(BOARD, MCTS), where CLOCK[0] is the time in
+     *  nanoseconds that the searches of BOARD's game have used so far.
+     *  Adds the time this search uses to CLOCK[0]. */
+    private Move findMove(Board board, boolean mcts, long[] clock) {
+        Board position = new Board(board);
+        int moveNumber = board.numMoves();
+        Future<Move> move = _threads.submit(() -> {
+            Move found;
+            if (mcts) {
+                MCTS searcher = _mctss.get();
+                searcher.setTimeUsed(clock[0], moveNumber);
+                found = searcher.findMove(position);
+                clock[0] = searcher.timeUsed();
+            } else {
+                AI searcher = _ais.get();
+                searcher.setTimeUsed(clock[0], moveNumber);
+                found = searcher.findMove(position);
+                clock[0] = searcher.timeUsed();
+            }
+            return found;
+        });
+        return await(move);
+    }
+
+    /** Return Perft.divide(BOARD, DEPTH), computed without a cache by
+     *  one of the pool's threads, so that perft commands of servers'
+     *  clients share the processors with the searches.  Waits for a
+     *  thread to become available. */
+    LinkedHashMap<Move, Long> divide(Board board, int depth) {
+        Perft.checkDepth(depth);
+        Board position = new Board(board);
+        return await(_threads.submit(
+            () -> new Perft(0, 1).divide(position, depth)));
+    }
+
+    /** Return the result of RESULT, waiting for it, and rethrowing any
+     *  exception thrown in computing it. */
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException excp) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw error("search interrupted");
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) excp.getCause();
+            }
+            throw new Error(excp.getCause());
+        }
+    }
+
+    /** Stop all threads, abandoning any searches in progress. */
+    void shutdown() {
+        _threads.shutdownNow();
+    }
+
+    /** An automatic player whose searches are done by the pool. */
+    private class PooledPlayer extends Player {
+
+        /** A player of MYCOLOR in GAME that uses MCTS if MCTS and
+         *  otherwise alpha-beta search. */
+        PooledPlayer(Game game, PieceColor myColor, boolean mcts) {
+            super(game, myColor);
+            _mcts = mcts;
+        }
+
+        @Override
+        boolean isAuto() {
+            return true;
+        }
+
+        @Override
+        String getMove() {
+            Move move;
+            if (!getBoard().canMove(myColor())) {
+                move = Move.pass();
+            } else {
+                if (getBoard().numMoves() < _lastMoveNumber) {
+                    _clock[0] = 0;
+                }
+                _lastMoveNumber = getBoard().numMoves();
+                move = findMove(getBoard(), _mcts, _clock);
+            }
+            game().reportMove(move, myColor());
+            return move.toString();
+        }
+
+        /** True iff I use Monte Carlo tree search. */
+        private final boolean _mcts;
+
+        /** Total search time (nanoseconds) used so far in this game, as
+         *  the only element. */
+        private final long[] _clock = new long[1];
+
+        /** Value of numMoves() for the board at my last search; used to
+         *  detect the start of a new game. */
+        private int _lastMoveNumber;
+    }
+
+    /** The searching threads. */
+    private final ExecutorService _threads;
+
+    /** The alpha-beta searcher of each thread. */
+    private final ThreadLocal<AI> _ais;
+
+    /** The Monte Carlo searcher of each thread. */
+    private final ThreadLocal<MCTS> _mctss;
+}
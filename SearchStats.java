@@ -0,0 +1,212 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/** Statistics gathered over all the searches of a session (Main's --stats
+ *  option): how many nodes the AIs' alpha-beta searches visited and
+ *  evaluated, how often they cut off (and did so on the first move),
+ *  how often the transposition table had an entry, the effective
+ *  branching factor of each depth of iterative deepening, and the
+ *  distribution of the time taken per move, by both the AI and MCTS
+ *  players, and of the time taken by endgame solves, by number of empty
+ *  squares.  Safe for use by several threads.
+ *  @author Katrina Sharonin
+ */
+class SearchStats {
+
+    /* Indices of the counters given to add. */
+
+    /** Interior nodes visited. */
+    static final int NODES = 0;
+    /** Positions statically evaluated. */
+    static final int LEAVES = 1;
+    /** Nodes at which a move caused a beta cutoff. */
+    static final int CUTOFFS = 2;
+    /** Nodes at which the first move searched caused a beta cutoff. */
+    static final int FIRST_CUTOFFS = 3;
+    /** Transposition-table probes. */
+    static final int PROBES = 4;
+    /** Transposition-table probes that found an entry. */
+    static final int HITS = 5;
+    /** Number of counters. */
+    static final int COUNTERS = 6;
+
+    /** Names of the counters in JSON output. */
+    private static final String[] NAMES = {
+        "nodes", "leaves", "cutoffs", "firstMoveCutoffs", "ttProbes",
+        "ttHits",
+    };
+
+    /** Record an alpha-beta search that took NANOS nanoseconds, had
+     *  COUNTS (indexed by NODES, LEAVES, ...), and completed iterations to
+     *  depth DEPTH, in which iteration K visited ITERATIONNODES[K]
+     *  nodes. */
+    synchronized void add(long nanos, long[] counts, long[] iterationNodes,
+                          int depth) {
+        _searches += 1;
+        _searchNanos += nanos;
+        _searchTime.record(nanos);
+        for (int i = 0; i < COUNTERS; i += 1) {
+            _counts[i] += counts[i];
+        }
+        for (int d = 1; d <= Math.min(depth, MAX_DEPTH); d += 1) {
+            _depthSearches[d] += 1;
+            _depthNodes[d] += iterationNodes[d];
+            _parentNodes[d] += iterationNodes[d - 1];
+        }
+    }
+
+    /** Record an MCTS search that took NANOS nanoseconds and made
+     *  PLAYOUTS playouts. */
+    synchronized void addPlayouts(long nanos, long playouts) {
+        _mctsSearches += 1;
+        _playouts += playouts;
+        _mctsTime.record(nanos);
+    }
+
+    /** Record an attempt to solve a position with EMPTIES empty squares
+     *  by the endgame solver that took NANOS nanoseconds, and that proved
+     *  the outcome iff PROVEN. */
+    synchronized void addSolve(int empties, long nanos, boolean proven) {
+        empties = Math.min(empties, MAX_EMPTIES);
+        if (_solveTime[empties] == null) {
+            _solveTime[empties] = new Histogram();
+        }
+        if (proven) {
+            _solveTime[empties].record(nanos);
+        } else {
+            _unsolved[empties] += 1;
+        }
+    }
+
+    /** Return the number of alpha-beta searches recorded. */
+    synchronized long searches() {
+        return _searches;
+    }
+
+    /** Return the total of counter K (NODES, LEAVES, ...) over all
+     *  searches. */
+    synchronized long count(int k) {
+        return _counts[k];
+    }
+
+    /** Return the effective branching factor of iterations to DEPTH > 1:
+     *  the ratio of the nodes they visited to those visited by the
+     *  iterations to DEPTH - 1 of the same searches, or 0 if no search
+     *  reached DEPTH. */
+    synchronized double branchingFactor(int depth) {
+        return _parentNodes[depth] == 0 ? 0
+            : (double) _depthNodes[depth] / _parentNodes[depth];
+    }
+
+    /** Return my statistics as a JSON object.  Times are in
+     *  nanoseconds. */
+    synchronized String toJson() {
+        StringBuilder out = new StringBuilder("{\"searches\":");
+        out.append(_searches);
+        for (int i = 0; i < COUNTERS; i += 1) {
+            out.append(",\"").append(NAMES[i]).append("\":")
+                .append(_counts[i]);
+        }
+        out.append(String.format(",\"firstMoveCutoffRate\":%.4f,"
+                                 + "\"ttHitRate\":%.4f,\"nodesPerSec\":%.0f",
+                                 ratio(_counts[FIRST_CUTOFFS],
+                                       _counts[CUTOFFS]),
+                                 ratio(_counts[HITS], _counts[PROBES]),
+                                 1e9 * ratio(_counts[NODES], _searchNanos)));
+        out.append(",\"depths\":[");
+        for (int d = 1; d < _depthSearches.length
+                 && _depthSearches[d] > 0; d += 1) {
+            out.append(d == 1 ? "" : ",");
+            out.append(String.format("{\"depth\":%d,\"searches\":%d,"
+                                     + "\"nodes\":%d", d, _depthSearches[d],
+                                     _depthNodes[d]));
+            if (d > 1) {
+                out.append(String.format(",\"ebf\":%.3f",
+                                         branchingFactor(d)));
+            }
+            out.append('}');
+        }
+        out.append("],\"moveTime\":").append(_searchTime.toJson());
+        out.append(",\"mcts\":{\"searches\":").append(_mctsSearches)
+            .append(",\"playouts\":").append(_playouts)
+            .append(",\"moveTime\":").append(_mctsTime.toJson())
+            .append("},\"endgame\":[");
+        String sep = "";
+        for (int e = 0; e <= MAX_EMPTIES; e += 1) {
+            if (_solveTime[e] != null) {
+                out.append(sep).append(String.format(
+                    "{\"empties\":%d,\"unsolved\":%d,\"solveTime\":%s}",
+                    e, _unsolved[e], _solveTime[e].toJson()));
+                sep = ",";
+            }
+        }
+        out.append("]}");
+        return out.toString();
+    }
+
+    /** Write toJson() and a newline to the file named NAME, or to the
+     *  standard error if NAME is "-". */
+    void write(String name) throws IOException {
+        if (name.equals("-")) {
+            System.err.println(toJson());
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(name))) {
+            out.println(toJson());
+            if (out.checkError()) {
+                throw new IOException("could not write " + name);
+            }
+        }
+    }
+
+    /** Return X / Y, or 0 if Y is 0. */
+    private static double ratio(double x, double y) {
+        return y == 0 ? 0 : x / y;
+    }
+
+    /** Deepest iteration for which statistics are kept. */
+    private static final int MAX_DEPTH = 64;
+
+    /** Largest number of empty squares for which solves are counted
+     *  separately. */
+    private static final int MAX_EMPTIES = 49;
+
+    /** Number of alpha-beta and MCTS searches recorded. */
+    private long _searches, _mctsSearches;
+
+    /** Total time taken by alpha-beta searches in nanoseconds. */
+    private long _searchNanos;
+
+    /** Total MCTS playouts. */
+    private long _playouts;
+
+    /** Totals of the counters. */
+    private final long[] _counts = new long[COUNTERS];
+
+    /** Number of searches that completed an iteration to each depth. */
+    private final long[] _depthSearches = new long[MAX_DEPTH + 1];
+
+    /** Nodes visited by iterations to each depth, and by the preceding
+     *  iterations of the same searches. */
+    private final long[] _depthNodes = new long[MAX_DEPTH + 1],
+        _parentNodes = new long[MAX_DEPTH + 1];
+
+    /** Times taken by alpha-beta and MCTS searches. */
+    private final Histogram _searchTime = new Histogram(),
+        _mctsTime = new Histogram();
+
+    /** Times taken by endgame solves that proved the outcome, indexed by
+     *  the number of empty squares, or null if none was attempted. */
+    private final Histogram[] _solveTime = new Histogram[MAX_EMPTIES + 1];
+
+    /** Number of endgame solves that did not prove the outcome, indexed
+     *  by the number of empty squares. */
+    private final long[] _unsolved = new long[MAX_EMPTIES + 1];
+}
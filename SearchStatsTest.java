@@ -0,0 +1,109 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of SearchStats and Histogram.
+ *  @author Katrina Sharonin
+ */
+public class SearchStatsTest {
+
+    @Test
+    public void testBuckets() {
+        for (long v = 0; v < 100000; v += 7) {
+            int k = Histogram.bucket(v);
+            assertTrue("bucket too high for " + v, Histogram.lowest(k) <= v);
+            assertTrue("bucket too low for " + v,
+                       v < Histogram.lowest(k + 1));
+        }
+        int k = Histogram.bucket(Long.MAX_VALUE);
+        assertTrue(Histogram.lowest(k) <= Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.percentile(0.5));
+        for (long v = 1; v <= 1000000; v += 1) {
+            h.record(v);
+        }
+        assertEquals(1000000, h.count());
+        assertEquals(1000000, h.max());
+        assertEquals(500000.5, h.mean(), 1e-6);
+        assertEquals(500000, h.percentile(0.5), 500000 * 0.04);
+        assertEquals(990000, h.percentile(0.99), 990000 * 0.04);
+        assertEquals(1000000, h.percentile(1.0));
+        Histogram g = new Histogram();
+        g.record(3000000);
+        g.add(h);
+        assertEquals(1000001, g.count());
+        assertEquals(3000000, g.percentile(1.0));
+    }
+
+    @Test
+    public void testSearchCounts() {
+        SearchStats stats = new SearchStats();
+        AI ai = new AI(null, PieceColor.RED, 0);
+        ai.setMaxDepth(4);
+        ai.setStats(stats);
+        Board board = new Board();
+        ai.findMove(board);
+        board.makeMove(Move.move("a7-b6"));
+        ai.findMove(board);
+        assertEquals(2, stats.searches());
+        long nodes = stats.count(SearchStats.NODES);
+        assertTrue(nodes > ai.nodes());
+        assertEquals(nodes, stats.count(SearchStats.PROBES));
+        assertTrue(stats.count(SearchStats.HITS) > 0);
+        assertTrue(stats.count(SearchStats.HITS) <= nodes);
+        assertTrue(stats.count(SearchStats.FIRST_CUTOFFS) > 0);
+        assertTrue(stats.count(SearchStats.FIRST_CUTOFFS)
+                   <= stats.count(SearchStats.CUTOFFS));
+        assertTrue(stats.count(SearchStats.LEAVES) > nodes);
+        assertTrue(stats.branchingFactor(4) > 1);
+        assertEquals(0, stats.branchingFactor(5), 0);
+        String json = stats.toJson();
+        assertTrue(json, json.matches("\\{\"searches\":2,\"nodes\":\\d+,.*"
+                                      + "\"depths\":\\[\\{\"depth\":1,.*"
+                                      + "\\{\"depth\":4,\"searches\":2,"
+                                      + "\"nodes\":\\d+,\"ebf\":.*\\}\\],"
+                                      + "\"moveTime\":\\{\"count\":2,.*"));
+    }
+
+    @Test
+    public void testPlayouts() {
+        SearchStats stats = new SearchStats();
+        MCTS mcts = new MCTS(null, PieceColor.RED, 0, 10000);
+        mcts.setThreads(1);
+        mcts.setPlayouts(200);
+        mcts.setStats(stats);
+        mcts.findMove(new Board());
+        String json = stats.toJson();
+        assertTrue(json, json.contains("\"mcts\":{\"searches\":1,"
+                                       + "\"playouts\":200,"));
+        mcts.setStats(null);
+        mcts.findMove(new Board());
+        assertEquals("recorded with no statistics", json, stats.toJson());
+    }
+
+    @Test
+    public void testSolvedMoves() {
+        SearchStats stats = new SearchStats();
+        AI ai = new AI(null, PieceColor.RED, 0);
+        ai.setEndgame(EndgameSolver.DEFAULT_EMPTIES);
+        ai.setStats(stats);
+        Board board = new Board();
+        board.setup("rrrrrrr/rrrrrrr/rrrrrrr/rrrrrrr/rrrrrbb/bbbbbbb/b-bbbbb"
+                    + " r");
+        ai.findMove(board);
+        assertNotNull("not solved", ai.lastSolution());
+        assertEquals("solved move not recorded", 1, stats.searches());
+        assertTrue(stats.toJson(),
+                   stats.toJson().contains("\"moveTime\":{\"count\":1,"));
+    }
+}
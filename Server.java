@@ -0,0 +1,181 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.CodingErrorAction.REPLACE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/** A server that hosts any number of simultaneous sessions, one per
+ *  connection, on a local TCP port or Unix-domain socket.  Each session
+ *  is a Game whose commands (in the usual syntax) come from its client
+ *  and whose output goes back to it, with a prompt (see SocketSource)
+ *  marking the end of each response.
+ *
+ *  Each session runs on its own thread, which spends nearly all its time
+ *  waiting for its client.  These are ordinary threads with small stacks
+ *  (this JDK has no virtual threads; with one that does,
+ *  Executors.newVirtualThreadPerTaskExecutor() would serve for _sessions),
+ *  so the cost of an idle session is a few tens of kilobytes.  The
+ *  searches of the sessions' automatic players, which need the
+ *  processors and a lot of memory, are all done by a fixed-size
+ *  SearchPool, as are the counts of their perft commands.
+ *  @author Katrina Sharonin
+ */
+class Server {
+
+    /** Stack size of session threads, in bytes. */
+    static final long SESSION_STACK_SIZE = 256 * 1024;
+
+    /** Size of the input and output buffers of each session, in bytes
+     *  (or characters).  The default sizes of the java.io classes would
+     *  make up most of the memory used by an idle session. */
+    static final int SESSION_BUFFER_SIZE = 512;
+
+    /** A server listening at ADDRESS (see address(String)), whose
+     *  automatic players search in a pool of WORKERS threads to DEPTH
+     *  plies (see SearchPool). */
+    Server(SocketAddress address, int workers, int depth)
+        throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            _channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            _channel = ServerSocketChannel.open();
+        }
+        _channel.bind(address, BACKLOG);
+        _searchPool = new SearchPool(workers, depth);
+        AtomicInteger count = new AtomicInteger();
+        _sessions = Executors.newCachedThreadPool((r) -> {
+            Thread thread =
+                new Thread(null, r, "ataxx-session-" + count.incrementAndGet(),
+                           SESSION_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Return the address denoted by SPEC: a TCP port on the loopback
+     *  interface if SPEC is a number (0 for any free port), and otherwise
+     *  the path of a Unix-domain socket. */
+    static SocketAddress address(String spec) {
+        if (spec.matches("\\d+")) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                                         Integer.parseInt(spec));
+        } else {
+            return UnixDomainSocketAddress.of(spec);
+        }
+    }
+
+    /** Return the address at which I am listening. */
+    SocketAddress address() {
+        try {
+            return _channel.getLocalAddress();
+        } catch (IOException excp) {
+            return null;
+        }
+    }
+
+    /** Return the number of sessions in progress. */
+    int sessions() {
+        return _active.get();
+    }
+
+    /** Accept connections, starting a session for each, until close is
+     *  called. */
+    void serve() {
+        try {
+            while (true) {
+                SocketChannel client = _channel.accept();
+                _sessions.execute(() -> session(client));
+            }
+        } catch (AsynchronousCloseException excp) {
+            /* Closed. */
+        } catch (IOException excp) {
+            System.err.printf("server stopped: %s%n", excp.getMessage());
+        }
+    }
+
+    /** Start a thread that calls serve. */
+    void start() {
+        Thread acceptor = new Thread(this::serve, "ataxx-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Stop accepting connections and end all sessions. */
+    void close() throws IOException {
+        SocketAddress address = _channel.getLocalAddress();
+        _channel.close();
+        _sessions.shutdownNow();
+        _searchPool.shutdown();
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+        }
+    }
+
+    /** Play a session with the client connected to CLIENT, closing the
+     *  connection when it quits or disconnects. */
+    private void session(SocketChannel client) {
+        _active.incrementAndGet();
+        try (client) {
+            if (client.getLocalAddress() instanceof InetSocketAddress) {
+                client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            BufferedReader input =
+                new BufferedReader(
+                    Channels.newReader(client,
+                                       UTF_8.newDecoder()
+                                       .onMalformedInput(REPLACE)
+                                       .onUnmappableCharacter(REPLACE),
+                                       SESSION_BUFFER_SIZE),
+                    SESSION_BUFFER_SIZE);
+            PrintWriter output =
+                new PrintWriter(Channels.newWriter(client, UTF_8.newEncoder(),
+                                                   SESSION_BUFFER_SIZE));
+            Game game = new Game(new SocketSource(input, output), (b) -> { },
+                                 new SocketReporter(output), false);
+            game.setOutput(output);
+            game.setSearchPool(_searchPool);
+            game.play();
+            output.flush();
+        } catch (IOException excp) {
+            /* Client disconnected. */
+        } finally {
+            _active.decrementAndGet();
+        }
+    }
+
+    /** Maximum number of connections waiting to be accepted. */
+    private static final int BACKLOG = 1024;
+
+    /** Channel on which clients connect. */
+    private final ServerSocketChannel _channel;
+
+    /** Runs the sessions. */
+    private final ExecutorService _sessions;
+
+    /** Does the sessions' searches. */
+    private final SearchPool _searchPool;
+
+    /** Number of sessions in progress. */
+    private final AtomicInteger _active = new AtomicInteger();
+}
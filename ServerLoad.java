@@ -0,0 +1,319 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ucb.util.CommandArgs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/** A load test of Server: many simulated clients connect at once, most
+ *  of them idle apart from an occasional command, while a few play
+ *  games against the server's AI.  Reports the time to connect, the
+ *  latencies of the idle clients' commands and of the AI's replies to
+ *  the players' moves, and, when the server runs in the same process,
+ *  the memory and threads used per session.
+ *  @author Katrina Sharonin
+ */
+public class ServerLoad {
+
+    /** Location of usage message resource. */
+    static final String USAGE = "ataxx/ServerLoadUsage.txt";
+
+    /** Run a load test.  Usage:
+     *      java ataxx.ServerLoad [ --clients=N ] [ --players=N ]
+     *                            [ --rounds=N ] [ --threads=N ]
+     *                            [ --depth=N ] [ --seed=S ]
+     *                            [ --address=ADDRESS ]
+     *  See ServerLoadUsage.txt for details.  ARGS0 are the command-line
+     *  arguments. */
+    public static void main(String[] args0) throws IOException {
+        CommandArgs args =
+            new CommandArgs("--clients=(\\d+){0,1} --players=(\\d+){0,1}"
+                            + " --rounds=(\\d+){0,1} --threads=(\\d+){0,1}"
+                            + " --depth=(\\d+){0,1} --seed=(\\d+){0,1}"
+                            + " --address=(.+){0,1}", args0);
+        if (!args.ok()) {
+            Utils.printHelpResource(USAGE, System.err);
+            System.exit(1);
+        }
+        ServerLoad test = new ServerLoad();
+        if (args.contains("--clients")) {
+            test._clients = args.getInt("--clients");
+        }
+        if (args.contains("--players")) {
+            test._players = args.getInt("--players");
+        }
+        if (args.contains("--rounds")) {
+            test._rounds = args.getInt("--rounds");
+        }
+        if (args.contains("--threads")) {
+            test._threads = args.getInt("--threads");
+        }
+        if (args.contains("--seed")) {
+            test._seed = args.getLong("--seed");
+        }
+        Server server = null;
+        SocketAddress address;
+        if (args.contains("--address")) {
+            address = Server.address(args.getFirst("--address"));
+        } else {
+            server = new Server(Server.address("0"),
+                                Runtime.getRuntime().availableProcessors(),
+                                args.contains("--depth")
+                                ? args.getInt("--depth") : DEFAULT_DEPTH);
+            server.start();
+            address = server.address();
+        }
+        try {
+            test.run(address, server, System.out);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /** Run the test against the server at ADDRESS, which is SERVER if
+     *  that is not null, reporting on OUT. */
+    void run(SocketAddress address, Server server, PrintStream out)
+        throws IOException {
+        int players = Math.min(_players, _clients);
+        Client[] clients = new Client[_clients];
+        ExecutorService drivers = Executors.newFixedThreadPool(_threads);
+        ExecutorService games =
+            Executors.newFixedThreadPool(Math.max(1, players));
+        try {
+            long memory0 = usedMemory();
+            int threads0 = Thread.activeCount();
+            long[] connects = new long[_clients];
+            long start = System.nanoTime();
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < _clients; i += 1) {
+                int k = i;
+                tasks.add(drivers.submit(() -> {
+                    long t0 = System.nanoTime();
+                    clients[k] = new Client(address);
+                    connects[k] = System.nanoTime() - t0;
+                    return null;
+                }));
+            }
+            finish(tasks);
+            out.printf("%d clients connected in %.2f s; latency %s%n",
+                       _clients, (System.nanoTime() - start) * 1e-9,
+                       latencies(connects));
+            if (server != null) {
+                out.printf("%d sessions: %.1f KB of heap and %.2f threads "
+                           + "per connection (both ends)%n",
+                           server.sessions(),
+                           (usedMemory() - memory0) / 1024.0 / _clients,
+                           (double) (Thread.activeCount() - threads0)
+                           / _clients);
+            }
+
+            List<Future<long[]>> played = new ArrayList<>();
+            for (int i = 0; i < players; i += 1) {
+                Client client = clients[i];
+                Random random = new Random(_seed + i);
+                played.add(games.submit(() -> playGame(client, random)));
+            }
+            long[] commands = new long[(_clients - players) * _rounds];
+            start = System.nanoTime();
+            for (int r = 0; r < _rounds; r += 1) {
+                for (int i = players; i < _clients; i += 1) {
+                    int k = i, n = r * (_clients - players) + i - players;
+                    tasks.add(drivers.submit(() -> {
+                        long t0 = System.nanoTime();
+                        clients[k].command("dump");
+                        commands[n] = System.nanoTime() - t0;
+                        return null;
+                    }));
+                }
+            }
+            finish(tasks);
+            double seconds = (System.nanoTime() - start) * 1e-9;
+            out.printf("%d idle commands in %.2f s (%.0f/s); latency %s%n",
+                       commands.length, seconds, commands.length / seconds,
+                       latencies(commands));
+            long[] replies = new long[0];
+            for (Future<long[]> game : played) {
+                long[] times = result(game);
+                int n = replies.length;
+                replies = Arrays.copyOf(replies, n + times.length);
+                System.arraycopy(times, 0, replies, n, times.length);
+            }
+            out.printf("%d games, %d AI replies; latency %s%n", players,
+                       replies.length, latencies(replies));
+        } finally {
+            for (Client client : clients) {
+                if (client != null) {
+                    client.close();
+                }
+            }
+            drivers.shutdownNow();
+            games.shutdownNow();
+        }
+    }
+
+    /** Play a game as red through CLIENT, choosing moves at random with
+     *  RANDOM, and return the time taken by the server to respond to each
+     *  move, in nanoseconds.  Throws an Error if the responses do not
+     *  agree with the rules. */
+    static long[] playGame(Client client, Random random) throws IOException {
+        Board board = new Board();
+        long[] times = new long[0];
+        while (board.getWinner() == null) {
+            List<Move> moves = Perft.moves(board);
+            Move move = moves.get(random.nextInt(moves.size()));
+            board.makeMove(move);
+            long t0 = System.nanoTime();
+            String response = client.command(move.toString());
+            times = Arrays.copyOf(times, times.length + 1);
+            times[times.length - 1] = System.nanoTime() - t0;
+            for (String line : response.split("\n")) {
+                if (line.startsWith(BLUE_MOVES)) {
+                    board.makeMove(Move.move(line.substring(
+                        BLUE_MOVES.length(), line.length() - 1)));
+                }
+            }
+            if ((board.getWinner() == null) != response.endsWith("Red> ")) {
+                throw new Error("unexpected response: " + response);
+            }
+        }
+        return times;
+    }
+
+    /** Wait for all of TASKS to finish and then clear it, rethrowing
+     *  their exceptions. */
+    private static void finish(List<? extends Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            result(task);
+        }
+        tasks.clear();
+    }
+
+    /** Return the result of TASK, waiting for it if needed and rethrowing
+     *  its exception. */
+    private static <T> T result(Future<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException | ExecutionException excp) {
+            throw new Error("load test failed", excp);
+        }
+    }
+
+    /** Return a description of the median, 99th percentile, and maximum
+     *  of TIMES, in nanoseconds. */
+    static String latencies(long[] times) {
+        if (times.length == 0) {
+            return "(none)";
+        }
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return String.format("p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                             sorted[sorted.length / 2] * 1e-6,
+                             sorted[(int) (sorted.length * 0.99)] * 1e-6,
+                             sorted[sorted.length - 1] * 1e-6);
+    }
+
+    /** Return the heap in use, after a garbage collection. */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** A connection to a Server. */
+    static class Client implements Closeable {
+
+        /** A client connected to the server at ADDRESS, after it has
+         *  received the welcome message. */
+        Client(SocketAddress address) throws IOException {
+            _channel = SocketChannel.open(address);
+            _greeting = response();
+        }
+
+        /** Return the text sent by the server when I connected. */
+        String greeting() {
+            return _greeting;
+        }
+
+        /** Send CMND to the server, and return its response, up to and
+         *  including the next prompt or the end of the connection. */
+        String command(String cmnd) throws IOException {
+            ByteBuffer line = UTF_8.encode(cmnd + "\n");
+            while (line.hasRemaining()) {
+                _channel.write(line);
+            }
+            return response();
+        }
+
+        /** Return the server's output up to and including the next prompt,
+         *  or to the end of the connection. */
+        private String response() throws IOException {
+            ByteArrayOutputStream text = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(RESPONSE_BUFFER_SIZE);
+            while (_channel.read(buffer) >= 0) {
+                text.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+                String result = text.toString(UTF_8);
+                if (result.endsWith("> ")) {
+                    return result;
+                }
+            }
+            return text.toString(UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            _channel.close();
+        }
+
+        /** Connection to the server. */
+        private final SocketChannel _channel;
+
+        /** The server's first response. */
+        private final String _greeting;
+    }
+
+    /** Prefix of the server's reports of the AI's moves. */
+    private static final String BLUE_MOVES = "* Blue moves ";
+
+    /** Size of the buffer a Client reads into. */
+    private static final int RESPONSE_BUFFER_SIZE = 4096;
+
+    /** Search depth of the AI of a server run by main. */
+    private static final int DEFAULT_DEPTH = 2;
+
+    /** Number of clients. */
+    private int _clients = 10000;
+
+    /** Number of clients that play a game against the AI. */
+    private int _players = 50;
+
+    /** Number of commands sent by each idle client. */
+    private int _rounds = 3;
+
+    /** Number of threads driving the idle clients. */
+    private int _threads = 32;
+
+    /** Seed for the players' choices of moves. */
+    private long _seed;
+}
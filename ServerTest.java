@@ -0,0 +1,126 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ataxx.ServerLoad.Client;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Tests of Server and SearchPool.
+ *  @author Katrina Sharonin
+ */
+public class ServerTest {
+
+    /** The response to "dump" in the initial position. */
+    private static final String INITIAL_DUMP =
+        "===\n  r - - - - - b\n  - - - - - - -\n  - - - - - - -\n"
+        + "  - - - - - - -\n  - - - - - - -\n  - - - - - - -\n"
+        + "  b - - - - - r\n===\nRed> ";
+
+    /** Wait up to a second for SERVER to have N sessions, and return
+     *  the number it has. */
+    private static int awaitSessions(Server server, int n)
+        throws InterruptedException {
+        for (int i = 0; i < 100 && server.sessions() != n; i += 1) {
+            Thread.sleep(10);
+        }
+        return server.sessions();
+    }
+
+    @Test
+    public void testSession() throws Exception {
+        Server server = new Server(Server.address("0"), 1, 1);
+        server.start();
+        try (Client client = new Client(server.address())) {
+            assertTrue("no welcome", client.greeting().startsWith("Welcome"));
+            assertTrue("no prompt", client.greeting().endsWith("Red> "));
+            String reply = client.command("a7-b6");
+            assertTrue("no reply", reply.matches("\\* Blue moves [a-g][1-7]"
+                                                 + "-[a-g][1-7]\\.\nRed> "));
+            assertEquals("wrong response to comment", "Red> ",
+                         client.command("# comment"));
+            assertEquals("no error",
+                         "block-setting must precede first move.\nRed> ",
+                         client.command("block c3"));
+            String counts = client.command("perft 2");
+            assertTrue(counts, counts.matches("(?s).*\nNodes: \\d+ .*"));
+            assertEquals("deep perft accepted",
+                         "perft depth must be from 0 to 7\nRed> ",
+                         client.command("perft 99"));
+            assertEquals(1, awaitSessions(server, 1));
+            assertEquals("connection not closed", "",
+                         client.command("quit"));
+            assertEquals(0, awaitSessions(server, 0));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testUnixSocket() throws Exception {
+        Path dir = Files.createTempDirectory("ataxx");
+        Path socket = dir.resolve("server.sock");
+        Server server = new Server(Server.address(socket.toString()), 1, 1);
+        server.start();
+        try (Client client = new Client(server.address())) {
+            assertEquals(INITIAL_DUMP, client.command("dump"));
+        } finally {
+            server.close();
+        }
+        assertFalse("socket not removed", Files.exists(socket));
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testManySessions() throws Exception {
+        Server server = new Server(Server.address("0"), 2, 1);
+        server.start();
+        List<Client> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i += 1) {
+                clients.add(new Client(server.address()));
+            }
+            assertEquals(200, awaitSessions(server, 200));
+            List<Thread> games = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int i = 0; i < 4; i += 1) {
+                Client client = clients.get(i);
+                Random random = new Random(i);
+                Thread game = new Thread(() -> {
+                    try {
+                        ServerLoad.playGame(client, random);
+                    } catch (IOException | Error excp) {
+                        synchronized (failures) {
+                            failures.add(excp);
+                        }
+                    }
+                });
+                game.start();
+                games.add(game);
+            }
+            for (Client client : clients.subList(4, clients.size())) {
+                assertEquals(INITIAL_DUMP, client.command("dump"));
+            }
+            for (Thread game : games) {
+                game.join();
+            }
+            assertEquals("games failed", List.of(), failures);
+        } finally {
+            for (Client client : clients) {
+                client.close();
+            }
+            server.close();
+        }
+    }
+
+}
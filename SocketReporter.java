@@ -0,0 +1,35 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.PrintWriter;
+
+/** A Reporter that sends messages and errors, formatted as by
+ *  TextReporter, to a client of a Server.  Output is buffered until the
+ *  next prompt (see SocketSource).
+ *  @author Katrina Sharonin
+ */
+class SocketReporter extends TextReporter {
+
+    /** A Reporter that prints on OUT. */
+    SocketReporter(PrintWriter out) {
+        _out = out;
+    }
+
+    @Override
+    public void msg(String format, Object... args) {
+        _out.printf(format, args);
+        _out.println();
+    }
+
+    @Override
+    public void err(String format, Object... args) {
+        _out.printf(format, args);
+        _out.println();
+    }
+
+    /** Destination of messages. */
+    private final PrintWriter _out;
+}
@@ -0,0 +1,42 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/** A CommandSource that reads commands, one per line, from a client of a
+ *  Server.  Each prompt flushes the output to the client, so that a
+ *  client may take the prompt as the end of the response to its previous
+ *  command.
+ *  @author Katrina Sharonin
+ */
+class SocketSource implements CommandSource {
+
+    /** A source of commands read from INPUT that prompts on OUTPUT. */
+    SocketSource(BufferedReader input, PrintWriter output) {
+        _input = input;
+        _output = output;
+    }
+
+    @Override
+    public String getCommand(String prompt) {
+        if (prompt != null) {
+            _output.print(prompt);
+        }
+        _output.flush();
+        try {
+            return _input.readLine();
+        } catch (IOException excp) {
+            return null;
+        }
+    }
+
+    /** Source of commands. */
+    private final BufferedReader _input;
+    /** Destination of prompts. */
+    private final PrintWriter _output;
+}
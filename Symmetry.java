@@ -0,0 +1,274 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import static ataxx.PieceColor.*;
+
+/** The symmetries of Ataxx positions, used to canonicalize them so that
+ *  positions equivalent under symmetry share cache and book entries.
+ *
+ *  The board has eight symmetries (the dihedral group of the square):
+ *  each transform is the combination, applied in that order, of an
+ *  optional TRANSPOSE (exchanging columns and rows), FLIP_COLUMNS
+ *  (a-g), and FLIP_ROWS (1-7).  Since the rules treat the two players
+ *  alike, exchanging the colors of all pieces along with the side to
+ *  move (SWAP_COLORS) is a symmetry as well, for sixteen transforms in
+ *  all, each denoted by an int in [0, COUNT) combining those bits.  The
+ *  number of consecutive jumps is unchanged by all of them.  Blocks
+ *  placed by Board.setBlock are mirrored across both axes, so the
+ *  layouts of blocks are unchanged by the flips, but not in general by
+ *  transposition.
+ *
+ *  The canonical key of a position (key(Board)) is the least of the
+ *  Zobrist keys (see Board.zobristKey) of its images under the eight
+ *  transforms that leave red to move: the color swap is applied exactly
+ *  when blue is to move.  Thus positions equivalent under symmetry have
+ *  the same canonical key, and transform(Board) gives a transform that
+ *  takes a position to the image whose key that is.  A move or square of
+ *  the position maps to the canonical image by that transform, and back
+ *  by its inverse.
+ *
+ *  Images of squares are precomputed, as is the Zobrist key of each
+ *  kind of piece on each square under each transform, so that
+ *  canonicalizing a position is one pass over its squares.
+ *  @author Katrina Sharonin
+ */
+class Symmetry {
+
+    /** Transform bits: the identity, exchange of columns with rows,
+     *  reflection of columns and of rows, and exchange of colors. */
+    static final int IDENTITY = 0, FLIP_COLUMNS = 1, FLIP_ROWS = 2,
+        TRANSPOSE = 4, SWAP_COLORS = 8;
+
+    /** Number of transforms. */
+    static final int COUNT = 16;
+
+    /** Number of transforms of the board's squares. */
+    static final int GEOMETRIC = 8;
+
+    /** Return the linearized index of the image of the square with
+     *  linearized index SQ under transform T.  Squares off the board are
+     *  mapped to squares off the board. */
+    static int square(int t, int sq) {
+        return SQUARES[t][sq];
+    }
+
+    /** Return the image of COLOR under transform T. */
+    static PieceColor color(int t, PieceColor color) {
+        return (t & SWAP_COLORS) != 0 && color.isPiece()
+            ? color.opposite() : color;
+    }
+
+    /** Return the code (see Move.code) of the image under transform T of
+     *  the move whose code is CODE. */
+    static int move(int t, int code) {
+        if (code == Move.PASS.code()) {
+            return code;
+        }
+        int size = Board.EXTENDED_SIDE * Board.EXTENDED_SIDE;
+        return SQUARES[t][code / size] * size + SQUARES[t][code % size];
+    }
+
+    /** Return the image of MOVE under transform T. */
+    static Move move(int t, Move move) {
+        return Move.fromCode(move(t, move.code()));
+    }
+
+    /** Return the inverse of transform T. */
+    static int inverse(int t) {
+        return INVERSES[t];
+    }
+
+    /** Return the canonical key of BOARD: the least of the Zobrist keys
+     *  of its images with red to move. */
+    static long key(Board board) {
+        return least(keys(board));
+    }
+
+    /** Return the least transform taking BOARD to the image whose key is
+     *  key(BOARD).  It swaps colors iff blue is to move. */
+    static int transform(Board board) {
+        long[] keys = keys(board);
+        int best = 0;
+        for (int g = 1; g < GEOMETRIC; g += 1) {
+            if (keys[g] < keys[best]) {
+                best = g;
+            }
+        }
+        return best | swap(board);
+    }
+
+    /** Return the code of the canonical image of MOVE, a move on BOARD:
+     *  the least of its images under the transforms taking BOARD to its
+     *  canonical image.  This is the image under transform(BOARD) unless
+     *  BOARD is itself symmetric, in which case moves equivalent under
+     *  its symmetries (such as the four first moves into the corners'
+     *  diagonals) have the same canonical image. */
+    static int canonicalMove(Board board, Move move) {
+        long[] keys = keys(board);
+        long least = least(keys);
+        int code = Integer.MAX_VALUE;
+        for (int g = 0; g < GEOMETRIC; g += 1) {
+            if (keys[g] == least) {
+                code = Math.min(code, move(g | swap(board), move.code()));
+            }
+        }
+        return code;
+    }
+
+    /** Return the Zobrist key of the image of BOARD under transform T
+     *  (which is BOARD's own key when T is IDENTITY). */
+    static long key(Board board, int t) {
+        long key = PADDING;
+        if (color(t, board.whoseMove()) == BLUE) {
+            key ^= Board.BLUE_TO_MOVE;
+        }
+        for (int sq : MoveGenerator.PLAYABLE) {
+            PieceColor p = board.get(sq);
+            key ^= Board.zobrist(color(t, p), SQUARES[t][sq]);
+        }
+        return key;
+    }
+
+    /** Return a new Board holding the image of BOARD under transform T,
+     *  with no history (and so no consecutive jumps). */
+    static Board image(Board board, int t) {
+        StringBuilder squares = new StringBuilder();
+        for (char r = '7'; r >= '1'; r -= 1) {
+            if (r != '7') {
+                squares.append('/');
+            }
+            for (char c = 'a'; c <= 'g'; c += 1) {
+                int sq = SQUARES[inverse(t)][Board.index(c, r)];
+                squares.append(switch (color(t, board.get(sq))) {
+                    case RED -> 'r';
+                    case BLUE -> 'b';
+                    case BLOCKED -> 'X';
+                    default -> '-';
+                    });
+            }
+        }
+        Board result = new Board();
+        result.setup(squares + " "
+                     + (color(t, board.whoseMove()) == RED ? "r" : "b"));
+        return result;
+    }
+
+    /** Return SWAP_COLORS if blue is to move on BOARD, and 0
+     *  otherwise. */
+    private static int swap(Board board) {
+        return board.whoseMove() == BLUE ? SWAP_COLORS : 0;
+    }
+
+    /** Return the Zobrist keys of the images of BOARD under the
+     *  transforms G | swap(BOARD), for G in [0, GEOMETRIC).  These never
+     *  include the key for blue to move. */
+    private static long[] keys(Board board) {
+        long[][] pieces = PIECE_KEYS[swap(board) / SWAP_COLORS];
+        long[] keys = new long[GEOMETRIC];
+        for (int i = 0; i < MoveGenerator.SQUARES; i += 1) {
+            long[] table = pieces[board.get(MoveGenerator.PLAYABLE[i])
+                                  .ordinal()];
+            if (table != null) {
+                for (int g = 0, k = i * GEOMETRIC; g < GEOMETRIC;
+                     g += 1, k += 1) {
+                    keys[g] ^= table[k];
+                }
+            }
+        }
+        for (int g = 0; g < GEOMETRIC; g += 1) {
+            keys[g] ^= PADDING;
+        }
+        return keys;
+    }
+
+    /** Return the least of KEYS. */
+    private static long least(long[] keys) {
+        long least = keys[0];
+        for (int g = 1; g < keys.length; g += 1) {
+            least = Math.min(least, keys[g]);
+        }
+        return least;
+    }
+
+    /** SQUARES[T][SQ] is square(T, SQ). */
+    private static final int[][] SQUARES =
+        new int[COUNT][Board.EXTENDED_SIDE * Board.EXTENDED_SIDE];
+
+    /** INVERSES[T] is inverse(T). */
+    private static final int[] INVERSES = new int[COUNT];
+
+    /** PIECE_KEYS[S][P][I * GEOMETRIC + G] is the Zobrist key of the
+     *  image under transform G | (S * SWAP_COLORS) of a piece with
+     *  ordinal P on the Ith playable square (MoveGenerator.PLAYABLE[I]).
+     *  It is null for empty squares, which contribute nothing. */
+    private static final long[][][] PIECE_KEYS =
+        new long[2][PieceColor.values().length][];
+
+    /** The part of every key contributed by the squares off the board,
+     *  which every transform maps to themselves. */
+    private static final long PADDING;
+
+    static {
+        int side = Board.EXTENDED_SIDE;
+        for (int t = 0; t < COUNT; t += 1) {
+            for (int sq = 0; sq < side * side; sq += 1) {
+                int c = sq % side, r = sq / side;
+                if ((t & TRANSPOSE) != 0) {
+                    int tmp = c;
+                    c = r;
+                    r = tmp;
+                }
+                if ((t & FLIP_COLUMNS) != 0) {
+                    c = side - 1 - c;
+                }
+                if ((t & FLIP_ROWS) != 0) {
+                    r = side - 1 - r;
+                }
+                SQUARES[t][sq] = r * side + c;
+            }
+        }
+        for (int t = 0; t < COUNT; t += 1) {
+            for (int u = t & SWAP_COLORS; u < COUNT; u += 1) {
+                int sq;
+                for (sq = 0; sq < side * side; sq += 1) {
+                    if (SQUARES[u][SQUARES[t][sq]] != sq) {
+                        break;
+                    }
+                }
+                if (sq == side * side) {
+                    INVERSES[t] = u;
+                    break;
+                }
+            }
+        }
+        for (int s = 0; s < 2; s += 1) {
+            for (PieceColor p : PieceColor.values()) {
+                if (p == EMPTY) {
+                    continue;
+                }
+                long[] table = new long[MoveGenerator.SQUARES * GEOMETRIC];
+                for (int i = 0; i < MoveGenerator.SQUARES; i += 1) {
+                    for (int g = 0; g < GEOMETRIC; g += 1) {
+                        int t = g | s * SWAP_COLORS;
+                        table[i * GEOMETRIC + g] =
+                            Board.zobrist(color(t, p),
+                                          SQUARES[t][MoveGenerator
+                                                     .PLAYABLE[i]]);
+                    }
+                }
+                PIECE_KEYS[s][p.ordinal()] = table;
+            }
+        }
+        long padding = 0;
+        for (int sq = 0; sq < side * side; sq += 1) {
+            if (!MoveGenerator.isPlayable(sq)) {
+                padding ^= Board.zobrist(BLOCKED, sq);
+            }
+        }
+        PADDING = padding;
+    }
+
+}
@@ -0,0 +1,174 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import static ataxx.PieceColor.*;
+import static org.junit.Assert.*;
+
+/** Tests of Symmetry.
+ *  @author Katrina Sharonin
+ */
+public class SymmetryTest {
+
+    /** Return positions from some random games, with and without
+     *  blocks. */
+    private static ArrayList<Board> positions() {
+        ArrayList<Board> result = new ArrayList<>();
+        String[] blocks = { null, "c3", "b4" };
+        int k = 0;
+        for (ArrayList<Move> game : Benchmark.randomGames(6, 11)) {
+            Board b = new Board();
+            if (blocks[k % blocks.length] != null) {
+                b.setBlock(blocks[k % blocks.length]);
+            }
+            k += 1;
+            for (Move move : game) {
+                if (!b.legalMove(move)) {
+                    break;
+                }
+                b.makeMove(move);
+                if (b.getWinner() != null) {
+                    break;
+                }
+                result.add(new Board(b));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testSquares() {
+        for (int t = 0; t < Symmetry.COUNT; t += 1) {
+            HashSet<Integer> images = new HashSet<>();
+            for (int sq : MoveGenerator.PLAYABLE) {
+                int image = Symmetry.square(t, sq);
+                assertTrue("off the board", MoveGenerator.isPlayable(image));
+                assertEquals("wrong inverse", sq,
+                             Symmetry.square(Symmetry.inverse(t), image));
+                images.add(image);
+            }
+            assertEquals("not a permutation", MoveGenerator.SQUARES,
+                         images.size());
+            assertEquals("wrong colors", (t & Symmetry.SWAP_COLORS) != 0,
+                         Symmetry.color(t, RED) == BLUE);
+            assertEquals("block changed", BLOCKED,
+                         Symmetry.color(t, BLOCKED));
+        }
+        int a1 = Board.index('a', '1');
+        assertEquals(a1, Symmetry.square(Symmetry.IDENTITY, a1));
+        assertEquals(Board.index('g', '1'),
+                     Symmetry.square(Symmetry.FLIP_COLUMNS, a1));
+        assertEquals(Board.index('a', '7'),
+                     Symmetry.square(Symmetry.FLIP_ROWS, a1));
+        assertEquals(Board.index('b', '3'),
+                     Symmetry.square(Symmetry.TRANSPOSE,
+                                     Board.index('c', '2')));
+    }
+
+    @Test
+    public void testKeys() {
+        HashMap<Long, String> canonical = new HashMap<>();
+        for (Board b : positions()) {
+            long key = Symmetry.key(b);
+            int t = Symmetry.transform(b);
+            assertEquals("wrong identity key", b.zobristKey(),
+                         Symmetry.key(b, Symmetry.IDENTITY));
+            assertEquals("wrong transform", key, Symmetry.key(b, t));
+            assertEquals("wrong color swap", b.whoseMove() == BLUE,
+                         (t & Symmetry.SWAP_COLORS) != 0);
+            for (int u = 0; u < Symmetry.COUNT; u += 1) {
+                Board image = Symmetry.image(b, u);
+                assertEquals("wrong image key", image.zobristKey(),
+                             Symmetry.key(b, u));
+                assertEquals("canonical key not shared", key,
+                             Symmetry.key(image));
+                assertTrue("not least", (u & Symmetry.SWAP_COLORS)
+                           != (t & Symmetry.SWAP_COLORS)
+                           || Symmetry.key(b, u) >= key);
+                assertEquals("wrong piece counts",
+                             b.numPieces(Symmetry.color(u, RED)),
+                             image.numPieces(RED));
+            }
+            String image = Symmetry.image(b, t).boardString();
+            assertEquals("canonical images differ", image,
+                         canonical.computeIfAbsent(key, (k) -> image));
+        }
+        Board start = new Board(), opened = new Board();
+        opened.makeMove(Move.move("a7-b6"));
+        assertNotEquals("different positions have the same key",
+                        Symmetry.key(start), Symmetry.key(opened));
+    }
+
+    @Test
+    public void testMoves() {
+        for (Board b : positions()) {
+            ArrayList<Move> legal = MoveGenerator.legalMoves(b);
+            for (int t = 0; t < Symmetry.COUNT; t += 1) {
+                Board image = Symmetry.image(b, t);
+                for (Move move : legal) {
+                    Move moved = Symmetry.move(t, move);
+                    assertTrue("illegal image of " + move,
+                               image.legalMove(moved));
+                    assertEquals("wrong inverse", move,
+                                 Symmetry.move(Symmetry.inverse(t),
+                                               moved));
+                    assertEquals("canonical move not shared",
+                                 Symmetry.canonicalMove(b, move),
+                                 Symmetry.canonicalMove(image, moved));
+                    b.makeMove(move);
+                    image.makeMove(moved);
+                    assertEquals("images diverge", Symmetry.key(b),
+                                 Symmetry.key(image));
+                    b.undo();
+                    image.undo();
+                }
+            }
+        }
+        Board start = new Board();
+        assertEquals("symmetric moves differ",
+                     Symmetry.canonicalMove(start, Move.move("a7-b6")),
+                     Symmetry.canonicalMove(start, Move.move("g1-f2")));
+        assertNotEquals("different moves the same",
+                        Symmetry.canonicalMove(start, Move.move("a7-b6")),
+                        Symmetry.canonicalMove(start, Move.move("a7-a6")));
+        assertEquals("pass changed", Move.PASS,
+                     Symmetry.move(Symmetry.TRANSPOSE, Move.PASS));
+    }
+
+    @Test
+    public void testSharedTable() {
+        Board b = new Board();
+        for (String move : new String[] { "a7-b6", "a1-b2", "b6-c5" }) {
+            b.makeMove(Move.move(move));
+        }
+        int t = Symmetry.TRANSPOSE | Symmetry.FLIP_ROWS
+            | Symmetry.SWAP_COLORS;
+        Board image = Symmetry.image(b, t);
+        AI fresh = new AI(null, image.whoseMove(), 0);
+        fresh.setMaxDepth(3);
+        fresh.findMove(image);
+        for (boolean on : new boolean[] { false, true }) {
+            AI ai = new AI(null, b.whoseMove(), 0);
+            ai.setMaxDepth(3);
+            ai.setSymmetry(on);
+            ai.findMove(b);
+            int score = ai.lastScore();
+            Move move = ai.findMove(image);
+            assertTrue("illegal move", image.legalMove(move));
+            assertEquals("wrong score", -score, ai.lastScore());
+            assertEquals("wrong score from fresh table", fresh.lastScore(),
+                         ai.lastScore());
+            assertEquals("table " + (on ? "not " : "") + "shared",
+                         on, ai.nodes() < fresh.nodes() / 2);
+        }
+    }
+
+}
@@ -0,0 +1,522 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ucb.util.CommandArgs;
+
+import static ataxx.GameException.error;
+import static ataxx.PieceColor.*;
+
+/** A headless match between two automatic players ("engines"), for
+ *  telling whether a change to one makes it stronger.  Each game is
+ *  played by its own Game, with a silent reporter and view, through
+ *  Game.playOut, so the rules are exactly those of interactive play.
+ *  Games are played in parallel by a pool of threads.
+ *
+ *  Openings are generated at random from a seed: a few blocks and a few
+ *  random plies.  Each opening is played twice, with the engines
+ *  swapping colors.  The match reports wins, draws, and losses for the
+ *  first engine, the Elo difference with a 95% confidence interval, and
+ *  the log-likelihood ratio of a sequential probability ratio test
+ *  (SPRT) of the hypotheses that the difference is ELO0 or ELO1.  The
+ *  match stops early once the SPRT accepts either.
+ *  @author Katrina Sharonin
+ */
+public class Tournament {
+
+    /** Location of usage message resource. */
+    static final String USAGE = "ataxx/TournamentUsage.txt";
+
+    /** Play a match.  Usage:
+     *      java ataxx.Tournament [ --games=N ] [ --threads=N ] [ --seed=S ]
+     *                            [ --blocks=N ] [ --plies=N ]
+     *                            [ --elo0=E ] [ --elo1=E ]
+     *                            [ --log=FILE ] [ ENGINE1 [ ENGINE2 ] ]
+     *  See TournamentUsage.txt for details.  ARGS0 are the command-line
+     *  arguments. */
+    public static void main(String[] args0) {
+        CommandArgs args =
+            new CommandArgs("--games=(\\d+){0,1} --threads=(\\d+){0,1}"
+                            + " --seed=(\\d+){0,1} --blocks=(\\d+){0,1}"
+                            + " --plies=(\\d+){0,1}"
+                            + " --elo0=(-?\\d+(?:\\.\\d*)?){0,1}"
+                            + " --elo1=(-?\\d+(?:\\.\\d*)?){0,1}"
+                            + " --log=(.+){0,1} --=(.+){0,2}", args0);
+        if (!args.ok()) {
+            Utils.printHelpResource(USAGE, System.err);
+            System.exit(1);
+        }
+        List<String> engines = args.get("--");
+        Tournament match;
+        try {
+            match = new Tournament(
+                new Engine(engines.size() > 0 ? engines.get(0) : "ai"),
+                new Engine(engines.size() > 1 ? engines.get(1)
+                           : "ai:eval=material"));
+        } catch (GameException excp) {
+            System.err.println(excp.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (args.contains("--games")) {
+            match._games = args.getInt("--games");
+        }
+        if (args.contains("--threads")) {
+            match._threads = args.getInt("--threads");
+        }
+        if (args.contains("--seed")) {
+            match._seed = args.getLong("--seed");
+        }
+        if (args.contains("--blocks")) {
+            match._maxBlocks = args.getInt("--blocks");
+        }
+        if (args.contains("--plies")) {
+            match._plies = args.getInt("--plies");
+        }
+        if (args.contains("--elo0")) {
+            match._elo0 = Double.parseDouble(args.getFirst("--elo0"));
+        }
+        if (args.contains("--elo1")) {
+            match._elo1 = Double.parseDouble(args.getFirst("--elo1"));
+        }
+        PrintWriter log = null;
+        if (args.contains("--log")) {
+            try {
+                log = new PrintWriter(new FileWriter(args.getFirst("--log")));
+            } catch (IOException excp) {
+                System.err.printf("Could not open %s%n",
+                                  args.getFirst("--log"));
+                System.exit(1);
+            }
+        }
+        match.play(log, System.out);
+        if (log != null) {
+            log.close();
+        }
+        System.out.print(match.summary());
+    }
+
+    /** A match between FIRST and SECOND with the default settings. */
+    Tournament(Engine first, Engine second) {
+        _engines = new Engine[] { first, second };
+        _games = DEFAULT_GAMES;
+        _threads = Runtime.getRuntime().availableProcessors();
+        _seed = 0;
+        _maxBlocks = DEFAULT_BLOCKS;
+        _plies = DEFAULT_PLIES;
+        _elo0 = 0;
+        _elo1 = DEFAULT_ELO1;
+    }
+
+    /** Set the number of games to N, which is rounded up to an even
+     *  number. */
+    void setGames(int n) {
+        _games = n;
+    }
+
+    /** Play games in THREADS threads. */
+    void setThreads(int threads) {
+        _threads = threads;
+    }
+
+    /** Play the match, writing one line describing each game, in the
+     *  order they finish, to LOG (if not null), and a line of progress
+     *  after every PROGRESS_INTERVAL games to PROGRESS (if not null). */
+    void play(PrintWriter log, PrintStream progress) {
+        int pairs = (_games + 1) / 2;
+        ExecutorService pool =
+            Executors.newFixedThreadPool(Math.max(1, _threads));
+        ExecutorCompletionService<GameRecord> results =
+            new ExecutorCompletionService<>(pool);
+        _stopped = false;
+        for (int i = 0; i < 2 * pairs; i += 1) {
+            int game = i;
+            results.submit(() -> _stopped ? null : playGame(game));
+        }
+        pool.shutdown();
+        for (int i = 0; i < 2 * pairs; i += 1) {
+            GameRecord record;
+            try {
+                record = results.take().get();
+            } catch (InterruptedException | ExecutionException excp) {
+                pool.shutdownNow();
+                throw new Error("tournament game failed", excp);
+            }
+            if (record == null) {
+                continue;
+            }
+            _results[record.score()] += 1;
+            if (log != null) {
+                log.println(record);
+            }
+            if (progress != null && played() % PROGRESS_INTERVAL == 0) {
+                progress.printf("%d games: +%d =%d -%d%n", played(),
+                                _results[WIN], _results[DRAW],
+                                _results[LOSS]);
+            }
+            if (sprtDecision() != 0) {
+                _stopped = true;
+            }
+        }
+    }
+
+    /** Return the number of games completed. */
+    int played() {
+        return _results[WIN] + _results[DRAW] + _results[LOSS];
+    }
+
+    /** Return the numbers of wins, draws, and losses of the first
+     *  engine. */
+    int[] results() {
+        return _results.clone();
+    }
+
+    /** Return 1 if the SPRT accepts the hypothesis that the Elo
+     *  difference is ELO1, -1 if it accepts ELO0, and 0 if undecided. */
+    int sprtDecision() {
+        double llr = llr(_results[WIN], _results[DRAW], _results[LOSS],
+                         _elo0, _elo1);
+        if (llr >= Math.log((1 - SPRT_BETA) / SPRT_ALPHA)) {
+            return 1;
+        } else if (llr <= Math.log(SPRT_BETA / (1 - SPRT_ALPHA))) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /** Return a report of the results so far. */
+    String summary() {
+        int w = _results[WIN], d = _results[DRAW], l = _results[LOSS];
+        int n = w + d + l;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%s vs. %s: %d games%n", _engines[0],
+                                 _engines[1], n));
+        if (n == 0) {
+            return out.toString();
+        }
+        out.append(String.format("  +%d =%d -%d  score %.1f%%%n", w, d, l,
+                                 100 * (w + d / 2.0) / n));
+        out.append(String.format("  Elo difference %.1f +/- %.1f (95%%)%n",
+                                 elo(w, d, l), eloError(w, d, l)));
+        int decision = sprtDecision();
+        out.append(String.format("  SPRT(%.1f, %.1f): LLR %.2f [%.2f, %.2f] "
+                                 + "%s%n", _elo0, _elo1,
+                                 llr(w, d, l, _elo0, _elo1),
+                                 Math.log(SPRT_BETA / (1 - SPRT_ALPHA)),
+                                 Math.log((1 - SPRT_BETA) / SPRT_ALPHA),
+                                 decision > 0 ? "H1 accepted"
+                                 : decision < 0 ? "H0 accepted"
+                                 : "undecided"));
+        return out.toString();
+    }
+
+    /** Return the expected score (between 0 and 1) of a player that is
+     *  ELO Elo points stronger than its opponent. */
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /** Return the Elo difference implied by a score of W wins, D draws,
+     *  and L losses.  Infinite if there are no losses or no wins and
+     *  draws. */
+    static double elo(int w, int d, int l) {
+        return eloOf((w + d / 2.0) / (w + d + l));
+    }
+
+    /** Return the Elo difference implied by a fractional SCORE. */
+    private static double eloOf(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /** Return the half-width of a 95% confidence interval for the Elo
+     *  difference implied by W wins, D draws, and L losses: the interval
+     *  of two standard errors of the mean score, converted to Elo. */
+    static double eloError(int w, int d, int l) {
+        int n = w + d + l;
+        double score = (w + d / 2.0) / n;
+        double se = Math.sqrt(variance(w, d, l) / n);
+        return (eloOf(Math.min(1, score + Z95 * se))
+                - eloOf(Math.max(0, score - Z95 * se))) / 2;
+    }
+
+    /** Return the variance of the score of a single game, estimated from
+     *  W wins, D draws, and L losses. */
+    private static double variance(int w, int d, int l) {
+        int n = w + d + l;
+        double score = (w + d / 2.0) / n;
+        return (w * (1 - score) * (1 - score)
+                + d * (0.5 - score) * (0.5 - score)
+                + l * score * score) / n;
+    }
+
+    /** Return the log-likelihood ratio of the hypotheses that the Elo
+     *  difference is ELO1 and that it is ELO0, given W wins, D draws, and
+     *  L losses.  Uses the normal approximation to the distribution of
+     *  the total score, with the variance observed.  0 until there have
+     *  been both better and worse results than a draw. */
+    static double llr(int w, int d, int l, double elo0, double elo1) {
+        int n = w + d + l;
+        double var = n == 0 ? 0 : variance(w, d, l);
+        if (var == 0) {
+            return 0;
+        }
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return (s1 - s0) * (2 * (w + d / 2.0) - n * (s0 + s1)) / (2 * var);
+    }
+
+    /** Play game number GAME and return its record.  Games 2K and 2K+1
+     *  use the same opening, with the first engine playing red in the
+     *  first and blue in the second. */
+    GameRecord playGame(int game) {
+        Game g = new Game(SILENT, (b) -> { }, SILENT, false);
+        Random random = new Random(_seed * OPENING_SEEDS + game / 2);
+        List<String> blocks = new ArrayList<>();
+        for (int k = random.nextInt(_maxBlocks + 1); k > 0; k -= 1) {
+            char c = (char) ('a' + random.nextInt(Board.SIDE)),
+                r = (char) ('1' + random.nextInt(Board.SIDE));
+            if (g.getBoard().get(c, r) == EMPTY) {
+                g.block("" + c + r);
+                blocks.add("" + c + r);
+            }
+        }
+        for (int k = 0; k < _plies && g.gameInProgress(); k += 1) {
+            List<Move> moves = Perft.moves(g.getBoard());
+            g.makeMove(moves.get(random.nextInt(moves.size())).toString());
+        }
+        int opening = g.getBoard().numMoves();
+        PieceColor firstColor = game % 2 == 0 ? RED : BLUE;
+        long seed = _seed * OPENING_SEEDS + game;
+        g.setPlayer(firstColor, _engines[0].player(g, firstColor, seed));
+        g.setPlayer(firstColor.opposite(),
+                    _engines[1].player(g, firstColor.opposite(), seed));
+        PieceColor winner = g.gameInProgress() ? g.playOut()
+            : g.getBoard().getWinner();
+        return new GameRecord(game, firstColor, winner, blocks,
+                              g.getBoard().allMoves(), opening);
+    }
+
+    /** An automatic player configuration, described by a string of the
+     *  form KIND[:OPTION=VALUE,...].  KIND is "ai", with options depth and
+     *  eval (material or features), or "mcts", with option playouts. */
+    static class Engine {
+
+        /** The engine described by SPEC.  Throws a GameException if SPEC
+         *  is malformed. */
+        Engine(String spec) {
+            _spec = spec;
+            String[] parts = spec.split(":", 2);
+            _kind = parts[0];
+            if (!_kind.equals("ai") && !_kind.equals("mcts")) {
+                throw error("bad engine: %s", spec);
+            }
+            if (parts.length == 1) {
+                return;
+            }
+            for (String option : parts[1].split(",")) {
+                String[] kv = option.split("=", 2);
+                try {
+                    switch (_kind + " " + kv[0]) {
+                    case "ai depth":
+                        _depth = Integer.parseInt(kv[1]);
+                        break;
+                    case "ai eval":
+                        if (!kv[1].matches("material|features")) {
+                            throw error("bad engine: %s", spec);
+                        }
+                        _material = kv[1].equals("material");
+                        break;
+                    case "mcts playouts":
+                        _playouts = Integer.parseInt(kv[1]);
+                        break;
+                    default:
+                        throw error("bad engine: %s", spec);
+                    }
+                } catch (NumberFormatException
+                         | ArrayIndexOutOfBoundsException excp) {
+                    throw error("bad engine: %s", spec);
+                }
+            }
+        }
+
+        /** Return a new player of this kind for GAME playing COLOR, with
+         *  random seed SEED. */
+        Player player(Game game, PieceColor color, long seed) {
+            if (_kind.equals("mcts")) {
+                MCTS player = new MCTS(game, color, seed);
+                if (_playouts > 0) {
+                    player.setPlayouts(_playouts);
+                }
+                return player;
+            }
+            AI player = new AI(game, color, seed);
+            if (_depth > 0) {
+                player.setMaxDepth(_depth);
+            }
+            if (_material) {
+                player.setEvaluator(Evaluator.MATERIAL);
+            }
+            return player;
+        }
+
+        @Override
+        public String toString() {
+            return _spec;
+        }
+
+        /** The description of this engine. */
+        private final String _spec;
+        /** "ai" or "mcts". */
+        private final String _kind;
+        /** Search depth, or 0 for the default. */
+        private int _depth;
+        /** True iff an AI uses Evaluator.MATERIAL. */
+        private boolean _material;
+        /** Playouts per move, or 0 for the default. */
+        private int _playouts;
+    }
+
+    /** The outcome and moves of one game. */
+    static class GameRecord {
+
+        /** A record of game number GAME, in which the first engine played
+         *  FIRSTCOLOR and WINNER won (EMPTY for a draw), with blocks placed
+         *  at BLOCKS followed by MOVES, the first OPENING of which were the
+         *  random opening. */
+        GameRecord(int game, PieceColor firstColor, PieceColor winner,
+                   List<String> blocks, List<Move> moves, int opening) {
+            _game = game;
+            _firstColor = firstColor;
+            _winner = winner;
+            _blocks = blocks;
+            _moves = moves;
+            _opening = opening;
+        }
+
+        /** Return WIN, DRAW, or LOSS, according to the first engine's
+         *  result. */
+        int score() {
+            return _winner == _firstColor ? WIN
+                : _winner == EMPTY ? DRAW : LOSS;
+        }
+
+        /** Return a one-line description of the game: its number, the
+         *  engine (1 or 2) playing red, the result ("1-0" for a red win,
+         *  "0-1" for blue, or "1/2"), the blocks ("-" if none), and the
+         *  moves, with a "|" after the opening. */
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(_game).append(' ')
+                .append(_firstColor == RED ? 1 : 2).append(' ')
+                .append(_winner == RED ? "1-0" : _winner == BLUE ? "0-1"
+                        : "1/2").append(' ')
+                .append(_blocks.isEmpty() ? "-" : String.join(",", _blocks));
+            for (int i = 0; i < _moves.size(); i += 1) {
+                out.append(i == _opening ? " | " : " ").append(_moves.get(i));
+            }
+            return out.toString();
+        }
+
+        /** Game number. */
+        private final int _game;
+        /** Color played by the first engine. */
+        private final PieceColor _firstColor;
+        /** The winner, or EMPTY for a draw. */
+        private final PieceColor _winner;
+        /** Squares at which blocks were placed. */
+        private final List<String> _blocks;
+        /** All moves of the game. */
+        private final List<Move> _moves;
+        /** Number of moves in the opening. */
+        private final int _opening;
+    }
+
+    /** A Reporter and CommandSource that says nothing and quits. */
+    private static class Silent implements Reporter, CommandSource {
+        @Override
+        public void announceWin(PieceColor side) {
+        }
+
+        @Override
+        public void announceMove(Move move, PieceColor player) {
+        }
+
+        @Override
+        public void msg(String format, Object... args) {
+        }
+
+        @Override
+        public void err(String format, Object... args) {
+        }
+
+        @Override
+        public String getCommand(String prompt) {
+            return null;
+        }
+    }
+
+    /** The silent reporter and command source used by all games. */
+    private static final Silent SILENT = new Silent();
+
+    /** Indices of wins, draws, and losses in _results. */
+    static final int WIN = 0, DRAW = 1, LOSS = 2;
+
+    /** Default number of games. */
+    static final int DEFAULT_GAMES = 200;
+
+    /** Default maximum number of blocks placed (each with its
+     *  reflections) in an opening. */
+    static final int DEFAULT_BLOCKS = 2;
+
+    /** Default number of random plies in an opening. */
+    static final int DEFAULT_PLIES = 4;
+
+    /** Default Elo difference of the SPRT's alternative hypothesis. */
+    static final double DEFAULT_ELO1 = 10;
+
+    /** Probabilities of error of the SPRT: of accepting ELO1 when ELO0 is
+     *  true, and the reverse. */
+    static final double SPRT_ALPHA = 0.05, SPRT_BETA = 0.05;
+
+    /** Number of standard errors in a 95% confidence interval. */
+    private static final double Z95 = 1.96;
+
+    /** Number of games between progress reports. */
+    private static final int PROGRESS_INTERVAL = 50;
+
+    /** Multiplier separating the openings of different seeds. */
+    private static final long OPENING_SEEDS = 1000003;
+
+    /** The two engines. */
+    private final Engine[] _engines;
+
+    /** Match parameters: number of games, threads, random seed, maximum
+     *  blocks and plies of random opening. */
+    private int _games, _threads, _maxBlocks, _plies;
+
+    /** Random seed for openings and players. */
+    private long _seed;
+
+    /** Elo differences of the SPRT's hypotheses. */
+    private double _elo0, _elo1;
+
+    /** Wins, draws, and losses of the first engine. */
+    private final int[] _results = new int[3];
+
+    /** True when the SPRT has stopped the match. */
+    private volatile boolean _stopped;
+}
@@ -0,0 +1,97 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static ataxx.Tournament.*;
+import static org.junit.Assert.*;
+
+/** Tests of the Tournament class.
+ *  @author Katrina Sharonin
+ */
+public class TournamentTest {
+
+    @Test
+    public void testStatistics() {
+        assertEquals("wrong expected score", 0.5, expectedScore(0), 1e-9);
+        assertEquals("wrong expected score", 0.75, expectedScore(190.85),
+                     1e-4);
+        assertEquals("wrong Elo", 190.85, elo(3, 0, 1), 0.01);
+        assertEquals("wrong Elo", 0, elo(10, 5, 10), 1e-9);
+        assertEquals("draws not half", elo(2, 2, 0), elo(3, 0, 1), 1e-9);
+        assertTrue("error bars not shrinking",
+                   eloError(30, 0, 10) < eloError(15, 0, 5));
+        assertEquals("wrong LLR", 3.73, llr(150, 0, 50, 0, 10), 0.01);
+        assertTrue("LLR not negative", llr(50, 0, 150, 0, 10) < -2.94);
+        assertEquals("LLR without variance", 0, llr(5, 0, 0, 0, 10), 0);
+    }
+
+    @Test
+    public void testEngines() {
+        assertEquals("ai:depth=2,eval=material",
+                     new Engine("ai:depth=2,eval=material").toString());
+        for (String bad : new String[] { "alphabeta", "ai:depth=x",
+                                         "ai:playouts=3", "mcts:eval=1",
+                                         "ai:eval=psychic" }) {
+            try {
+                new Engine(bad);
+                fail("accepted " + bad);
+            } catch (GameException excp) {
+                /* Expected. */
+            }
+        }
+    }
+
+    /** Return the log of a small match with THREADS threads, sorted by
+     *  game number. */
+    private static String[] smallMatch(int threads) {
+        Tournament match = new Tournament(new Engine("ai:depth=1"),
+                                          new Engine("ai:depth=2"));
+        match.setGames(6);
+        match.setThreads(threads);
+        StringWriter log = new StringWriter();
+        match.play(new PrintWriter(log, true), null);
+        assertEquals("wrong number of games", 6, match.played());
+        String[] lines = log.toString().trim().split("\n");
+        Arrays.sort(lines, (x, y) -> Integer.parseInt(x.split(" ")[0])
+                    - Integer.parseInt(y.split(" ")[0]));
+        return lines;
+    }
+
+    @Test
+    public void testMatch() {
+        String[] lines = smallMatch(3);
+        assertEquals("wrong number of log lines", 6, lines.length);
+        for (int i = 0; i < lines.length; i += 1) {
+            String[] fields = lines[i].split(" ");
+            assertEquals("wrong game number", "" + i, fields[0]);
+            assertEquals("colors not alternated", i % 2 == 0 ? "1" : "2",
+                         fields[1]);
+            assertTrue("bad result", fields[2].matches("1-0|0-1|1/2"));
+            Board b = new Board();
+            for (String block : fields[3].split(",")) {
+                if (!block.equals("-")) {
+                    b.setBlock(block);
+                }
+            }
+            for (int k = 4; k < fields.length; k += 1) {
+                if (!fields[k].equals("|")) {
+                    b.makeMove(Move.move(fields[k]));
+                }
+            }
+            assertEquals("log does not replay to the result",
+                         fields[2].equals("1-0") ? PieceColor.RED
+                         : fields[2].equals("0-1") ? PieceColor.BLUE
+                         : PieceColor.EMPTY, b.getWinner());
+        }
+        assertArrayEquals("results depend on threads", lines, smallMatch(1));
+    }
+
+}
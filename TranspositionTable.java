@@ -0,0 +1,159 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.Arrays;
+
+/** A fixed-size cache of search results, indexed by Zobrist key (see
+ *  Board.zobristKey), for use by the AI's alpha-beta search.
+ *
+ *  The table is a single long array.  Each entry occupies two
+ *  consecutive longs: a data word packing the search depth, the kind of
+ *  bound the score represents, the score itself, and the code (see
+ *  Move.code) of the best move found; and the full key XORed with the data
+ *  word.  The table may be shared by several searching threads without
+ *  locking: a reader that sees the two words of an entry written by
+ *  different stores finds that they do not match its key, and so simply
+ *  misses.  For the same reason, probe returns the data word itself,
+ *  which the static accessors then decode.  Entries are grouped
+ *  in buckets of two.  The first entry of a bucket is replaced only by a
+ *  search at least as deep (or by any search once the entry is left over
+ *  from an earlier move); the second is replaced unconditionally.  Thus
+ *  expensive deep results survive while recent shallow results are still
+ *  remembered.
+ *  @author Katrina Sharonin
+ */
+class TranspositionTable {
+
+    /** Bound types.  EXACT indicates that the stored score is the true
+     *  value of the position to the stored depth.  LOWER indicates that
+     *  the value is at least the stored score (the search failed high),
+     *  and UPPER that it is at most the stored score (failed low). */
+    static final int EXACT = 0, LOWER = 1, UPPER = 2;
+
+    /** Value of move() when no best move was stored. */
+    static final int NO_MOVE = -1;
+
+    /** Value of probe() when there is no entry. */
+    static final long NONE = 0;
+
+    /** Number of bytes in one entry. */
+    static final int ENTRY_BYTES = 2 * Long.BYTES;
+
+    /** A table occupying at most MEGABYTES megabytes (and at least one
+     *  bucket).  The number of entries is a power of two. */
+    TranspositionTable(int megabytes) {
+        long entries = Math.max(2, (long) megabytes * (1 << 20) / ENTRY_BYTES);
+        entries = Long.highestOneBit(Math.min(entries, 1 << 28));
+        _table = new long[(int) (2 * entries)];
+        _bucketMask = (int) (entries / 2 - 1);
+    }
+
+    /** Return the number of entries in the table. */
+    int size() {
+        return _table.length / 2;
+    }
+
+    /** Remove all entries. */
+    void clear() {
+        Arrays.fill(_table, 0);
+    }
+
+    /** Indicate the start of a new search, making entries stored by
+     *  earlier searches preferred candidates for replacement. */
+    void newSearch() {
+        _generation = (_generation + 1) & GENERATION_MASK;
+    }
+
+    /** Return the data word of the entry for KEY, or NONE if there is
+     *  none.  Its contents are given by the accessors below. */
+    long probe(long key) {
+        int e = bucket(key);
+        for (int k = 0; k < 2; k += 1, e += 1) {
+            long data = _table[2 * e];
+            if (data != NONE && (_table[2 * e + 1] ^ data) == key) {
+                return data;
+            }
+        }
+        return NONE;
+    }
+
+    /** Return the search depth of the entry with data word DATA. */
+    static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+    }
+
+    /** Return the bound type (EXACT, LOWER, or UPPER) of the entry with
+     *  data word DATA. */
+    static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    /** Return the score of the entry with data word DATA. */
+    static int score(long data) {
+        return (int) data;
+    }
+
+    /** Return the best-move code of the entry with data word DATA, or
+     *  NO_MOVE. */
+    static int move(long data) {
+        return ((int) (data >>> MOVE_SHIFT) & MOVE_MASK) - 1;
+    }
+
+    /** Record that a search of the position with key KEY to depth DEPTH
+     *  produced SCORE, which is a bound of type BOUND, and best move with
+     *  code MOVE (or NO_MOVE). */
+    void store(long key, int depth, int bound, int score, int move) {
+        long data = VALID
+            | ((long) _generation << GENERATION_SHIFT)
+            | ((long) Math.min(depth, DEPTH_MASK) << DEPTH_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | ((long) (move + 1) << MOVE_SHIFT)
+            | (score & 0xffffffffL);
+        int e = bucket(key);
+        long old = _table[2 * e];
+        if (old == NONE || (_table[2 * e + 1] ^ old) == key
+            || depth >= depth(old)
+            || ((old >>> GENERATION_SHIFT) & GENERATION_MASK) != _generation) {
+            _table[2 * e] = data;
+            _table[2 * e + 1] = key ^ data;
+        } else {
+            _table[2 * e + 2] = data;
+            _table[2 * e + 3] = key ^ data;
+        }
+    }
+
+    /** Return the number of the first entry in the bucket for KEY. */
+    private int bucket(long key) {
+        return 2 * ((int) (key ^ (key >>> 32)) & _bucketMask);
+    }
+
+    /* Layout of data words.  The low 32 bits hold the score. */
+
+    /** Position and width of the move code (offset by 1, so that 0
+     *  means NO_MOVE). */
+    private static final int MOVE_SHIFT = 32, MOVE_MASK = 0x7fff;
+
+    /** Position and width of the bound type. */
+    private static final int BOUND_SHIFT = 47, BOUND_MASK = 0x3;
+
+    /** Position and width of the depth. */
+    private static final int DEPTH_SHIFT = 49, DEPTH_MASK = 0x3f;
+
+    /** Position and width of the search generation. */
+    private static final int GENERATION_SHIFT = 55, GENERATION_MASK = 0xff;
+
+    /** Bit set in all used data words, so that 0 denotes an empty entry. */
+    private static final long VALID = 1L << 63;
+
+    /** The entries: data word, and key XOR data word, for each. */
+    private final long[] _table;
+
+    /** Mask that reduces a hash to a bucket number. */
+    private final int _bucketMask;
+
+    /** Current search generation. */
+    private volatile int _generation;
+}
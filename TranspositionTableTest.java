@@ -0,0 +1,104 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static ataxx.TranspositionTable.*;
+import static org.junit.Assert.*;
+
+/** Tests of the TranspositionTable class.
+ *  @author Katrina Sharonin
+ */
+public class TranspositionTableTest {
+
+    @Test
+    public void testSize() {
+        TranspositionTable t = new TranspositionTable(1);
+        assertEquals("wrong number of entries", (1 << 20) / ENTRY_BYTES,
+                     t.size());
+        t = new TranspositionTable(3);
+        assertEquals("size not a power of two", (2 << 20) / ENTRY_BYTES,
+                     t.size());
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        TranspositionTable t = new TranspositionTable(1);
+        Move m = Move.move("c3-d5");
+        assertEquals("found entry in empty table", NONE, t.probe(12345L));
+        t.store(12345L, 4, LOWER, -317, m.code());
+        long e = t.probe(12345L);
+        assertTrue("entry not found", e != NONE);
+        assertEquals("wrong depth", 4, depth(e));
+        assertEquals("wrong bound", LOWER, bound(e));
+        assertEquals("wrong score", -317, score(e));
+        assertSame("wrong move", m, Move.fromCode(move(e)));
+        assertEquals("found wrong key", NONE, t.probe(12346L));
+
+        t.store(99L, 2, EXACT, Integer.MAX_VALUE - 20, NO_MOVE);
+        e = t.probe(99L);
+        assertEquals("wrong score", Integer.MAX_VALUE - 20, score(e));
+        assertEquals("wrong move", NO_MOVE, move(e));
+        t.store(99L, 1, UPPER, 0, Move.pass().code());
+        e = t.probe(99L);
+        assertEquals("same key not replaced", 1, depth(e));
+        assertSame("wrong move", Move.pass(), Move.fromCode(move(e)));
+
+        t.clear();
+        assertEquals("clear failed", NONE, t.probe(12345L));
+    }
+
+    @Test
+    public void testReplacement() {
+        TranspositionTable t = new TranspositionTable(1);
+        long buckets = t.size() / 2;
+        long k0 = 5, k1 = 5 + buckets, k2 = 5 + 2 * buckets;
+        t.store(k0, 6, EXACT, 1, NO_MOVE);
+        t.store(k1, 2, EXACT, 2, NO_MOVE);
+        assertTrue("deep entry lost", t.probe(k0) != NONE);
+        assertTrue("shallow entry not kept", t.probe(k1) != NONE);
+        t.store(k2, 3, EXACT, 3, NO_MOVE);
+        assertTrue("deep entry lost", t.probe(k0) != NONE);
+        assertEquals("always-replace entry not replaced", NONE, t.probe(k1));
+        assertTrue("new entry not stored", t.probe(k2) != NONE);
+        t.newSearch();
+        t.store(k1, 1, EXACT, 2, NO_MOVE);
+        assertEquals("stale deep entry not replaced", NONE, t.probe(k0));
+        assertTrue("new entry not stored", t.probe(k1) != NONE);
+    }
+
+    @Test
+    public void testConcurrentStores() throws InterruptedException {
+        TranspositionTable t = new TranspositionTable(1);
+        int keys = 4 * t.size();
+        AtomicInteger torn = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i += 1) {
+            int id = i;
+            threads[i] = new Thread(() -> {
+                for (int n = 0; n < 50; n += 1) {
+                    for (long k = id; k < keys; k += threads.length) {
+                        t.store(k * 0x9E3779B97F4A7C15L, (int) (k % 50),
+                                EXACT, (int) k, NO_MOVE);
+                        long e = t.probe(k * 0x9E3779B97F4A7C15L);
+                        if (e != NONE && (score(e) != (int) k
+                                          || depth(e) != k % 50)) {
+                            torn.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("probes returned torn entries", 0, torn.get());
+    }
+
+}
@@ -15,7 +15,14 @@ public class UnitTest {
      *  the arguments of runClasses to run other JUnit tests. */
     public static void main(String[] ignored) {
         textui.runClasses(CommandTest.class, MoveTest.class,
-                          BoardTest.class);
+                          BoardTest.class, BitBoardTest.class,
+                          MoveGeneratorTest.class, PerftTest.class,
+                          TranspositionTableTest.class, MCTSTest.class,
+                          FeatureEvaluatorTest.class, TournamentTest.class,
+                          AnalyzerTest.class, ServerTest.class,
+                          ProtocolTest.class, SearchStatsTest.class,
+                          EventsTest.class, OpeningBookTest.class,
+                          EndgameSolverTest.class, SymmetryTest.class);
     }
 
 }
@@ -9,6 +9,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
 
 /** Miscellaneous utilties.
  *  @author P. N. Hilfinger */
@@ -53,9 +54,20 @@ class Utils {
      *  NAME will typically be a file name based in one of the directories
      *  in the class path.  */
     static void printHelpResource(String name, PrintStream out) {
+        PrintWriter writer = new PrintWriter(out);
+        printHelpResource(name, writer);
+        writer.flush();
+    }
+
+    /** Print the contents of the resource named NAME on OUT, as for
+     *  printHelpResource(NAME, PrintStream). */
+    static void printHelpResource(String name, PrintWriter out) {
         try {
             InputStream resource =
                 Utils.class.getClassLoader().getResourceAsStream(name);
+            if (resource == null) {
+                throw new IOException("missing resource");
+            }
             BufferedReader str =
                 new BufferedReader(new InputStreamReader(resource));
             for (String s = str.readLine(); s != null; s = str.readLine())  {
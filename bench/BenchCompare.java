@@ -0,0 +1,103 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/** Compares two sets of JMH results in CSV form (as written by its -rf csv
+ *  option).  Usage:
+ *      java ataxx.BenchCompare BASELINE.csv RESULT.csv
+ *  For each benchmark (with the same parameters) in both, and its
+ *  normalized allocation rate (from -prof gc), prints the baseline and
+ *  new scores, and marks those that got worse by more than both the
+ *  scores' error bounds and THRESHOLD (and, for allocation, by at least
+ *  a byte per operation).  Exits with code 1 if any did.
+ *  @author Katrina Sharonin
+ */
+public class BenchCompare {
+
+    /** Smallest relative change reported as a regression. */
+    private static final double THRESHOLD = 0.05;
+
+    /** Suffix of the benchmark names of the allocation rate per
+     *  operation, as written by the gc profiler. */
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    /** Compare the results in the files named ARGS[0] and ARGS[1]. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java ataxx.BenchCompare BASELINE.csv"
+                               + " RESULT.csv");
+            System.exit(1);
+        }
+        LinkedHashMap<String, double[]> baseline = read(Path.of(args[0])),
+            result = read(Path.of(args[1]));
+        boolean worse = false;
+        System.out.printf("%-52s %12s %12s %8s%n", "benchmark", "baseline",
+                          "result", "change");
+        for (String key : result.keySet()) {
+            double[] old = baseline.get(key), now = result.get(key);
+            if (old == null) {
+                System.out.printf("%-52s %12s %12.3f%n", key, "-", now[0]);
+                continue;
+            }
+            double change = old[0] == 0 ? 0 : (now[0] - old[0]) / old[0];
+            boolean regressed =
+                now[0] - now[1] > old[0] + old[1] && change > THRESHOLD
+                && (!key.contains(ALLOCATION) || now[0] - old[0] >= 1);
+            worse |= regressed;
+            System.out.printf("%-52s %12.3f %12.3f %+7.1f%%%s%n", key,
+                              old[0], now[0], 100 * change,
+                              regressed ? "  WORSE" : "");
+        }
+        System.exit(worse ? 1 : 0);
+    }
+
+    /** Return the scores and score errors in the JMH CSV file FILE,
+     *  keyed by benchmark name and parameters, for the primary results
+     *  (times per operation) and allocation rates.  Errors that JMH
+     *  could not compute are taken to be 0. */
+    static LinkedHashMap<String, double[]> read(Path file)
+        throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        List<String> header = fields(lines.get(0));
+        LinkedHashMap<String, double[]> result = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> row = fields(line);
+            String name = row.get(0);
+            if (name.contains(":") && !name.endsWith(ALLOCATION)) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(
+                name.replaceFirst("^ataxx\\.", "").replace(":\u00b7", ":"));
+            for (int i = 0; i < header.size(); i += 1) {
+                if (header.get(i).startsWith("Param: ")
+                    && !row.get(i).isEmpty()) {
+                    key.append(' ').append(row.get(i));
+                }
+            }
+            double score = Double.parseDouble(row.get(4));
+            double error = row.get(5).equals("NaN") ? 0
+                : Double.parseDouble(row.get(5));
+            result.put(key.toString(), new double[] { score, error });
+        }
+        return result;
+    }
+
+    /** Return the fields of LINE, a line of comma-separated values
+     *  that may be quoted (without embedded quotes). */
+    private static List<String> fields(String line) {
+        ArrayList<String> result = new ArrayList<>();
+        for (String field : line.split(",", -1)) {
+            result.add(field.replaceAll("^\"|\"$", ""));
+        }
+        return result;
+    }
+}
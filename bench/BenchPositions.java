@@ -0,0 +1,64 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.ArrayList;
+
+/** The positions on which the JMH benchmarks run.  They are taken from a
+ *  fixed random game, so that every run (and the baseline) measures the
+ *  same work.
+ *  @author Katrina Sharonin
+ */
+class BenchPositions {
+
+    /** Names of the positions, for @Param. */
+    static final String OPENING = "opening", MIDGAME = "midgame",
+        ENDGAME = "endgame";
+
+    /** Return a copy of the position named NAME: the first position,
+     *  from ply 4 (opening), half way through the game (midgame), or 8
+     *  plies before its end (endgame), in which the player to move has a
+     *  move. */
+    static Board position(String name) {
+        ArrayList<Move> game = Benchmark.randomGames(1, SEED).get(0);
+        int ply = switch (name) {
+        case OPENING -> 4;
+        case MIDGAME -> game.size() / 2;
+        case ENDGAME -> game.size() - 8;
+        default -> throw new IllegalArgumentException(name);
+        };
+        Board board = new Board();
+        for (Move move : game.subList(0, ply)) {
+            board.makeMove(move);
+        }
+        for (int k = ply; !board.canMove(board.whoseMove()); k += 1) {
+            board.makeMove(game.get(k));
+        }
+        return new Board(board);
+    }
+
+    /** Return every move from a square of BOARD to a square within two
+     *  of it, legal or not. */
+    static Move[] candidateMoves(Board board) {
+        ArrayList<Move> result = new ArrayList<>();
+        for (char c0 = 'a'; c0 <= 'g'; c0 += 1) {
+            for (char r0 = '1'; r0 <= '7'; r0 += 1) {
+                for (int dc = -2; dc <= 2; dc += 1) {
+                    for (int dr = -2; dr <= 2; dr += 1) {
+                        char c1 = (char) (c0 + dc), r1 = (char) (r0 + dr);
+                        if ((dc != 0 || dr != 0) && c1 >= 'a' && c1 <= 'g'
+                            && r1 >= '1' && r1 <= '7') {
+                            result.add(Move.move(c0, r0, c1, r1));
+                        }
+                    }
+                }
+            }
+        }
+        return result.toArray(new Move[0]);
+    }
+
+    /** Seed of the random game. */
+    private static final long SEED = 17;
+}
@@ -0,0 +1,94 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** JMH benchmarks of the Board operations used by the searches, in
+ *  opening, midgame, and endgame positions.
+ *  @author Katrina Sharonin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBench {
+
+    /** Name of the position (see BenchPositions). */
+    @Param({ BenchPositions.OPENING, BenchPositions.MIDGAME,
+             BenchPositions.ENDGAME })
+    public String position;
+
+    /** Set up the position and its moves. */
+    @Setup
+    public void setup() {
+        _board = BenchPositions.position(position);
+        _moves = Perft.moves(_board).toArray(new Move[0]);
+        _candidates = BenchPositions.candidateMoves(_board);
+    }
+
+    /** Make and undo the next legal move. */
+    @Benchmark
+    public void makeUndo() {
+        _board.makeMove(_moves[_nextMove]);
+        _board.undo();
+        _nextMove = _nextMove + 1 == _moves.length ? 0 : _nextMove + 1;
+    }
+
+    /** Return whether the player to move can move. */
+    @Benchmark
+    public boolean canMove() {
+        return _board.canMove(_board.whoseMove());
+    }
+
+    /** Return whether the next of all the geometrically possible moves
+     *  is legal. */
+    @Benchmark
+    public boolean legalMove() {
+        Move move = _candidates[_nextCandidate];
+        _nextCandidate = _nextCandidate + 1 == _candidates.length
+            ? 0 : _nextCandidate + 1;
+        return _board.legalMove(move);
+    }
+
+    /** Generate all the legal moves, as the search does.  Returns their
+     *  number. */
+    @Benchmark
+    public int generate() {
+        return MoveGenerator.generate(_board, _buffer, 0);
+    }
+
+    /** Return a copy of the board. */
+    @Benchmark
+    public Board copy() {
+        return new Board(_board);
+    }
+
+    /** The position. */
+    private Board _board;
+
+    /** Its legal moves, and all geometrically possible moves. */
+    private Move[] _moves, _candidates;
+
+    /** Indices of the next moves to try in _moves and _candidates. */
+    private int _nextMove, _nextCandidate;
+
+    /** Buffer for generate. */
+    private final int[] _buffer = new int[MoveGenerator.MAX_MOVES];
+}
@@ -0,0 +1,71 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** JMH benchmarks of parsing moves and commands.
+ *  @author Katrina Sharonin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBench {
+
+    /** A mix of commands, as typed at the game. */
+    private static final String[] COMMANDS = {
+        "a7-b6", "g1-e3", "-", "auto red", "auto blue mcts", "block c3",
+        "dump", "# a comment", "perft 3", "seed 42", "undo", "quit",
+        "frobnicate",
+    };
+
+    /** Set up the move strings: those of all the geometrically possible
+     *  moves. */
+    @Setup
+    public void setup() {
+        Move[] moves = BenchPositions.candidateMoves(new Board());
+        _moveStrings = new String[moves.length];
+        for (int i = 0; i < moves.length; i += 1) {
+            _moveStrings[i] = moves[i].toString();
+        }
+    }
+
+    /** Parse the next move string. */
+    @Benchmark
+    public Move parseMove() {
+        String str = _moveStrings[_nextMove];
+        _nextMove = _nextMove + 1 == _moveStrings.length ? 0 : _nextMove + 1;
+        return Move.move(str);
+    }
+
+    /** Parse the next command. */
+    @Benchmark
+    public Command parseCommand() {
+        String str = COMMANDS[_nextCommand];
+        _nextCommand = _nextCommand + 1 == COMMANDS.length
+            ? 0 : _nextCommand + 1;
+        return Command.parseCommand(str);
+    }
+
+    /** Move strings to parse. */
+    private String[] _moveStrings;
+
+    /** Indices of the next move and command to parse. */
+    private int _nextMove, _nextCommand;
+}
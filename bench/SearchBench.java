@@ -0,0 +1,69 @@
+/* Skeleton code copyright (C) 2008, 2022 Paul N. Hilfinger and the
+ * Regents of the University of California.  Do not distribute this or any
+ * derivative work without permission. */
+
+package ataxx;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** JMH benchmark of complete fixed-depth AI searches.  Each search starts
+ *  with an empty transposition table and clear move-ordering tables, so
+ *  that all do the same work.
+ *  @author Katrina Sharonin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBench {
+
+    /** Name of the position (see BenchPositions). */
+    @Param({ BenchPositions.OPENING, BenchPositions.MIDGAME,
+             BenchPositions.ENDGAME })
+    public String position;
+
+    /** Search depth. */
+    @Param({ "4" })
+    public int depth;
+
+    /** Set up the position and the AI. */
+    @Setup
+    public void setup() {
+        _board = BenchPositions.position(position);
+        _ai = new AI(null, _board.whoseMove(), 0);
+        _ai.setMaxDepth(depth);
+    }
+
+    /** Clear what the AI learned from the last search. */
+    @Setup(Level.Invocation)
+    public void forget() {
+        _ai.forget();
+    }
+
+    /** Search the position. */
+    @Benchmark
+    public Move findMove() {
+        return _ai.findMove(_board);
+    }
+
+    /** The position. */
+    private Board _board;
+
+    /** The searcher. */
+    private AI _ai;
+}